@@ -15,6 +15,19 @@ dependencies {
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+// Векторная реализация блочных шифров (Vector API) компилируется с инкубаторным модулем;
+// без --add-modules во время выполнения используется скалярная реализация
+val vectorModuleArgs = listOf("--add-modules", "jdk.incubator.vector")
+
+tasks.withType<JavaCompile> {
+    options.compilerArgs.addAll(vectorModuleArgs)
+}
+
+tasks.withType<JavaExec> {
+    jvmArgs(vectorModuleArgs)
+}
+
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    jvmArgs(vectorModuleArgs)
+}
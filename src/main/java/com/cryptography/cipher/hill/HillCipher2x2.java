@@ -1,10 +1,15 @@
 package com.cryptography.cipher.hill;
 
+import com.cryptography.cipher.modes.BlockCipher16;
+
+import java.util.Arrays;
+
 /**
  * Шифр Хилла 2x2 над байтами по модулю 256.
  * Операции выполняются на парах байт (вектор столбец длины 2).
+ * Как {@link BlockCipher16} пара байт (x0, x1) — 16-битный блок x1 << 8 | x0 (первый байт младший).
  */
-public class HillCipher2x2 {
+public class HillCipher2x2 implements BlockCipher16 {
     private final int[][] K;      // матрица ключа 2x2
     private final int[][] Kinv;   // обратная матрица по модулю 256
 
@@ -45,6 +50,40 @@ public class HillCipher2x2 {
         return transform(data, Kinv);
     }
 
+    /**
+     * Шифрует 16-битный блок x1 << 8 | x0
+     */
+    @Override
+    public int encrypt(int block) {
+        return multiply(K, block);
+    }
+
+    /**
+     * Расшифровывает 16-битный блок y1 << 8 | y0
+     */
+    @Override
+    public int decrypt(int block) {
+        return multiply(Kinv, block);
+    }
+
+    private static int multiply(int[][] M, int block) {
+        int x0 = block & 0xFF;
+        int x1 = (block >>> 8) & 0xFF;
+        int y0 = (M[0][0] * x0 + M[0][1] * x1) & 0xFF;
+        int y1 = (M[1][0] * x0 + M[1][1] * x1) & 0xFF;
+        return (y1 << 8) | y0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HillCipher2x2 && Arrays.deepEquals(K, ((HillCipher2x2) o).K);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.deepHashCode(K);
+    }
+
     /**
      * Выполняет блочное преобразование данных по двум байтам: y = M * x (mod 256).
      * Нечётный последний байт (если есть) копируется без изменений.
@@ -0,0 +1,71 @@
+package com.cryptography.cipher.modes;
+
+/**
+ * Блочный шифр с фиксированным ключом над байтами: блок любого размера (2 байта у S-AES, 16 у AES).
+ * <p>
+ * Режимы {@link BlockModes} работают через этот интерфейс, поэтому конвейер над byte[] переключается
+ * с упрощённого шифра на AES заменой одного объекта. Реализации должны быть неизменяемыми.
+ */
+public interface BlockCipher {
+
+    /**
+     * Размер блока в байтах
+     */
+    int blockBytes();
+
+    /**
+     * Шифрование одного блока из in[inOff..] в out[outOff..] (массивы могут совпадать)
+     */
+    void encryptBlock(byte[] in, int inOff, byte[] out, int outOff);
+
+    /**
+     * Расшифрование одного блока из in[inOff..] в out[outOff..] (массивы могут совпадать)
+     */
+    void decryptBlock(byte[] in, int inOff, byte[] out, int outOff);
+
+    /**
+     * Переход счётчика CTR к следующему блоку: по умолчанию +1 к числу big-endian по модулю 2^(8 * blockBytes()),
+     * как в NIST SP 800-38A и JDK. Шифр с другим порядком байтов в блоке переопределяет метод.
+     */
+    default void incrementCounter(byte[] counter) {
+        for (int j = counter.length - 1; j >= 0; j--) {
+            if (++counter[j] != 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 16-битный шифр как шифр над парами байтов: блок (hi << 8) | lo, где lo — первый байт, как в заданиях 6.x.
+     * Счётчик CTR увеличивается как то же число (hi << 8) | lo, поэтому CTR совпадает с {@link BlockModes16#ctr}.
+     */
+    static BlockCipher of(BlockCipher16 cipher) {
+        return new BlockCipher() {
+            @Override
+            public int blockBytes() {
+                return 2;
+            }
+
+            @Override
+            public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+                int v = cipher.encrypt((in[inOff + 1] & 0xFF) << 8 | (in[inOff] & 0xFF));
+                out[outOff] = (byte) v;
+                out[outOff + 1] = (byte) (v >>> 8);
+            }
+
+            @Override
+            public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+                int v = cipher.decrypt((in[inOff + 1] & 0xFF) << 8 | (in[inOff] & 0xFF));
+                out[outOff] = (byte) v;
+                out[outOff + 1] = (byte) (v >>> 8);
+            }
+
+            @Override
+            public void incrementCounter(byte[] counter) {
+                if (++counter[0] == 0) {
+                    counter[1]++;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.cryptography.cipher.modes;
+
+/**
+ * Блочный шифр с 16-битным блоком и фиксированным ключом (SPN1, S-AES, Хилл 2x2).
+ * <p>
+ * Для одного ключа такой шифр — перестановка 65536 значений, поэтому его можно заменить
+ * кодовой книгой {@link BlockCodebook}. Реализации должны быть неизменяемыми и определять
+ * equals/hashCode по параметрам и ключу: по ним кодовые книги находятся в кэше.
+ * <p>
+ * Блок из пары байтов упаковывается как (hi << 8) | lo, где lo — первый байт, как в файлах заданий 4.x и 6.x.
+ */
+public interface BlockCipher16 {
+
+    /**
+     * Шифрование одного блока (используются младшие 16 бит)
+     */
+    int encrypt(int block);
+
+    /**
+     * Расшифрование одного блока (используются младшие 16 бит)
+     */
+    int decrypt(int block);
+}
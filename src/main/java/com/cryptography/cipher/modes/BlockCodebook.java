@@ -0,0 +1,237 @@
+package com.cryptography.cipher.modes;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Кодовая книга 16-битного блочного шифра для одного ключа: прямая и обратная таблицы short[65536]
+ * (по 128 КиБ), так что шифрование и расшифрование — одно обращение к массиву.
+ * <p>
+ * Книга строится параллельно по {@link BlockCipher16} и сама является шифром с тем же результатом.
+ * {@link Cache} хранит книги недавно использованных ключей в пределах бюджета памяти (LRU) и решает,
+ * когда ключ использован достаточно, чтобы построение окупилось; {@link BlockModes16} обращается
+ * к общему кэшу {@link #shared()} автоматически.
+ * <p>
+ * Обратная таблица заполняется расшифрованием самого шифра, а не обращением прямой таблицы, поэтому книга
+ * совпадает с шифром и тогда, когда его расшифрование не обратно шифрованию (SPN1 при числе раундов, отличном
+ * от 4) или шифр не является перестановкой (S-AES с вырожденной матрицей MixColumns).
+ */
+public final class BlockCodebook implements BlockCipher16 {
+
+    /** Размер одной книги в байтах: две таблицы по 65536 short */
+    public static final int BYTES = 2 * 2 * 65536;
+
+    /** Бюджет общего кэша по умолчанию: 64 книги */
+    public static final long DEFAULT_BUDGET_BYTES = 64L * BYTES;
+
+    /**
+     * Порог по умолчанию: число блоков, после которого для ключа строится книга.
+     * Построение стоит 65536 шифрований и столько же расшифрований, поэтому окупается примерно с этого объёма.
+     */
+    public static final long DEFAULT_THRESHOLD_BLOCKS = 1 << 16;
+
+    private final BlockCipher16 cipher;
+    private final short[] forward;
+    private final short[] inverse;
+    private final boolean invertible;
+
+    private BlockCodebook(BlockCipher16 cipher, short[] forward, short[] inverse, boolean invertible) {
+        this.cipher = cipher;
+        this.forward = forward;
+        this.inverse = inverse;
+        this.invertible = invertible;
+    }
+
+    /**
+     * Параллельное построение книги
+     * @throws IllegalArgumentException если шифр не является перестановкой 16-битных блоков
+     */
+    public static BlockCodebook compile(BlockCipher16 cipher) {
+        BlockCodebook book = build(cipher);
+        if (!book.invertible()) {
+            throw new IllegalArgumentException("Шифр не является перестановкой 16-битных блоков");
+        }
+        return book;
+    }
+
+    /**
+     * Построение книги без проверки: таблицы — значения encrypt и decrypt самого шифра на всех блоках
+     */
+    private static BlockCodebook build(BlockCipher16 cipher) {
+        if (cipher instanceof BlockCodebook) {
+            return (BlockCodebook) cipher;
+        }
+        short[] forward = new short[65536];
+        short[] inverse = new short[65536];
+        IntStream.range(0, 65536).parallel().forEach(x -> {
+            forward[x] = (short) cipher.encrypt(x);
+            inverse[x] = (short) cipher.decrypt(x);
+        });
+        boolean[] seen = new boolean[65536];
+        for (int p = 0; p < 65536; p++) {
+            int c = forward[p] & 0xFFFF;
+            if (seen[c]) {
+                return new BlockCodebook(cipher, forward, inverse, false);
+            }
+            seen[c] = true;
+        }
+        return new BlockCodebook(cipher, forward, inverse, true);
+    }
+
+    private static final class Holder {
+        static final Cache SHARED = new Cache(DEFAULT_BUDGET_BYTES, DEFAULT_THRESHOLD_BLOCKS);
+    }
+
+    /**
+     * Общий кэш книг (бюджет {@link #DEFAULT_BUDGET_BYTES}, порог {@link #DEFAULT_THRESHOLD_BLOCKS})
+     */
+    public static Cache shared() {
+        return Holder.SHARED;
+    }
+
+    /** Шифр, по которому построена книга */
+    public BlockCipher16 cipher() {
+        return cipher;
+    }
+
+    /** Является ли шифр перестановкой блоков */
+    public boolean invertible() {
+        return invertible;
+    }
+
+    @Override
+    public int encrypt(int block) {
+        return forward[block & 0xFFFF] & 0xFFFF;
+    }
+
+    @Override
+    public int decrypt(int block) {
+        return inverse[block & 0xFFFF] & 0xFFFF;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BlockCodebook && ((BlockCodebook) o).cipher.equals(cipher);
+    }
+
+    @Override
+    public int hashCode() {
+        return cipher.hashCode();
+    }
+
+    /**
+     * LRU-кэш кодовых книг с ограничением по памяти.
+     * <p>
+     * Для шифров без книги кэш считает обработанные блоки; когда сумма достигает порога, книга
+     * строится и кэшируется, а самые давно использованные книги вытесняются, пока их суммарный размер
+     * больше бюджета. Состояние кэша защищено его монитором, а книга строится вне блокировки
+     * и публикуется через putIfAbsent, поэтому построение не задерживает обращения по другим ключам.
+     */
+    public static final class Cache {
+
+        // Сколько шифров без книги отслеживается одновременно
+        private static final int MAX_TRACKED = 1024;
+
+        private final long budgetBytes;
+        private final long thresholdBlocks;
+        private final LinkedHashMap<BlockCipher16, BlockCodebook> books = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<BlockCipher16, Long> usage = new HashMap<>();
+        private long compilations;
+
+        /**
+         * @param budgetBytes максимальный суммарный размер книг (не меньше {@link #BYTES})
+         * @param thresholdBlocks с какого числа блоков для ключа строится книга (0 — сразу)
+         */
+        public Cache(long budgetBytes, long thresholdBlocks) {
+            if (budgetBytes < BYTES) {
+                throw new IllegalArgumentException("Бюджет кэша меньше одной кодовой книги: " + budgetBytes);
+            }
+            if (thresholdBlocks < 0) {
+                throw new IllegalArgumentException("Порог не может быть отрицательным: " + thresholdBlocks);
+            }
+            this.budgetBytes = budgetBytes;
+            this.thresholdBlocks = thresholdBlocks;
+        }
+
+        /**
+         * Книга для шифра (строится при отсутствии, в том числе для шифра, не являющегося перестановкой)
+         */
+        public BlockCodebook get(BlockCipher16 cipher) {
+            if (cipher instanceof BlockCodebook) {
+                return (BlockCodebook) cipher;
+            }
+            synchronized (this) {
+                BlockCodebook book = books.get(cipher);
+                if (book != null) {
+                    return book;
+                }
+            }
+            BlockCodebook built = build(cipher);
+            synchronized (this) {
+                BlockCodebook book = books.putIfAbsent(cipher, built);
+                if (book != null) {
+                    return book;
+                }
+                compilations++;
+                usage.remove(cipher);
+                evict();
+                return built;
+            }
+        }
+
+        /**
+         * Шифр для обработки очередных blocks блоков: книга, если она есть или порог достигнут,
+         * иначе сам шифр
+         */
+        public BlockCipher16 resolve(BlockCipher16 cipher, long blocks) {
+            if (cipher instanceof BlockCodebook) {
+                return cipher;
+            }
+            synchronized (this) {
+                BlockCodebook book = books.get(cipher);
+                if (book != null) {
+                    return book;
+                }
+                long used = usage.getOrDefault(cipher, 0L) + blocks;
+                if (used < thresholdBlocks) {
+                    if (usage.size() >= MAX_TRACKED && !usage.containsKey(cipher)) {
+                        usage.clear();
+                    }
+                    usage.put(cipher, used);
+                    return cipher;
+                }
+            }
+            return get(cipher);
+        }
+
+        public synchronized boolean contains(BlockCipher16 cipher) {
+            return books.containsKey(cipher);
+        }
+
+        /** Число книг в кэше */
+        public synchronized int size() {
+            return books.size();
+        }
+
+        /** Сколько книг было построено */
+        public synchronized long compilations() {
+            return compilations;
+        }
+
+        public synchronized void clear() {
+            books.clear();
+            usage.clear();
+        }
+
+        private void evict() {
+            Iterator<BlockCodebook> it = books.values().iterator();
+            while ((long) books.size() * BYTES > budgetBytes && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.cryptography.cipher.modes;
+
+/**
+ * Режимы работы блочного шифра.
+ */
+public enum BlockMode {
+    /** Каждый блок шифруется независимо */
+    ECB,
+    /** y_i = E_k(x_i XOR y_{i-1}), y_{-1} = IV */
+    CBC,
+    /** s_i = E_k(s_{i-1}), y_i = x_i XOR s_i, s_{-1} = IV */
+    OFB,
+    /** y_i = x_i XOR E_k(y_{i-1}), y_{-1} = IV */
+    CFB,
+    /** y_i = x_i XOR E_k(IV + i) */
+    CTR;
+
+    /**
+     * @return true, если режим использует вектор инициализации
+     */
+    public boolean usesIv() {
+        return this != ECB;
+    }
+}
@@ -0,0 +1,177 @@
+package com.cryptography.cipher.modes;
+
+import java.util.Objects;
+
+/**
+ * Режимы ECB, CBC, CFB, OFB и CTR для любого {@link BlockCipher} над byte[] на месте.
+ * <p>
+ * Та же схема, что у {@link BlockModes16}, но блок — это blockBytes() байтов массива, а состояние режима
+ * (IV, последний блок шифротекста, гамма или счётчик) хранится в массиве iv длины blockBytes() и
+ * обновляется на месте, чтобы следующий участок продолжил обработку. Длина участка должна быть
+ * кратна размеру блока. Счётчик CTR увеличивает {@link BlockCipher#incrementCounter}: у AES — как big-endian
+ * число, как в NIST SP 800-38A и JDK, у {@code BlockCipher.of(cipher16)} — как блок (hi << 8) | lo.
+ */
+public final class BlockModes {
+
+    private BlockModes() {}
+
+    public static void encryptECB(BlockCipher cipher, byte[] data, int off, int len) {
+        int n = check(cipher, data, off, len, null);
+        for (int i = off; i < off + len; i += n) {
+            cipher.encryptBlock(data, i, data, i);
+        }
+    }
+
+    public static void decryptECB(BlockCipher cipher, byte[] data, int off, int len) {
+        int n = check(cipher, data, off, len, null);
+        for (int i = off; i < off + len; i += n) {
+            cipher.decryptBlock(data, i, data, i);
+        }
+    }
+
+    /**
+     * y_i = E(x_i XOR y_{i-1}), y_{-1} = iv; iv становится последним блоком шифротекста
+     */
+    public static void encryptCBC(BlockCipher cipher, byte[] data, int off, int len, byte[] iv) {
+        int n = check(cipher, data, off, len, iv);
+        byte[] previous = iv;
+        int p = 0;
+        for (int i = off; i < off + len; i += n) {
+            for (int j = 0; j < n; j++) {
+                data[i + j] ^= previous[p + j];
+            }
+            cipher.encryptBlock(data, i, data, i);
+            previous = data;
+            p = i;
+        }
+        System.arraycopy(previous, p, iv, 0, n);
+    }
+
+    /**
+     * x_i = D(y_i) XOR y_{i-1}, y_{-1} = iv; iv становится последним блоком шифротекста
+     */
+    public static void decryptCBC(BlockCipher cipher, byte[] data, int off, int len, byte[] iv) {
+        int n = check(cipher, data, off, len, iv);
+        byte[] saved = new byte[n];
+        for (int i = off; i < off + len; i += n) {
+            System.arraycopy(data, i, saved, 0, n);
+            cipher.decryptBlock(data, i, data, i);
+            for (int j = 0; j < n; j++) {
+                data[i + j] ^= iv[j];
+            }
+            System.arraycopy(saved, 0, iv, 0, n);
+        }
+    }
+
+    /**
+     * y_i = x_i XOR E(y_{i-1}), y_{-1} = iv; iv становится последним блоком шифротекста
+     */
+    public static void encryptCFB(BlockCipher cipher, byte[] data, int off, int len, byte[] iv) {
+        int n = check(cipher, data, off, len, iv);
+        byte[] keystream = new byte[n];
+        for (int i = off; i < off + len; i += n) {
+            cipher.encryptBlock(iv, 0, keystream, 0);
+            for (int j = 0; j < n; j++) {
+                iv[j] = data[i + j] ^= keystream[j];
+            }
+        }
+    }
+
+    /**
+     * x_i = y_i XOR E(y_{i-1}), y_{-1} = iv; iv становится последним блоком шифротекста
+     */
+    public static void decryptCFB(BlockCipher cipher, byte[] data, int off, int len, byte[] iv) {
+        int n = check(cipher, data, off, len, iv);
+        byte[] keystream = new byte[n];
+        for (int i = off; i < off + len; i += n) {
+            cipher.encryptBlock(iv, 0, keystream, 0);
+            for (int j = 0; j < n; j++) {
+                iv[j] = data[i + j];
+                data[i + j] ^= keystream[j];
+            }
+        }
+    }
+
+    /**
+     * s_i = E(s_{i-1}), y_i = x_i XOR s_i, s_{-1} = iv (шифрование и расшифрование совпадают); iv становится гаммой
+     */
+    public static void ofb(BlockCipher cipher, byte[] data, int off, int len, byte[] iv) {
+        int n = check(cipher, data, off, len, iv);
+        for (int i = off; i < off + len; i += n) {
+            cipher.encryptBlock(iv, 0, iv, 0);
+            for (int j = 0; j < n; j++) {
+                data[i + j] ^= iv[j];
+            }
+        }
+    }
+
+    /**
+     * y_i = x_i XOR E(counter + i) (шифрование и расшифрование совпадают); counter переходит к следующему блоку
+     */
+    public static void ctr(BlockCipher cipher, byte[] data, int off, int len, byte[] counter) {
+        int n = check(cipher, data, off, len, counter);
+        byte[] keystream = new byte[n];
+        for (int i = off; i < off + len; i += n) {
+            cipher.encryptBlock(counter, 0, keystream, 0);
+            for (int j = 0; j < n; j++) {
+                data[i + j] ^= keystream[j];
+            }
+            cipher.incrementCounter(counter);
+        }
+    }
+
+    /**
+     * Обработка участка в заданном режиме
+     * @param iv IV, счётчик или состояние режима после предыдущего участка (обновляется на месте, в ECB не используется)
+     */
+    public static void transform(BlockCipher cipher, BlockMode mode, boolean encrypt,
+                                 byte[] data, int off, int len, byte[] iv) {
+        switch (mode) {
+            case ECB:
+                if (encrypt) {
+                    encryptECB(cipher, data, off, len);
+                } else {
+                    decryptECB(cipher, data, off, len);
+                }
+                break;
+            case CBC:
+                if (encrypt) {
+                    encryptCBC(cipher, data, off, len, iv);
+                } else {
+                    decryptCBC(cipher, data, off, len, iv);
+                }
+                break;
+            case CFB:
+                if (encrypt) {
+                    encryptCFB(cipher, data, off, len, iv);
+                } else {
+                    decryptCFB(cipher, data, off, len, iv);
+                }
+                break;
+            case OFB:
+                ofb(cipher, data, off, len, iv);
+                break;
+            case CTR:
+                ctr(cipher, data, off, len, iv);
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестный режим: " + mode);
+        }
+    }
+
+    /**
+     * @return размер блока шифра
+     * @throws IllegalArgumentException если длина участка не кратна блоку или длина IV не равна блоку
+     */
+    private static int check(BlockCipher cipher, byte[] data, int off, int len, byte[] iv) {
+        Objects.checkFromIndexSize(off, len, data.length);
+        int n = cipher.blockBytes();
+        if (len % n != 0) {
+            throw new IllegalArgumentException("Длина участка должна быть кратна " + n + " байтам: " + len);
+        }
+        if (iv != null && iv.length != n) {
+            throw new IllegalArgumentException("Длина IV должна быть " + n + " байт: " + iv.length);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,147 @@
+package com.cryptography.cipher.modes;
+
+import java.util.Objects;
+
+/**
+ * Режимы ECB, CBC, CFB, OFB и CTR для любого {@link BlockCipher16} над int[] на месте.
+ * <p>
+ * Перед обработкой участка шифр передаётся в общий кэш {@link BlockCodebook#shared()}: если ключ
+ * уже обработал не меньше порога блоков (с учётом предыдущих вызовов), участок шифруется по кодовой
+ * книге, иначе — самим шифром. Результат в обоих случаях одинаков. Методы CBC, CFB, OFB и CTR
+ * возвращают состояние режима для продолжения со следующего участка.
+ */
+public final class BlockModes16 {
+
+    private BlockModes16() {}
+
+    public static void encryptECB(BlockCipher16 cipher, int[] data, int off, int len) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        for (int i = off; i < off + len; i++) {
+            data[i] = c.encrypt(data[i]);
+        }
+    }
+
+    public static void decryptECB(BlockCipher16 cipher, int[] data, int off, int len) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        for (int i = off; i < off + len; i++) {
+            data[i] = c.decrypt(data[i]);
+        }
+    }
+
+    /**
+     * y_i = E(x_i XOR y_{i-1}), y_{-1} = iv
+     * @return последний блок шифротекста
+     */
+    public static int encryptCBC(BlockCipher16 cipher, int[] data, int off, int len, int iv) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        int previous = iv & 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            previous = c.encrypt((data[i] ^ previous) & 0xFFFF);
+            data[i] = previous;
+        }
+        return previous;
+    }
+
+    /**
+     * x_i = D(y_i) XOR y_{i-1}, y_{-1} = iv
+     * @return последний блок шифротекста
+     */
+    public static int decryptCBC(BlockCipher16 cipher, int[] data, int off, int len, int iv) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        int previous = iv & 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            int y = data[i] & 0xFFFF;
+            data[i] = c.decrypt(y) ^ previous;
+            previous = y;
+        }
+        return previous;
+    }
+
+    /**
+     * y_i = x_i XOR E(y_{i-1}), y_{-1} = iv
+     * @return последний блок шифротекста
+     */
+    public static int encryptCFB(BlockCipher16 cipher, int[] data, int off, int len, int iv) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        int previous = iv & 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            previous = (data[i] ^ c.encrypt(previous)) & 0xFFFF;
+            data[i] = previous;
+        }
+        return previous;
+    }
+
+    /**
+     * x_i = y_i XOR E(y_{i-1}), y_{-1} = iv
+     * @return последний блок шифротекста
+     */
+    public static int decryptCFB(BlockCipher16 cipher, int[] data, int off, int len, int iv) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        int previous = iv & 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            int y = data[i] & 0xFFFF;
+            data[i] = y ^ c.encrypt(previous);
+            previous = y;
+        }
+        return previous;
+    }
+
+    /**
+     * s_i = E(s_{i-1}), y_i = x_i XOR s_i, s_{-1} = iv (шифрование и расшифрование совпадают)
+     * @return состояние гаммы
+     */
+    public static int ofb(BlockCipher16 cipher, int[] data, int off, int len, int iv) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        int state = iv & 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            state = c.encrypt(state);
+            data[i] = (data[i] ^ state) & 0xFFFF;
+        }
+        return state;
+    }
+
+    /**
+     * y_i = x_i XOR E(counter + i) (шифрование и расшифрование совпадают)
+     * @return значение счётчика для следующего участка
+     */
+    public static int ctr(BlockCipher16 cipher, int[] data, int off, int len, int counter) {
+        BlockCipher16 c = resolve(cipher, data, off, len);
+        for (int i = 0; i < len; i++) {
+            data[off + i] = (data[off + i] ^ c.encrypt((counter + i) & 0xFFFF)) & 0xFFFF;
+        }
+        return (counter + len) & 0xFFFF;
+    }
+
+    /**
+     * Обработка участка в заданном режиме
+     * @param state IV, счётчик или состояние режима после предыдущего участка (не используется в ECB)
+     * @return состояние режима для следующего участка
+     */
+    public static int transform(BlockCipher16 cipher, BlockMode mode, boolean encrypt,
+                                int[] data, int off, int len, int state) {
+        switch (mode) {
+            case ECB:
+                if (encrypt) {
+                    encryptECB(cipher, data, off, len);
+                } else {
+                    decryptECB(cipher, data, off, len);
+                }
+                return state;
+            case CBC:
+                return encrypt ? encryptCBC(cipher, data, off, len, state) : decryptCBC(cipher, data, off, len, state);
+            case CFB:
+                return encrypt ? encryptCFB(cipher, data, off, len, state) : decryptCFB(cipher, data, off, len, state);
+            case OFB:
+                return ofb(cipher, data, off, len, state);
+            case CTR:
+                return ctr(cipher, data, off, len, state);
+            default:
+                throw new IllegalArgumentException("Неизвестный режим: " + mode);
+        }
+    }
+
+    private static BlockCipher16 resolve(BlockCipher16 cipher, int[] data, int off, int len) {
+        Objects.checkFromIndexSize(off, len, data.length);
+        return BlockCodebook.shared().resolve(cipher, len);
+    }
+}
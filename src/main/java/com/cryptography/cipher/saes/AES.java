@@ -0,0 +1,219 @@
+package com.cryptography.cipher.saes;
+
+import com.cryptography.cipher.modes.BlockCipher;
+import com.cryptography.cipher.modes.BlockMode;
+import com.cryptography.cipher.modes.BlockModes;
+
+/**
+ * Полный AES (FIPS 197): блок 128 бит, ключ 128, 192 или 256 бит (10, 12 или 14 раундов).
+ * <p>
+ * Устроен так же, как {@link SAESCipher} (NibbleSub/SubBytes, ShiftRows, MixColumns, сложение с ключом),
+ * и вычисляется тем же приёмом, что {@link SAESTables}: SubBytes, ShiftRows и MixColumns раунда
+ * объединены в четыре T-таблицы по 256 int, поэтому раунд — это 16 обращений к таблицам и XOR
+ * с раундовым ключом. Расшифрование использует эквивалентный обратный шифр: InvMixColumns
+ * переносится в раундовые ключи. Таблицы строятся один раз из арифметики GF(2^8), расширение ключа
+ * выполняется в конструкторе. Экземпляр неизменяем и может использоваться из нескольких потоков.
+ * <p>
+ * Шифр реализует {@link BlockCipher}, как и {@code BlockCipher.of(saes.withKey(key))}, поэтому режимы
+ * {@link BlockModes} работают с ним и с S-AES одинаково. Блок читается из массива в порядке big-endian.
+ */
+public final class AES implements BlockCipher {
+
+    /** Размер блока в байтах */
+    public static final int BLOCK_BYTES = 16;
+
+    private static final int[] SBOX = new int[256];
+    private static final int[] INV_SBOX = new int[256];
+    private static final int[] TE0 = new int[256];
+    private static final int[] TE1 = new int[256];
+    private static final int[] TE2 = new int[256];
+    private static final int[] TE3 = new int[256];
+    private static final int[] TD0 = new int[256];
+    private static final int[] TD1 = new int[256];
+    private static final int[] TD2 = new int[256];
+    private static final int[] TD3 = new int[256];
+
+    static {
+        // Степени и логарифмы по образующей 3 в GF(2^8) по модулю x^8 + x^4 + x^3 + x + 1
+        int[] exp = new int[256];
+        int[] log = new int[256];
+        for (int i = 0, x = 1; i < 255; i++) {
+            exp[i] = x;
+            log[x] = i;
+            x ^= xtime(x);
+        }
+        for (int a = 0; a < 256; a++) {
+            int inv = a == 0 ? 0 : exp[(255 - log[a]) % 255];
+            int s = inv ^ Integer.rotateLeft(inv, 1) ^ Integer.rotateLeft(inv, 2)
+                    ^ Integer.rotateLeft(inv, 3) ^ Integer.rotateLeft(inv, 4);
+            s = ((s ^ (s >>> 8)) & 0xFF) ^ 0x63;
+            SBOX[a] = s;
+            INV_SBOX[s] = a;
+        }
+        for (int a = 0; a < 256; a++) {
+            int s = SBOX[a];
+            int s2 = xtime(s);
+            int e = s2 << 24 | s << 16 | s << 8 | (s2 ^ s);
+            TE0[a] = e;
+            TE1[a] = Integer.rotateRight(e, 8);
+            TE2[a] = Integer.rotateRight(e, 16);
+            TE3[a] = Integer.rotateRight(e, 24);
+
+            int si = INV_SBOX[a];
+            int s4 = xtime(xtime(si));
+            int s8 = xtime(s4);
+            int s9 = s8 ^ si;
+            int sb = s8 ^ xtime(si) ^ si;
+            int sd = s8 ^ s4 ^ si;
+            int se = s8 ^ s4 ^ xtime(si);
+            int d = se << 24 | s9 << 16 | sd << 8 | sb;
+            TD0[a] = d;
+            TD1[a] = Integer.rotateRight(d, 8);
+            TD2[a] = Integer.rotateRight(d, 16);
+            TD3[a] = Integer.rotateRight(d, 24);
+        }
+    }
+
+    private final int rounds;
+    private final int[] ek; // 4 * (rounds + 1) слов раундовых ключей шифрования
+    private final int[] dk; // ключи эквивалентного обратного шифра
+
+    /**
+     * @param key ключ из 16, 24 или 32 байт
+     * @throws IllegalArgumentException если длина ключа другая
+     */
+    public AES(byte[] key) {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("Ключ AES должен иметь длину 16, 24 или 32 байта: " + key.length);
+        }
+        int nk = key.length / 4;
+        this.rounds = nk + 6;
+        this.ek = expandKey(key, nk, rounds);
+        this.dk = new int[ek.length];
+        for (int r = 0; r <= rounds; r++) {
+            for (int j = 0; j < 4; j++) {
+                int w = ek[4 * (rounds - r) + j];
+                dk[4 * r + j] = r == 0 || r == rounds ? w
+                        : TD0[SBOX[w >>> 24]] ^ TD1[SBOX[(w >>> 16) & 0xFF]]
+                          ^ TD2[SBOX[(w >>> 8) & 0xFF]] ^ TD3[SBOX[w & 0xFF]];
+            }
+        }
+    }
+
+    private static int[] expandKey(byte[] key, int nk, int rounds) {
+        int[] w = new int[4 * (rounds + 1)];
+        for (int i = 0; i < nk; i++) {
+            w[i] = get(key, 4 * i);
+        }
+        int rcon = 1;
+        for (int i = nk; i < w.length; i++) {
+            int t = w[i - 1];
+            if (i % nk == 0) {
+                t = subWord(Integer.rotateLeft(t, 8)) ^ (rcon << 24);
+                rcon = xtime(rcon);
+            } else if (nk > 6 && i % nk == 4) {
+                t = subWord(t);
+            }
+            w[i] = w[i - nk] ^ t;
+        }
+        return w;
+    }
+
+    private static int subWord(int w) {
+        return SBOX[w >>> 24] << 24 | SBOX[(w >>> 16) & 0xFF] << 16 | SBOX[(w >>> 8) & 0xFF] << 8 | SBOX[w & 0xFF];
+    }
+
+    private static int xtime(int x) {
+        return ((x << 1) ^ ((x & 0x80) != 0 ? 0x1B : 0)) & 0xFF;
+    }
+
+    /** Число раундов: 10, 12 или 14 */
+    public int rounds() {
+        return rounds;
+    }
+
+    /** Длина ключа в битах */
+    public int keyBits() {
+        return 32 * (rounds - 6);
+    }
+
+    @Override
+    public int blockBytes() {
+        return BLOCK_BYTES;
+    }
+
+    @Override
+    public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        int[] k = ek;
+        int s0 = get(in, inOff) ^ k[0];
+        int s1 = get(in, inOff + 4) ^ k[1];
+        int s2 = get(in, inOff + 8) ^ k[2];
+        int s3 = get(in, inOff + 12) ^ k[3];
+        int i = 4;
+        for (int r = 1; r < rounds; r++, i += 4) {
+            int t0 = TE0[s0 >>> 24] ^ TE1[(s1 >>> 16) & 0xFF] ^ TE2[(s2 >>> 8) & 0xFF] ^ TE3[s3 & 0xFF] ^ k[i];
+            int t1 = TE0[s1 >>> 24] ^ TE1[(s2 >>> 16) & 0xFF] ^ TE2[(s3 >>> 8) & 0xFF] ^ TE3[s0 & 0xFF] ^ k[i + 1];
+            int t2 = TE0[s2 >>> 24] ^ TE1[(s3 >>> 16) & 0xFF] ^ TE2[(s0 >>> 8) & 0xFF] ^ TE3[s1 & 0xFF] ^ k[i + 2];
+            int t3 = TE0[s3 >>> 24] ^ TE1[(s0 >>> 16) & 0xFF] ^ TE2[(s1 >>> 8) & 0xFF] ^ TE3[s2 & 0xFF] ^ k[i + 3];
+            s0 = t0;
+            s1 = t1;
+            s2 = t2;
+            s3 = t3;
+        }
+        // Последний раунд без MixColumns
+        put(out, outOff, last(SBOX, s0, s1, s2, s3) ^ k[i]);
+        put(out, outOff + 4, last(SBOX, s1, s2, s3, s0) ^ k[i + 1]);
+        put(out, outOff + 8, last(SBOX, s2, s3, s0, s1) ^ k[i + 2]);
+        put(out, outOff + 12, last(SBOX, s3, s0, s1, s2) ^ k[i + 3]);
+    }
+
+    @Override
+    public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        int[] k = dk;
+        int s0 = get(in, inOff) ^ k[0];
+        int s1 = get(in, inOff + 4) ^ k[1];
+        int s2 = get(in, inOff + 8) ^ k[2];
+        int s3 = get(in, inOff + 12) ^ k[3];
+        int i = 4;
+        for (int r = 1; r < rounds; r++, i += 4) {
+            int t0 = TD0[s0 >>> 24] ^ TD1[(s3 >>> 16) & 0xFF] ^ TD2[(s2 >>> 8) & 0xFF] ^ TD3[s1 & 0xFF] ^ k[i];
+            int t1 = TD0[s1 >>> 24] ^ TD1[(s0 >>> 16) & 0xFF] ^ TD2[(s3 >>> 8) & 0xFF] ^ TD3[s2 & 0xFF] ^ k[i + 1];
+            int t2 = TD0[s2 >>> 24] ^ TD1[(s1 >>> 16) & 0xFF] ^ TD2[(s0 >>> 8) & 0xFF] ^ TD3[s3 & 0xFF] ^ k[i + 2];
+            int t3 = TD0[s3 >>> 24] ^ TD1[(s2 >>> 16) & 0xFF] ^ TD2[(s1 >>> 8) & 0xFF] ^ TD3[s0 & 0xFF] ^ k[i + 3];
+            s0 = t0;
+            s1 = t1;
+            s2 = t2;
+            s3 = t3;
+        }
+        put(out, outOff, last(INV_SBOX, s0, s3, s2, s1) ^ k[i]);
+        put(out, outOff + 4, last(INV_SBOX, s1, s0, s3, s2) ^ k[i + 1]);
+        put(out, outOff + 8, last(INV_SBOX, s2, s1, s0, s3) ^ k[i + 2]);
+        put(out, outOff + 12, last(INV_SBOX, s3, s2, s1, s0) ^ k[i + 3]);
+    }
+
+    /**
+     * Обработка участка на месте в заданном режиме (см. {@link BlockModes#transform})
+     * @param iv IV или состояние режима из 16 байт (обновляется на месте, в ECB не используется)
+     */
+    public void transform(BlockMode mode, boolean encrypt, byte[] data, int off, int len, byte[] iv) {
+        BlockModes.transform(this, mode, encrypt, data, off, len, iv);
+    }
+
+    /**
+     * Слово последнего раунда: байты замены из четырёх столбцов после ShiftRows
+     */
+    private static int last(int[] box, int a, int b, int c, int d) {
+        return box[a >>> 24] << 24 | box[(b >>> 16) & 0xFF] << 16 | box[(c >>> 8) & 0xFF] << 8 | box[d & 0xFF];
+    }
+
+    private static int get(byte[] data, int off) {
+        return (data[off] & 0xFF) << 24 | (data[off + 1] & 0xFF) << 16 | (data[off + 2] & 0xFF) << 8 | (data[off + 3] & 0xFF);
+    }
+
+    private static void put(byte[] data, int off, int v) {
+        data[off] = (byte) (v >>> 24);
+        data[off + 1] = (byte) (v >>> 16);
+        data[off + 2] = (byte) (v >>> 8);
+        data[off + 3] = (byte) v;
+    }
+}
@@ -0,0 +1,258 @@
+package com.cryptography.cipher.saes;
+
+import com.cryptography.utils.BitSlice;
+
+import java.util.stream.IntStream;
+
+/**
+ * Побитово-срезовое (bitsliced) шифрование S-AES под 64 ключами за один проход — для перебора ключей.
+ * <p>
+ * Состояние — 16 плоскостей long (см. {@link BitSlice}), позиция бита в long — номер ключа. Раундовые
+ * ключи k0, k1, k2 64 ключей транспонируются в 48 плоскостей; для всего пространства ключей плоскости
+ * 1024 срезов по 64 подряд идущих ключа вычисляются один раз (384 КиБ). NibbleSub — булева схема
+ * (алгебраическая нормальная форма S_BOX), ShiftRow — переименование плоскостей, MixColumns — линейное
+ * отображение над GF(2): каждый выходной бит столбца — XOR заранее выбранных плоскостей из восьми входных.
+ * <p>
+ * Результаты совпадают с {@link SAESCipher#encrypt(int, int, int, int)}. Экземпляр неизменяем;
+ * рабочие массивы создаются на каждый вызов массовой операции.
+ */
+public final class SAESBitsliced {
+
+    /** Число срезов по 64 ключа во всём пространстве 16-битных ключей */
+    public static final int SLICES = (1 << 16) / BitSlice.LANES;
+
+    /** Плоскостей ключей в срезе: k0, k1, k2 по 16 */
+    public static final int KEY_PLANES = 48;
+
+    // taps[4 * r + i] — входные биты выходного бита i строки r: 0..3 — верхний ниббл столбца, 4..7 — нижний
+    private final int[][] taps = new int[8][];
+
+    /**
+     * @param mix матрица MixColumns
+     * @param mul таблица умножения GF(2^4): элемент a << 4 | b равен a * b
+     */
+    SAESBitsliced(int[][] mix, int[] mul) {
+        for (int r = 0; r < 2; r++) {
+            for (int i = 0; i < 4; i++) {
+                int m = 0;
+                for (int j = 0; j < 4; j++) {
+                    m |= ((mul[mix[r][0] << 4 | 1 << j] >>> i) & 1) << j;
+                    m |= ((mul[mix[r][1] << 4 | 1 << j] >>> i) & 1) << (4 + j);
+                }
+                int[] t = new int[Integer.bitCount(m)];
+                for (int j = 0, n = 0; j < 8; j++) {
+                    if ((m >>> j & 1) != 0) {
+                        t[n++] = j;
+                    }
+                }
+                taps[4 * r + i] = t;
+            }
+        }
+    }
+
+    private static final class Holder {
+        static final long[] PLANES = build();
+    }
+
+    private static long[] build() {
+        long[] planes = new long[SLICES * KEY_PLANES];
+        IntStream.range(0, SLICES).parallel().forEach(slice -> {
+            int[] keys = new int[BitSlice.LANES];
+            for (int b = 0; b < keys.length; b++) {
+                keys[b] = slice * BitSlice.LANES + b;
+            }
+            System.arraycopy(keyPlanes(keys, 0, keys.length), 0, planes, slice * KEY_PLANES, KEY_PLANES);
+        });
+        return planes;
+    }
+
+    /**
+     * Плоскости раундовых ключей для до 64 произвольных ключей (по одному на позицию)
+     * @param keys 16-битные ключи
+     * @param off индекс первого ключа
+     * @param count количество ключей (0..64); недостающие позиции получают ключ 0
+     * @return 48 плоскостей: k0, k1, k2
+     */
+    public static long[] keyPlanes(int[] keys, int off, int count) {
+        long[] planes = new long[KEY_PLANES];
+        long[] work = new long[16];
+        int[] rk = new int[BitSlice.LANES];
+        int[] schedule = SAESKeySchedule.shared();
+        for (int i = 0; i < 3; i++) {
+            for (int b = 0; b < count; b++) {
+                rk[b] = schedule[3 * (keys[off + b] & 0xFFFF) + i];
+            }
+            BitSlice.slice(rk, 0, count, work);
+            System.arraycopy(work, 0, planes, i * 16, 16);
+        }
+        return planes;
+    }
+
+    /**
+     * Плоскости раундовых ключей среза: ключи slice * 64 + позиция
+     * @param slice номер среза (0..1023)
+     */
+    public static long[] keyPlanes(int slice) {
+        long[] planes = new long[KEY_PLANES];
+        System.arraycopy(Holder.PLANES, checkSlice(slice) * KEY_PLANES, planes, 0, KEY_PLANES);
+        return planes;
+    }
+
+    /**
+     * Шифрование 64 блоков, разложенных в state[0..15], каждый под своим ключом
+     * @param state плоскости состояния (изменяются на месте)
+     * @param tmp временный массив не короче 16 элементов
+     * @param keys плоскости раундовых ключей
+     * @param off индекс первой плоскости ключей
+     */
+    public void encrypt(long[] state, long[] tmp, long[] keys, int off) {
+        for (int j = 0; j < 16; j++) {
+            state[j] ^= keys[off + j];
+        }
+        substitute(state);
+        // ShiftRow переставляет нибблы 2 и 0, поэтому столбцы берутся как (3, 0) и (1, 2)
+        mixColumn(state, 12, 0, tmp, 12, 8, keys, off + 16);
+        mixColumn(state, 4, 8, tmp, 4, 0, keys, off + 16);
+        substitute(tmp);
+        for (int n = 0; n < 4; n++) {
+            int from = (n & 1) == 0 ? n ^ 2 : n;
+            for (int i = 0; i < 4; i++) {
+                state[4 * n + i] = tmp[4 * from + i] ^ keys[off + 32 + 4 * n + i];
+            }
+        }
+    }
+
+    /**
+     * Маска ключей среза, под которыми все пары p_i -> c_i совпадают; проверка прекращается, как только маска обнуляется
+     * @param keys плоскости раундовых ключей
+     * @param off индекс первой плоскости ключей
+     */
+    public long matches(long[] keys, int off, int[] plain, int[] cipher) {
+        long[] state = new long[16];
+        long[] tmp = new long[16];
+        long alive = -1L;
+        for (int i = 0; i < plain.length && alive != 0; i++) {
+            BitSlice.broadcast(plain[i], state, 0);
+            encrypt(state, tmp, keys, off);
+            alive &= BitSlice.equalsMask(state, cipher[i]);
+        }
+        return alive;
+    }
+
+    /**
+     * Все 16-битные ключи, согласованные с парами открытый блок / шифроблок; срезы проверяются параллельно
+     * @throws IllegalArgumentException если пар нет или длины массивов различаются
+     */
+    public int[] search(int[] plain, int[] cipher) {
+        checkPairs(plain, cipher);
+        long[] planes = Holder.PLANES;
+        long[] alive = new long[SLICES];
+        IntStream.range(0, SLICES).parallel()
+                .forEach(slice -> alive[slice] = matches(planes, slice * KEY_PLANES, plain, cipher));
+        return IntStream.range(0, SLICES)
+                .filter(slice -> alive[slice] != 0)
+                .flatMap(slice -> lanes(alive[slice], slice * BitSlice.LANES))
+                .toArray();
+    }
+
+    /**
+     * Ключи из заданного набора (например, с известными битами), согласованные с парами
+     * @throws IllegalArgumentException если пар нет или длины массивов различаются
+     */
+    public int[] search(int[] candidates, int[] plain, int[] cipher) {
+        checkPairs(plain, cipher);
+        int groups = (candidates.length + BitSlice.LANES - 1) / BitSlice.LANES;
+        return IntStream.range(0, groups).parallel()
+                .flatMap(g -> {
+                    int off = g * BitSlice.LANES;
+                    int count = Math.min(BitSlice.LANES, candidates.length - off);
+                    long alive = matches(keyPlanes(candidates, off, count), 0, plain, cipher);
+                    return IntStream.range(0, count).filter(b -> (alive >>> b & 1) != 0).map(b -> candidates[off + b]);
+                })
+                .toArray();
+    }
+
+    /**
+     * Гамма OFB s_i = E(s_{i-1}), s_{-1} = iv для до 64 ключей одновременно
+     * @param keys 16-битные ключи
+     * @param off индекс первого ключа
+     * @param count количество ключей (0..64)
+     * @param blocks длина гаммы в блоках
+     * @return result[b][i] — блок i гаммы ключа keys[off + b]
+     */
+    public int[][] ofbKeystream(int[] keys, int off, int count, int iv, int blocks) {
+        long[] planes = keyPlanes(keys, off, count);
+        long[] state = new long[16];
+        long[] tmp = new long[16];
+        long[] work = new long[16];
+        int[] lanes = new int[BitSlice.LANES];
+        int[][] result = new int[count][blocks];
+        BitSlice.broadcast(iv & 0xFFFF, state, 0);
+        for (int i = 0; i < blocks; i++) {
+            encrypt(state, tmp, planes, 0);
+            System.arraycopy(state, 0, work, 0, 16);
+            BitSlice.unslice(work, lanes, 0, count);
+            for (int b = 0; b < count; b++) {
+                result[b][i] = lanes[b];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * NibbleSub + ShiftRow + MixColumns одного столбца с добавлением k1
+     * @param top первая плоскость верхнего ниббла столбца (до ShiftRow)
+     * @param bottom первая плоскость нижнего ниббла
+     */
+    private void mixColumn(long[] in, int top, int bottom, long[] out, int outTop, int outBottom,
+                           long[] keys, int k) {
+        for (int i = 0; i < 4; i++) {
+            out[outTop + i] = select(in, top, bottom, taps[i]) ^ keys[k + outTop + i];
+            out[outBottom + i] = select(in, top, bottom, taps[4 + i]) ^ keys[k + outBottom + i];
+        }
+    }
+
+    private static long select(long[] in, int top, int bottom, int[] taps) {
+        long r = 0;
+        for (int j : taps) {
+            r ^= j < 4 ? in[top + j] : in[bottom + j - 4];
+        }
+        return r;
+    }
+
+    /**
+     * NibbleSub во всех четырёх нибблах
+     */
+    private static void substitute(long[] w) {
+        for (int n = 0; n < 16; n += 4) {
+            long x0 = w[n], x1 = w[n + 1], x2 = w[n + 2], x3 = w[n + 3];
+            long x01 = x0 & x1, x02 = x0 & x2, x03 = x0 & x3, x12 = x1 & x2, x13 = x1 & x3, x23 = x2 & x3;
+            long x012 = x01 & x2, x013 = x01 & x3, x023 = x02 & x3, x123 = x12 & x3;
+            w[n] = ~(x0 ^ x1 ^ x02 ^ x012 ^ x3 ^ x03 ^ x13 ^ x013 ^ x023 ^ x123);
+            w[n + 1] = x1 ^ x12 ^ x3 ^ x013 ^ x23 ^ x023 ^ x123;
+            w[n + 2] = x0 ^ x01 ^ x2 ^ x12 ^ x012 ^ x3 ^ x13 ^ x23 ^ x023;
+            w[n + 3] = ~(x0 ^ x01 ^ x012 ^ x3 ^ x03 ^ x013 ^ x23);
+        }
+    }
+
+    private static IntStream lanes(long alive, int base) {
+        return IntStream.range(0, BitSlice.LANES).filter(b -> (alive >>> b & 1) != 0).map(b -> base + b);
+    }
+
+    private static int checkSlice(int slice) {
+        if (slice < 0 || slice >= SLICES) {
+            throw new IllegalArgumentException("Номер среза должен быть от 0 до " + (SLICES - 1) + ": " + slice);
+        }
+        return slice;
+    }
+
+    private static void checkPairs(int[] plain, int[] cipher) {
+        if (plain.length != cipher.length) {
+            throw new IllegalArgumentException("Число открытых блоков и блоков шифротекста различается: "
+                    + plain.length + " и " + cipher.length);
+        }
+        if (plain.length == 0) {
+            throw new IllegalArgumentException("Нужна хотя бы одна известная пара");
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.cryptography.cipher.saes;
 
+import com.cryptography.cipher.modes.BlockCipher16;
+import com.cryptography.utils.KeySieve;
+
+import java.util.Arrays;
+
 /**
  * Реализация алгоритма S_AES (Simplified AES)
  * Основан на Python реализации из aes.py
+ * <p>
+ * Состояние блока хранится как упакованное 16-битное число в локальных переменных, раунды вычисляются
+ * по таблицам {@link SAESTables}, а умножение в GF(2^4) — по таблице 16 x 16 для заданного модуля.
+ * Экземпляр неизменяем и может использоваться из нескольких потоков.
  */
-public class SAESCipher {
+public final class SAESCipher {
     
     // S-Box для замены nibbles
-    private static final int[][] S_BOX = {
+    static final int[][] S_BOX = {
         {9, 4, 10, 11},
         {13, 1, 8, 5},
         {6, 2, 0, 3},
@@ -15,7 +24,7 @@ public class SAESCipher {
     };
     
     // Обратная S-Box для дешифрования
-    private static final int[][] S_INV_BOX = {
+    static final int[][] S_INV_BOX = {
         {10, 5, 9, 11},
         {1, 7, 8, 15},
         {6, 0, 2, 3},
@@ -29,26 +38,89 @@ public class SAESCipher {
     // Параметры поля и матриц (по умолчанию как в задании 6.1)
     private static final int DEFAULT_MODULUS = 0b10011; // x^4 + x + 1
     private static final int[][] DEFAULT_COLUMN_MATRIX = {{1, 4}, {4, 1}};
-    private static final int[][] DEFAULT_COLUMN_INV_MATRIX = {{9, 2}, {2, 9}};
 
-    private int modulus = DEFAULT_MODULUS;
-    private int[][] columnMatrix = deepCopy(DEFAULT_COLUMN_MATRIX);
-    private int[][] columnInvMatrix = deepCopy(DEFAULT_COLUMN_INV_MATRIX);
+    private final int modulus;
+    private final int[][] columnMatrix;
+    private final int[][] columnInvMatrix;
+    // mul[a << 4 | b] = a * b в GF(2^4) по модулю
+    private final int[] mul;
+    private final SAESTables tables;
 
-    private int[][] stateMatrix;
-
-    public SAESCipher() {}
+    public SAESCipher() {
+        this(DEFAULT_COLUMN_MATRIX, DEFAULT_MODULUS);
+    }
 
+    /**
+     * @param columnMatrix матрица MixColumns 2 x 2 с элементами GF(2^4)
+     * @param modulus неприводимый многочлен степени 4 (например, 0b10011)
+     * @throws IllegalArgumentException если матрица не 2 x 2 или её элементы не 4-битные
+     */
     public SAESCipher(int[][] columnMatrix, int modulus) {
+        checkMatrix(columnMatrix);
         this.modulus = modulus;
+        this.mul = multiplicationTable(modulus);
         this.columnMatrix = deepCopy(columnMatrix);
         this.columnInvMatrix = invert2x2(this.columnMatrix);
+        this.tables = new SAESTables(this.columnMatrix, this.columnInvMatrix, mul);
     }
     
+    /**
+     * Табличное представление раундов для текущих матрицы MixColumns и модуля
+     */
+    SAESTables tables() {
+        return tables;
+    }
+
+    /**
+     * Шифр с фиксированным ключом как {@link BlockCipher16} (раундовые ключи из {@link SAESKeySchedule})
+     * @param key16 16-битный ключ
+     */
+    public BlockCipher16 withKey(int key16) {
+        return new Keyed(this, key16 & 0xFFFF);
+    }
+
+    /**
+     * Шифры равны, если совпадают матрица MixColumns и модуль
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SAESCipher)) {
+            return false;
+        }
+        SAESCipher other = (SAESCipher) o;
+        return modulus == other.modulus && Arrays.deepEquals(columnMatrix, other.columnMatrix);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * modulus + Arrays.deepHashCode(columnMatrix);
+    }
+
+    /**
+     * Решето всех 65536 ключей для текущих матрицы MixColumns и модуля.
+     * Раундовые ключи берутся из {@link SAESKeySchedule}, шифрование идёт по {@link SAESTables}.
+     */
+    public KeySieve keySieve() {
+        SAESTables t = tables();
+        int[] roundKeys = SAESKeySchedule.shared();
+        return new KeySieve(16, 16, (key, block) ->
+                t.encrypt(block, roundKeys[3 * key], roundKeys[3 * key + 1], roundKeys[3 * key + 2]));
+    }
+
+    /**
+     * Побитово-срезовый шифр для перебора ключей по 64 за проход с текущими матрицей MixColumns и модулем
+     */
+    public SAESBitsliced bitsliced() {
+        return new SAESBitsliced(columnMatrix, mul);
+    }
+
     /**
      * Замена 4-битового значения по таблице S-Box
      */
-    private int sbox(int value) {
+    private static int sbox(int value) {
         int row = (value >> 2) & 0x3;
         int col = value & 0x3;
         return S_BOX[row][col];
@@ -66,7 +138,7 @@ public class SAESCipher {
     /**
      * Функция g в алгоритме расширения ключа
      */
-    private int g(int w, int i) {
+    private static int g(int w, int i) {
         // На входе 8-битное слово: разделяем на два ниббла и применяем S-box
         int n00 = (w >> 4) & 0xF; // старший ниббл
         int n11 = w & 0xF;        // младший ниббл
@@ -99,179 +171,39 @@ public class SAESCipher {
     }
     
     /**
-     * Формирование матрицы состояния из 16-битового блока.
-     * Матрица 2x2 заполняется тетрадами (нибблами) слева-направо, сверху-вниз:
-     * [ [b1_hiNibble, b2_hiNibble], [b1_loNibble, b2_loNibble] ]
-     */
-    private void toStateMatrix(int block) {
-        // 16-битный блок -> два байта
-        int b1 = (block >> 8) & 0xFF;  // старший байт
-        int b2 = block & 0xFF;        // младший байт
-
-        int b1Hi = (b1 >> 4) & 0xF;
-        int b1Lo = b1 & 0xF;
-        int b2Hi = (b2 >> 4) & 0xF;
-        int b2Lo = b2 & 0xF;
-
-        stateMatrix = new int[][]{
-            {b1Hi, b2Hi},
-            {b1Lo, b2Lo}
-        };
-    }
-    
-    /**
-     * Сложение с раундовым ключом (Add round key)
-     */
-    private void addRoundKey(int k) {
-        // 16-битный ключ: два байта -> четыре ниббла
-        int k1 = (k >> 8) & 0xFF;
-        int k2 = k & 0xFF;
-
-        int k11 = (k1 >> 4) & 0xF;
-        int k12 = k1 & 0xF;
-        int k21 = (k2 >> 4) & 0xF;
-        int k22 = k2 & 0xF;
-
-        stateMatrix[0][0] ^= k11;
-        stateMatrix[1][0] ^= k12;
-        stateMatrix[0][1] ^= k21;
-        stateMatrix[1][1] ^= k22;
-    }
-    
-    /**
-     * Замена элементов матрицы состояния S (Nibble Substitution)
-     */
-    private void nibbleSubstitution() {
-        stateMatrix[0][0] = sbox(stateMatrix[0][0]);
-        stateMatrix[0][1] = sbox(stateMatrix[0][1]);
-        stateMatrix[1][0] = sbox(stateMatrix[1][0]);
-        stateMatrix[1][1] = sbox(stateMatrix[1][1]);
-    }
-    
-    /**
-     * Обратная замена элементов матрицы состояния S (Inverse Nibble Substitution)
-     */
-    private void nibbleSubstitutionInv() {
-        stateMatrix[0][0] = sboxInv(stateMatrix[0][0]);
-        stateMatrix[0][1] = sboxInv(stateMatrix[0][1]);
-        stateMatrix[1][0] = sboxInv(stateMatrix[1][0]);
-        stateMatrix[1][1] = sboxInv(stateMatrix[1][1]);
-    }
-    
-    /**
-     * Перестановка элементов в матрице состояния S (Shift Row)
-     */
-    private void shiftRow() {
-        int temp = stateMatrix[1][0];
-        stateMatrix[1][0] = stateMatrix[1][1];
-        stateMatrix[1][1] = temp;
-    }
-    
-    /**
-     * Перемешивание элементов в столбцах матрицы S (Mix Columns)
-     */
-    private void mixColumns() {
-        mixColumnsWithMatrix(columnMatrix);
-    }
-    
-    /**
-     * Обратное перемешивание элементов в столбцах матрицы S (Inverse Mix Columns)
-     */
-    private void mixColumnsInv() {
-        mixColumnsWithMatrix(columnInvMatrix);
-    }
-    
-    /**
-     * Общая функция для MixColumns с заданной матрицей
-     */
-    private void mixColumnsWithMatrix(int[][] matrix) {
-        int m00 = matrix[0][0];
-        int m01 = matrix[0][1];
-        int m10 = matrix[1][0];
-        int m11 = matrix[1][1];
-        
-        // Первый столбец
-        int st00 = stateMatrix[0][0];
-        int st10 = stateMatrix[1][0];
-        int a = gfMultiplyModular(m00, st00, modulus, 4);
-        int b = gfMultiplyModular(m01, st10, modulus, 4);
-        int c = gfMultiplyModular(m10, st00, modulus, 4);
-        int d = gfMultiplyModular(m11, st10, modulus, 4);
-        
-        stateMatrix[0][0] = a ^ b;
-        stateMatrix[1][0] = c ^ d;
-        
-        // Второй столбец
-        st00 = stateMatrix[0][1];
-        st10 = stateMatrix[1][1];
-        a = gfMultiplyModular(m00, st00, modulus, 4);
-        b = gfMultiplyModular(m01, st10, modulus, 4);
-        c = gfMultiplyModular(m10, st00, modulus, 4);
-        d = gfMultiplyModular(m11, st10, modulus, 4);
-        
-        stateMatrix[0][1] = a ^ b;
-        stateMatrix[1][1] = c ^ d;
-    }
-    
-    /**
-     * Формирование 16-битового числа из матрицы состояния
+     * Алгоритм шифрования блока с заданными раундовыми ключами.
+     * Состояние — упакованное 16-битное число в локальной переменной (см. {@link SAESTables}):
+     * начальное сложение с k0, раунд NibbleSub + ShiftRow + MixColumns + k1, раунд NibbleSub + ShiftRow + k2
      */
-    private int fromStateMatrix() {
-        int b1 = (stateMatrix[0][0] << 4) | stateMatrix[1][0];
-        int b2 = (stateMatrix[0][1] << 4) | stateMatrix[1][1];
-        return (b1 << 8) | b2;
+    public int encrypt(int plaintext, int k0, int k1, int k2) {
+        return tables.encrypt(plaintext & 0xFFFF, k0 & 0xFFFF, k1 & 0xFFFF, k2 & 0xFFFF);
     }
     
     /**
-     * Алгоритм шифрования блока с заданными раундовыми ключами
+     * Алгоритм дешифрования блока с заданными раундовыми ключами:
+     * сложение с k2, ShiftRow + NibbleSubInv + k1 + MixColumnsInv, ShiftRow + NibbleSubInv + k0
      */
-    public int encrypt(int plaintext, int k0, int k1, int k2) {
-        toStateMatrix(plaintext);
-        
-        // Начальное сложение с ключом
-        addRoundKey(k0);
-        
-        // Первый раунд
-        nibbleSubstitution();
-        shiftRow();
-        mixColumns();
-        addRoundKey(k1);
-        
-        // Второй раунд
-        nibbleSubstitution();
-        shiftRow();
-        addRoundKey(k2);
-        
-        return fromStateMatrix();
+    public int decrypt(int ciphertext, int k0, int k1, int k2) {
+        return tables.decrypt(ciphertext & 0xFFFF, k0 & 0xFFFF, tables.decryptionKey(k1), k2 & 0xFFFF);
     }
     
     /**
-     * Алгоритм дешифрования блока с заданными раундовыми ключами
+     * Таблица умножения GF(2^4) по модулю: элемент a << 4 | b равен a * b
      */
-    public int decrypt(int ciphertext, int k0, int k1, int k2) {
-        toStateMatrix(ciphertext);
-        
-        // Начальное сложение с ключом
-        addRoundKey(k2);
-        
-        // Первый раунд
-        shiftRow();
-        nibbleSubstitutionInv();
-        addRoundKey(k1);
-        mixColumnsInv();
-        
-        // Второй раунд
-        shiftRow();
-        nibbleSubstitutionInv();
-        addRoundKey(k0);
-        
-        return fromStateMatrix();
+    static int[] multiplicationTable(int modulus) {
+        int[] table = new int[256];
+        for (int a = 0; a < 16; a++) {
+            for (int b = 0; b < 16; b++) {
+                table[a << 4 | b] = gfMultiplyModular(a, b, modulus, 4);
+            }
+        }
+        return table;
     }
-    
+
     /**
-     * Умножение в поле Галуа по модулю
+     * Умножение в поле Галуа по модулю (для построения таблицы)
      */
-    private int gfMultiplyModular(int a, int b, int modulus, int fieldSize) {
+    private static int gfMultiplyModular(int a, int b, int modulus, int fieldSize) {
         int result = 0;
         int mask = (1 << fieldSize) - 1;
         
@@ -290,6 +222,19 @@ public class SAESCipher {
         return result;
     }
 
+    private static void checkMatrix(int[][] m) {
+        if (m.length != 2 || m[0].length != 2 || m[1].length != 2) {
+            throw new IllegalArgumentException("Матрица MixColumns должна быть 2 x 2");
+        }
+        for (int[] row : m) {
+            for (int v : row) {
+                if (v < 0 || v > 15) {
+                    throw new IllegalArgumentException("Элементы матрицы MixColumns должны быть от 0 до 15: " + v);
+                }
+            }
+        }
+    }
+
     private static int[][] deepCopy(int[][] src) {
         int[][] r = new int[src.length][];
         for (int i = 0; i < src.length; i++) {
@@ -302,7 +247,7 @@ public class SAESCipher {
         if (a == 0) return 0; // не имеет обратного, но для детерминанта 0 — матрица необратима
         int mask = (1 << 4);
         for (int x = 1; x < mask; x++) {
-            if (gfMultiplyModular(a, x, modulus, 4) == 1) return x;
+            if (mul[a << 4 | x] == 1) return x;
         }
         return 0;
     }
@@ -313,19 +258,57 @@ public class SAESCipher {
         int c = m[1][0];
         int d = m[1][1];
 
-        int ad = gfMultiplyModular(a, d, modulus, 4);
-        int bc = gfMultiplyModular(b, c, modulus, 4);
+        int ad = mul[a << 4 | d];
+        int bc = mul[b << 4 | c];
         int det = ad ^ bc;
         int detInv = gfInverse(det);
 
         int[][] inv = new int[2][2];
-        inv[0][0] = gfMultiplyModular(detInv, d, modulus, 4);
-        inv[0][1] = gfMultiplyModular(detInv, b, modulus, 4);
-        inv[1][0] = gfMultiplyModular(detInv, c, modulus, 4);
-        inv[1][1] = gfMultiplyModular(detInv, a, modulus, 4);
+        inv[0][0] = mul[detInv << 4 | d];
+        inv[0][1] = mul[detInv << 4 | b];
+        inv[1][0] = mul[detInv << 4 | c];
+        inv[1][1] = mul[detInv << 4 | a];
         return inv;
     }
-}
 
+    /**
+     * S-AES с параметрами шифра и фиксированным ключом
+     */
+    private static final class Keyed implements BlockCipher16 {
+        private final SAESCipher cipher;
+        private final int key16;
+        private final int k0;
+        private final int k1;
+        private final int k2;
+        private final int mk1; // MixColumns^-1(k1) для расшифрования
 
+        Keyed(SAESCipher cipher, int key16) {
+            this.cipher = cipher;
+            this.key16 = key16;
+            this.k0 = SAESKeySchedule.k0(key16);
+            this.k1 = SAESKeySchedule.k1(key16);
+            this.k2 = SAESKeySchedule.k2(key16);
+            this.mk1 = cipher.tables.decryptionKey(k1);
+        }
 
+        @Override
+        public int encrypt(int block) {
+            return cipher.tables.encrypt(block & 0xFFFF, k0, k1, k2);
+        }
+
+        @Override
+        public int decrypt(int block) {
+            return cipher.tables.decrypt(block & 0xFFFF, k0, mk1, k2);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Keyed && ((Keyed) o).key16 == key16 && ((Keyed) o).cipher.equals(cipher);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * cipher.hashCode() + key16;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cryptography.cipher.saes;
+
+import java.util.stream.IntStream;
+
+/**
+ * Раундовые ключи S-AES для всех 65536 ключей, упакованные в int[] по три подряд: k0, k1, k2 (768 КиБ).
+ * <p>
+ * Расширение ключа использует только S-Box и константы раундов и не зависит от матрицы MixColumns
+ * и модуля, поэтому одна таблица подходит для любых параметров {@link SAESCipher}. Таблица
+ * вычисляется параллельно при первом обращении и общая для всех потоков; переборы ключей
+ * берут раундовые ключи из неё вместо вызова {@link SAESCipher#keyExpansion(int)}.
+ */
+public final class SAESKeySchedule {
+
+    private SAESKeySchedule() {}
+
+    private static final class Holder {
+        static final int[] TABLE = build();
+    }
+
+    private static int[] build() {
+        int[] table = new int[3 << 16];
+        IntStream.range(0, 1 << 16).parallel().forEach(key -> {
+            int[] ks = new SAESCipher().keyExpansion(key);
+            table[3 * key] = ks[0];
+            table[3 * key + 1] = ks[1];
+            table[3 * key + 2] = ks[2];
+        });
+        return table;
+    }
+
+    public static int k0(int key16) {
+        return Holder.TABLE[3 * (key16 & 0xFFFF)];
+    }
+
+    public static int k1(int key16) {
+        return Holder.TABLE[3 * (key16 & 0xFFFF) + 1];
+    }
+
+    public static int k2(int key16) {
+        return Holder.TABLE[3 * (key16 & 0xFFFF) + 2];
+    }
+
+    /**
+     * Раундовые ключи {k0, k1, k2}, как у {@link SAESCipher#keyExpansion(int)}
+     */
+    public static int[] roundKeys(int key16) {
+        int i = 3 * (key16 & 0xFFFF);
+        int[] t = Holder.TABLE;
+        return new int[]{t[i], t[i + 1], t[i + 2]};
+    }
+
+    /**
+     * Копия всей таблицы: элементы 3 * key, 3 * key + 1, 3 * key + 2 — k0, k1, k2
+     */
+    public static int[] table() {
+        return Holder.TABLE.clone();
+    }
+
+    /**
+     * Общая таблица без копирования (только для чтения внутри пакета)
+     */
+    static int[] shared() {
+        return Holder.TABLE;
+    }
+}
@@ -0,0 +1,502 @@
+package com.cryptography.cipher.saes;
+
+import com.cryptography.cipher.modes.BlockMode;
+import com.cryptography.cipher.modes.BlockModes16;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Подбор параметров S-AES по известному началу файла: неприводимого модуля, матрицы MixColumns,
+ * 16-битного ключа и (для CBC, CFB и OFB) вектора инициализации.
+ * <p>
+ * Известные байты (заголовок BMP или PNG) дают пары блоков x -> E(x) без IV: в CBC это
+ * (p_i XOR c_{i-1}, c_i), в CFB — (c_{i-1}, p_i XOR c_i), в OFB — соседние блоки гаммы. Для модуля и ключа
+ * первый раунд и последний раунд (без MixColumns) известны, поэтому каждая пара задаёт вход и выход
+ * MixColumns: по два столбца, то есть по два уравнения на каждую строку матрицы. Строки (a, b) и (c, d)
+ * перебираются независимо (2 * 256 вариантов вместо 65536 матриц) с выходом на первом несовпавшем
+ * столбце; остаются только обратимые матрицы. Перебор модулей и ключей идёт параллельно, IV
+ * восстанавливается по первому блоку, выжившие кандидаты ранжируются по правдоподобию заголовка.
+ */
+public final class SAESParameterSearch {
+
+    /** Сколько лучших кандидатов возвращается */
+    public static final int RANKING_SIZE = 16;
+
+    /** Сколько байтов начала файла расшифровывается для оценки кандидата */
+    public static final int SAMPLE_BYTES = 64;
+
+    /** Все неприводимые многочлены степени 4: x^4+x+1, x^4+x^3+1, x^4+x^3+x^2+x+1 */
+    public static final int[] IRREDUCIBLE_MODULI = irreducibleModuli();
+
+    private static final byte[] PNG_CRIB = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n',
+            0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+
+    private static final int[] SUB = new int[16];
+    private static final int[] SUB_INV = new int[16];
+
+    static {
+        for (int v = 0; v < 16; v++) {
+            SUB[v] = SAESCipher.S_BOX[v >> 2][v & 3];
+            SUB_INV[v] = SAESCipher.S_INV_BOX[v >> 2][v & 3];
+        }
+    }
+
+    private final int[] moduli;
+    // Таблицы умножения GF(2^4) по каждому модулю: элемент a << 4 | b равен a * b
+    private final int[][] mul;
+
+    /**
+     * Перебор по всем неприводимым модулям
+     */
+    public SAESParameterSearch() {
+        this(IRREDUCIBLE_MODULI);
+    }
+
+    /**
+     * @param moduli модули, по которым идёт перебор
+     * @throws IllegalArgumentException если модулей нет или какой-то из них не неприводим степени 4
+     */
+    public SAESParameterSearch(int... moduli) {
+        if (moduli.length == 0) {
+            throw new IllegalArgumentException("Нужен хотя бы один модуль");
+        }
+        for (int m : moduli) {
+            if (!isIrreducible(m)) {
+                throw new IllegalArgumentException("Многочлен не является неприводимым степени 4: 0b"
+                        + Integer.toBinaryString(m));
+            }
+        }
+        this.moduli = moduli.clone();
+        this.mul = new int[moduli.length][];
+        for (int i = 0; i < moduli.length; i++) {
+            mul[i] = SAESCipher.multiplicationTable(moduli[i]);
+        }
+    }
+
+    /**
+     * Неприводим ли многочлен степени 4 над GF(2) (нет делителей степени 1 и 2)
+     */
+    public static boolean isIrreducible(int poly) {
+        if (poly < 0b10000 || poly > 0b11111) {
+            return false;
+        }
+        for (int d = 2; d < 8; d++) {
+            if (remainder(poly, d) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int remainder(int a, int b) {
+        int db = 31 - Integer.numberOfLeadingZeros(b);
+        for (int da = 31 - Integer.numberOfLeadingZeros(a); a != 0 && da >= db;
+             da = 31 - Integer.numberOfLeadingZeros(a)) {
+            a ^= b << (da - db);
+        }
+        return a;
+    }
+
+    private static int[] irreducibleModuli() {
+        return IntStream.rangeClosed(0b10000, 0b11111).filter(SAESParameterSearch::isIrreducible).toArray();
+    }
+
+    /**
+     * Известные байты заголовка BMP: 'BM', размер файла (4 байта, little-endian) и 4 нулевых зарезервированных байта
+     * @param fileSize размер файла в байтах
+     */
+    public static byte[] bmpCrib(long fileSize) {
+        return new byte[]{'B', 'M',
+                (byte) fileSize, (byte) (fileSize >>> 8), (byte) (fileSize >>> 16), (byte) (fileSize >>> 24),
+                0, 0, 0, 0};
+    }
+
+    /**
+     * Известные байты начала PNG: сигнатура, длина и тип блока IHDR
+     */
+    public static byte[] pngCrib() {
+        return PNG_CRIB.clone();
+    }
+
+    /**
+     * Поиск для зашифрованного изображения: сначала по заголовку BMP, затем, если кандидатов нет, по заголовку PNG
+     * @param iv известный IV или -1, если его нужно найти
+     */
+    public Result searchImage(byte[] cipher, BlockMode mode, int iv) {
+        Result bmp = search(cipher, bmpCrib(cipher.length), mode, iv);
+        if (!bmp.candidates().isEmpty()) {
+            return bmp;
+        }
+        Result png = search(cipher, PNG_CRIB, mode, iv);
+        return new Result(png.candidates, png.survivors, bmp.tested + png.tested, bmp.nanos + png.nanos);
+    }
+
+    /**
+     * Поиск по известному началу открытого текста. Блок — два байта (hi << 8) | lo, как в заданиях 6.x
+     * @param cipher шифротекст
+     * @param crib известные байты открытого текста с начала файла
+     * @param mode режим шифрования
+     * @param iv известный IV (счётчик для CTR) или -1, если его нужно найти
+     * @return кандидаты по убыванию правдоподобия заголовка
+     * @throws IllegalArgumentException если известных блоков меньше двух или для CTR не задан IV
+     */
+    public Result search(byte[] cipher, byte[] crib, BlockMode mode, int iv) {
+        int n = Math.min(cipher.length, crib.length) / 2;
+        if (mode == BlockMode.CTR && iv < 0) {
+            throw new IllegalArgumentException("Для режима CTR нужен известный начальный счётчик");
+        }
+        int[] c = toBlocks(cipher, n);
+        int[] p = toBlocks(crib, n);
+        int[][] pairs = pairs(c, p, mode, iv);
+        if (pairs[0].length < 2) {
+            throw new IllegalArgumentException("Нужно не меньше двух пар блоков, а известных блоков " + n);
+        }
+        long start = System.nanoTime();
+        int keys = 1 << 16;
+        List<Candidate> all = IntStream.range(0, moduli.length * keys).parallel().boxed()
+                .flatMap(task -> matchKey(task / keys, task % keys, pairs[0], pairs[1], cipher, c[0], p[0], mode, iv)
+                        .stream())
+                .collect(Collectors.toList());
+        List<Candidate> sorted = new ArrayList<>(all);
+        sorted.sort(RANKING);
+        return new Result(sorted.subList(0, Math.min(RANKING_SIZE, sorted.size())), all.size(),
+                (long) moduli.length * keys, System.nanoTime() - start);
+    }
+
+    /**
+     * Пары (x, E(x)), которые следуют из известных блоков без знания IV (и с ним, если IV задан)
+     */
+    private static int[][] pairs(int[] c, int[] p, BlockMode mode, int iv) {
+        int n = c.length;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int count = 0;
+        boolean knownIv = iv >= 0;
+        for (int i = 0; i < n; i++) {
+            int z = c[i] ^ p[i];
+            switch (mode) {
+                case ECB:
+                    x[count] = p[i];
+                    y[count++] = c[i];
+                    break;
+                case CBC:
+                    if (i > 0 || knownIv) {
+                        x[count] = p[i] ^ (i > 0 ? c[i - 1] : iv & 0xFFFF);
+                        y[count++] = c[i];
+                    }
+                    break;
+                case CFB:
+                    if (i > 0 || knownIv) {
+                        x[count] = i > 0 ? c[i - 1] : iv & 0xFFFF;
+                        y[count++] = z;
+                    }
+                    break;
+                case OFB:
+                    if (i > 0 || knownIv) {
+                        x[count] = i > 0 ? c[i - 1] ^ p[i - 1] : iv & 0xFFFF;
+                        y[count++] = z;
+                    }
+                    break;
+                case CTR:
+                    x[count] = (iv + i) & 0xFFFF;
+                    y[count++] = z;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный режим: " + mode);
+            }
+        }
+        return new int[][]{Arrays.copyOf(x, count), Arrays.copyOf(y, count)};
+    }
+
+    /**
+     * Все матрицы, согласованные с парами для модуля и ключа; для каждой восстанавливается IV и считается оценка
+     */
+    private List<Candidate> matchKey(int modulusIndex, int key, int[] x, int[] y, byte[] cipher,
+                                     int c0, int p0, BlockMode mode, int iv) {
+        int[] roundKeys = SAESKeySchedule.shared();
+        int k0 = roundKeys[3 * key];
+        int k1 = roundKeys[3 * key + 1];
+        int k2 = roundKeys[3 * key + 2];
+        int columns = 2 * x.length;
+        // Столбцы: вход MixColumns (верх, низ) и выход (верх, низ)
+        int[] inTop = new int[columns];
+        int[] inBottom = new int[columns];
+        int[] outTop = new int[columns];
+        int[] outBottom = new int[columns];
+        for (int j = 0; j < x.length; j++) {
+            int u = subShift(x[j] ^ k0, SUB);
+            int m = subShift(y[j] ^ k2, SUB_INV) ^ k1;
+            inTop[2 * j] = u >>> 12;
+            inBottom[2 * j] = (u >>> 8) & 0xF;
+            inTop[2 * j + 1] = (u >>> 4) & 0xF;
+            inBottom[2 * j + 1] = u & 0xF;
+            outTop[2 * j] = m >>> 12;
+            outBottom[2 * j] = (m >>> 8) & 0xF;
+            outTop[2 * j + 1] = (m >>> 4) & 0xF;
+            outBottom[2 * j + 1] = m & 0xF;
+        }
+        int[] mul = this.mul[modulusIndex];
+        int[] top = rows(mul, inTop, inBottom, outTop);
+        if (top.length == 0) {
+            return Collections.emptyList();
+        }
+        int[] bottom = rows(mul, inTop, inBottom, outBottom);
+        List<Candidate> found = new ArrayList<>(0);
+        for (int ab : top) {
+            for (int cd : bottom) {
+                int a = ab >>> 4, b = ab & 0xF, c = cd >>> 4, d = cd & 0xF;
+                if ((mul[a << 4 | d] ^ mul[b << 4 | c]) != 0) {
+                    found.add(candidate(moduli[modulusIndex], new int[][]{{a, b}, {c, d}}, key,
+                            cipher, c0, p0, mode, iv));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Все строки (a, b) матрицы с a * top + b * bottom = out во всех столбцах; перебор прерывается на первом несовпадении
+     */
+    private static int[] rows(int[] mul, int[] inTop, int[] inBottom, int[] out) {
+        int[] rows = new int[256];
+        int count = 0;
+        for (int ab = 0; ab < 256; ab++) {
+            int a = ab & 0xF0;
+            int b = (ab & 0xF) << 4;
+            int j = 0;
+            while (j < out.length && (mul[a | inTop[j]] ^ mul[b | inBottom[j]]) == out[j]) {
+                j++;
+            }
+            if (j == out.length) {
+                rows[count++] = ab;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * NibbleSub по таблице и ShiftRow (перестановка нибблов 2 и 0) над упакованным состоянием
+     */
+    private static int subShift(int x, int[] sub) {
+        return sub[x >>> 12] << 12 | sub[x & 0xF] << 8 | sub[(x >>> 4) & 0xF] << 4 | sub[(x >>> 8) & 0xF];
+    }
+
+    private Candidate candidate(int modulus, int[][] matrix, int key, byte[] cipher,
+                                int c0, int p0, BlockMode mode, int iv) {
+        SAESCipher saes = new SAESCipher(matrix, modulus);
+        if (iv < 0 && mode != BlockMode.ECB) {
+            int k0 = SAESKeySchedule.k0(key), k1 = SAESKeySchedule.k1(key), k2 = SAESKeySchedule.k2(key);
+            iv = mode == BlockMode.CBC ? saes.decrypt(c0, k0, k1, k2) ^ p0 : saes.decrypt(c0 ^ p0, k0, k1, k2);
+        }
+        Candidate candidate = new Candidate(modulus, matrix, key, mode == BlockMode.ECB ? -1 : iv, mode, 0);
+        byte[] sample = candidate.decrypt(Arrays.copyOf(cipher, Math.min(SAMPLE_BYTES, cipher.length)));
+        return new Candidate(modulus, matrix, key, candidate.iv, mode, headerScore(sample, cipher.length));
+    }
+
+    /**
+     * Баллы за правдоподобные поля заголовка BMP или PNG
+     * @param plain расшифрованное начало файла
+     * @param fileSize ожидаемый размер файла или -1
+     */
+    public static int headerScore(byte[] plain, long fileSize) {
+        int n = plain.length;
+        int score = 0;
+        if (n >= 2 && plain[0] == 'B' && plain[1] == 'M') {
+            score += 2;
+            if (n >= 6 && fileSize >= 0 && le32(plain, 2) == fileSize) {
+                score += 2;
+            }
+            if (n >= 10 && le32(plain, 6) == 0) {
+                score += 1;
+            }
+            if (n >= 14 && le32(plain, 10) >= 26 && le32(plain, 10) < 1 << 16) {
+                score += 1;
+            }
+            if (n >= 18) {
+                long dib = le32(plain, 14);
+                if (dib == 12 || dib == 40 || dib == 52 || dib == 56 || dib == 108 || dib == 124) {
+                    score += 1;
+                }
+            }
+            if (n >= 28 && plain[26] == 1 && plain[27] == 0) {
+                score += 1;
+            }
+            if (n >= 30) {
+                int bpp = (plain[28] & 0xFF) | (plain[29] & 0xFF) << 8;
+                if (bpp == 1 || bpp == 4 || bpp == 8 || bpp == 16 || bpp == 24 || bpp == 32) {
+                    score += 1;
+                }
+            }
+        } else if (n >= 8 && Arrays.equals(plain, 0, 8, PNG_CRIB, 0, 8)) {
+            score += 2;
+            if (n >= 16 && Arrays.equals(plain, 8, 16, PNG_CRIB, 8, 16)) {
+                score += 2;
+            }
+            if (n >= 24 && be32(plain, 16) != 0 && be32(plain, 20) != 0) {
+                score += 1;
+            }
+            if (n >= 25) {
+                int depth = plain[24];
+                if (depth == 1 || depth == 2 || depth == 4 || depth == 8 || depth == 16) {
+                    score += 1;
+                }
+            }
+            if (n >= 26) {
+                int type = plain[25];
+                if (type == 0 || type == 2 || type == 3 || type == 4 || type == 6) {
+                    score += 1;
+                }
+            }
+            if (n >= 29 && plain[26] == 0 && plain[27] == 0 && plain[28] == 0) {
+                score += 1;
+            }
+        }
+        return score;
+    }
+
+    private static long le32(byte[] p, int off) {
+        return (p[off] & 0xFFL) | (p[off + 1] & 0xFFL) << 8 | (p[off + 2] & 0xFFL) << 16 | (p[off + 3] & 0xFFL) << 24;
+    }
+
+    private static long be32(byte[] p, int off) {
+        return (p[off] & 0xFFL) << 24 | (p[off + 1] & 0xFFL) << 16 | (p[off + 2] & 0xFFL) << 8 | (p[off + 3] & 0xFFL);
+    }
+
+    /**
+     * Первые n блоков (hi << 8) | lo, где lo = data[2i], hi = data[2i + 1]
+     */
+    private static int[] toBlocks(byte[] data, int n) {
+        int[] blocks = new int[n];
+        for (int i = 0; i < n; i++) {
+            blocks[i] = (data[2 * i + 1] & 0xFF) << 8 | (data[2 * i] & 0xFF);
+        }
+        return blocks;
+    }
+
+    private static final Comparator<Candidate> RANKING = Comparator.comparingInt((Candidate c) -> -c.score)
+            .thenComparingInt(c -> c.modulus)
+            .thenComparingInt(c -> c.key);
+
+    /**
+     * Кандидат: модуль, матрица MixColumns, ключ, IV (-1 для ECB) и баллы правдоподобия заголовка
+     */
+    public static final class Candidate {
+        private final int modulus;
+        private final int[][] matrix;
+        private final int key;
+        private final int iv;
+        private final BlockMode mode;
+        private final int score;
+
+        Candidate(int modulus, int[][] matrix, int key, int iv, BlockMode mode, int score) {
+            this.modulus = modulus;
+            this.matrix = matrix;
+            this.key = key;
+            this.iv = iv;
+            this.mode = mode;
+            this.score = score;
+        }
+
+        public int modulus() {
+            return modulus;
+        }
+
+        public int[][] matrix() {
+            return new int[][]{matrix[0].clone(), matrix[1].clone()};
+        }
+
+        public int key() {
+            return key;
+        }
+
+        public int iv() {
+            return iv;
+        }
+
+        public int score() {
+            return score;
+        }
+
+        /**
+         * Шифр с найденными модулем и матрицей
+         */
+        public SAESCipher cipher() {
+            return new SAESCipher(matrix, modulus);
+        }
+
+        /**
+         * Расшифрование с найденными параметрами; нечётный последний байт копируется без изменений
+         */
+        public byte[] decrypt(byte[] data) {
+            int n = data.length / 2;
+            int[] blocks = toBlocks(data, n);
+            BlockModes16.transform(cipher().withKey(key), mode, false, blocks, 0, n, iv < 0 ? 0 : iv);
+            byte[] out = data.clone();
+            for (int i = 0; i < n; i++) {
+                out[2 * i] = (byte) blocks[i];
+                out[2 * i + 1] = (byte) (blocks[i] >>> 8);
+            }
+            return out;
+        }
+
+        @Override
+        public String toString() {
+            String params = String.format("модуль 0b%s, матрица {{0x%X, 0x%X}, {0x%X, 0x%X}}, ключ %d",
+                    Integer.toBinaryString(modulus), matrix[0][0], matrix[0][1], matrix[1][0], matrix[1][1], key);
+            return iv < 0 ? String.format("%s (%d)", params, score) : String.format("%s, IV %d (%d)", params, iv, score);
+        }
+    }
+
+    /**
+     * Результат поиска
+     */
+    public static final class Result {
+        private final List<Candidate> candidates;
+        private final int survivors;
+        private final long tested;
+        private final long nanos;
+
+        Result(List<Candidate> candidates, int survivors, long tested, long nanos) {
+            this.candidates = Collections.unmodifiableList(new ArrayList<>(candidates));
+            this.survivors = survivors;
+            this.tested = tested;
+            this.nanos = nanos;
+        }
+
+        /** Лучшие кандидаты по убыванию оценки (пусто, если параметры не найдены) */
+        public List<Candidate> candidates() {
+            return candidates;
+        }
+
+        public Candidate best() {
+            return candidates.get(0);
+        }
+
+        /** Сколько наборов параметров согласовано со всеми известными блоками */
+        public int survivors() {
+            return survivors;
+        }
+
+        /** Сколько пар (модуль, ключ) проверено */
+        public long tested() {
+            return tested;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s, согласовано %d из %d, время %.1f мс",
+                    candidates.isEmpty() ? "параметры не найдены" : "лучший: " + best(),
+                    survivors, tested, nanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.cryptography.cipher.saes;
+
+import com.cryptography.utils.NibbleNetwork;
+
+/**
+ * Табличное представление раундов S-AES для заданных матрицы MixColumns и модуля.
+ * <p>
+ * Состояние хранится как 16-битное число: ниббл 3 (старший) = S[0][0], 2 = S[1][0], 1 = S[0][1], 0 = S[1][1].
+ * ShiftRow меняет местами нибблы 2 и 0, а MixColumns линейна над GF(2), поэтому
+ * NibbleSub + ShiftRow (+ MixColumns) сводятся к XOR четырёх обращений к таблицам по нибблам.
+ * При расшифровании обратный MixColumns переносится в таблицу первого раунда, а ключ k1
+ * заменяется на MixColumns^-1(k1): его вычисляет {@link #decryptionKey(int)} один раз на ключ.
+ */
+final class SAESTables {
+
+    // Индекс таблицы: (позиция ниббла << 4) | значение ниббла
+    final int[] enc1 = new int[64]; // NibbleSub, ShiftRow, MixColumns
+    final int[] enc2 = new int[64]; // NibbleSub, ShiftRow
+    final int[] dec1 = new int[64]; // ShiftRow, NibbleSubInv, MixColumnsInv
+    final int[] dec2 = new int[64]; // ShiftRow, NibbleSubInv
+    final int[] mixInvKey = new int[64]; // MixColumnsInv
+
+    private final int[] mul;
+
+    /**
+     * @param mul таблица умножения GF(2^4): элемент a << 4 | b равен a * b
+     */
+    SAESTables(int[][] mix, int[][] mixInv, int[] mul) {
+        this.mul = mul;
+        for (int p = 0; p < 4; p++) {
+            int q = shiftRowPosition(p);
+            for (int v = 0; v < 16; v++) {
+                int idx = (p << 4) | v;
+                int s = SAESCipher.S_BOX[v >> 2][v & 3] << (4 * q);
+                int si = SAESCipher.S_INV_BOX[v >> 2][v & 3] << (4 * q);
+                enc1[idx] = mixColumns(s, mix);
+                enc2[idx] = s;
+                dec1[idx] = mixColumns(si, mixInv);
+                dec2[idx] = si;
+                mixInvKey[idx] = mixColumns(v << (4 * p), mixInv);
+            }
+        }
+    }
+
+    /**
+     * Позиция ниббла после ShiftRow (перестановка нижней строки: нибблы 2 и 0)
+     */
+    static int shiftRowPosition(int p) {
+        return p == 2 ? 0 : p == 0 ? 2 : p;
+    }
+
+    /**
+     * MixColumns над упакованным состоянием: столбец 0 — нибблы (3, 2), столбец 1 — нибблы (1, 0)
+     */
+    int mixColumns(int x, int[][] m) {
+        int r = 0;
+        for (int col = 0; col < 2; col++) {
+            int shift = col == 0 ? 8 : 0;
+            int top = (x >>> (shift + 4)) & 0xF;
+            int bottom = (x >>> shift) & 0xF;
+            int nt = gfMultiply(m[0][0], top) ^ gfMultiply(m[0][1], bottom);
+            int nb = gfMultiply(m[1][0], top) ^ gfMultiply(m[1][1], bottom);
+            r |= ((nt << 4) | nb) << shift;
+        }
+        return r;
+    }
+
+    /**
+     * Умножение в GF(2^4) по таблице
+     */
+    int gfMultiply(int a, int b) {
+        return mul[(a & 0xF) << 4 | (b & 0xF)];
+    }
+
+    /**
+     * Ключ второго раунда расшифрования MixColumns^-1(k1) по таблице
+     */
+    int decryptionKey(int k1) {
+        return mixInvKey[k1 & 0xF] ^ mixInvKey[16 | ((k1 >>> 4) & 0xF)]
+                ^ mixInvKey[32 | ((k1 >>> 8) & 0xF)] ^ mixInvKey[48 | ((k1 >>> 12) & 0xF)];
+    }
+
+    /**
+     * Шифрование блока по таблицам с готовыми раундовыми ключами
+     */
+    int encrypt(int x, int k0, int k1, int k2) {
+        int u = x ^ k0;
+        x = enc1[u & 0xF] ^ enc1[16 | ((u >>> 4) & 0xF)] ^ enc1[32 | ((u >>> 8) & 0xF)] ^ enc1[48 | ((u >>> 12) & 0xF)];
+        u = x ^ k1;
+        x = enc2[u & 0xF] ^ enc2[16 | ((u >>> 4) & 0xF)] ^ enc2[32 | ((u >>> 8) & 0xF)] ^ enc2[48 | ((u >>> 12) & 0xF)];
+        return x ^ k2;
+    }
+
+    /**
+     * Расшифрование блока по таблицам: обратный MixColumns первого раунда перенесён в dec1
+     * @param mk1 ключ {@link #decryptionKey(int)} от k1
+     */
+    int decrypt(int x, int k0, int mk1, int k2) {
+        int u = x ^ k2;
+        x = dec1[u & 0xF] ^ dec1[16 | ((u >>> 4) & 0xF)] ^ dec1[32 | ((u >>> 8) & 0xF)] ^ dec1[48 | ((u >>> 12) & 0xF)];
+        u = x ^ mk1;
+        x = dec2[u & 0xF] ^ dec2[16 | ((u >>> 4) & 0xF)] ^ dec2[32 | ((u >>> 8) & 0xF)] ^ dec2[48 | ((u >>> 12) & 0xF)];
+        return x ^ k0;
+    }
+
+    NibbleNetwork encryptionNetwork(int k0, int k1, int k2) {
+        return new NibbleNetwork(new int[][]{enc1, enc2}, new int[]{k0, k1, k2});
+    }
+
+    NibbleNetwork decryptionNetwork(int k0, int k1, int k2) {
+        return new NibbleNetwork(new int[][]{dec1, dec2}, new int[]{k2, decryptionKey(k1), k0});
+    }
+}
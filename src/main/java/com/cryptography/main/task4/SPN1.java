@@ -3,7 +3,10 @@ package com.cryptography.main.task4;
 import java.util.ArrayList;
 import java.util.List;
 import java.io.*;
+import com.cryptography.cipher.modes.BlockMode;
+import com.cryptography.cipher.modes.BlockModes16;
 import com.cryptography.utils.FileUtils;
+import com.cryptography.utils.VectorSupport;
 
 public class SPN1 {
 
@@ -17,6 +20,17 @@ public class SPN1 {
         14, 4, 13, 1, 2, 15, 11, 8, 3, 10, 6, 12, 5, 9, 0, 7
     };
 
+    // Начиная с этого числа блоков ECB и CTR используют побитово-срезовую реализацию (SPN1Bitsliced)
+    public static final int BITSLICE_THRESHOLD = 4096;
+
+    // Начиная с этого числа блоков ECB (до BITSLICE_THRESHOLD и без Vector API) использует ядро,
+    // сгенерированное SPN1KernelCompiler под ключ; ядра кэшируются, поэтому выигрывают задачи с одним ключом
+    public static final int KERNEL_THRESHOLD = 1024;
+
+    // Начиная с этого числа блоков ECB и CTR (до BITSLICE_THRESHOLD), а также расшифрование CBC и CFB
+    // используют SPN1Vector (если доступен Vector API)
+    public static final int VECTOR_THRESHOLD = 64;
+
     /**
      * S-box функция замены
      * @param x входное 4-битное значение
@@ -105,13 +119,22 @@ public class SPN1 {
      * @return список раундовых ключей
      */
     public List<Integer> roundKeys(long k) {
-        List<Integer> rk = new ArrayList<>();
-        rk.add((int) ((k >> 16) & 0xFFFF));
-        rk.add((int) ((k >> 12) & 0xFFFF));
-        rk.add((int) ((k >> 8) & 0xFFFF));
-        rk.add((int) ((k >> 4) & 0xFFFF));
-        rk.add((int) (k & 0xFFFF));
-        return rk;
+        return toList(roundKeysArray(k));
+    }
+
+    /**
+     * Генерирует раундовые ключи из основного ключа в виде массива
+     * @param k основной ключ
+     * @return массив из 5 раундовых ключей (16 бит каждый)
+     */
+    public int[] roundKeysArray(long k) {
+        return new int[]{
+            (int) ((k >> 16) & 0xFFFF),
+            (int) ((k >> 12) & 0xFFFF),
+            (int) ((k >> 8) & 0xFFFF),
+            (int) ((k >> 4) & 0xFFFF),
+            (int) (k & 0xFFFF)
+        };
     }
 
     /**
@@ -211,18 +234,31 @@ public class SPN1 {
     }
 
     /**
-     * Шифрование одного блока данных
+     * Шифрование одного блока данных.
+     * Список ключей преобразуется в массив при каждом вызове, поэтому для циклов по блокам
+     * следует один раз получить {@link #roundKeysArray(long)} и вызывать {@link #encrypt(int, int[], int)}
      * @param p данные для шифрования
      * @param rk список раундовых ключей
      * @param rounds количество раундов
      * @return зашифрованные данные
      */
     public int encrypt(int p, List<Integer> rk, int rounds) {
+        return encrypt(p, toIntArray(rk), rounds);
+    }
+
+    /**
+     * Шифрование одного блока данных
+     * @param p данные для шифрования
+     * @param rk массив раундовых ключей
+     * @param rounds количество раундов
+     * @return зашифрованные данные
+     */
+    public int encrypt(int p, int[] rk, int rounds) {
         int x = p;
         for (int i = 0; i < rounds - 1; i++) {
-            x = round(x, rk.get(i));
+            x = round(x, rk[i]);
         }
-        x = lastRound(x, rk.get(rounds - 1), rk.get(rounds));
+        x = lastRound(x, rk[rounds - 1], rk[rounds]);
         return x;
     }
 
@@ -234,16 +270,49 @@ public class SPN1 {
      * @return список зашифрованных данных
      */
     public List<Integer> encryptData(List<Integer> data, long key, int rounds) {
-        List<Integer> rk = roundKeys(key);
-        List<Integer> result = new ArrayList<>();
-        
-        for (int value : data) {
-            result.add(encrypt(value, rk, rounds));
-        }
-        
+        return toList(encryptData(toIntArray(data), key, rounds));
+    }
+
+    /**
+     * Шифрование массива данных
+     * @param data массив 16-битных чисел для шифрования (не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @return новый массив зашифрованных данных
+     */
+    public int[] encryptData(int[] data, long key, int rounds) {
+        int[] result = data.clone();
+        encryptDataInPlace(result, 0, result.length, key, rounds);
         return result;
     }
 
+    /**
+     * Шифрование участка массива на месте
+     * @param data массив 16-битных чисел
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     */
+    public void encryptDataInPlace(int[] data, int off, int len, long key, int rounds) {
+        if (len >= BITSLICE_THRESHOLD) {
+            new SPN1Bitsliced(key, rounds).encryptBlocks(data, off, len);
+            return;
+        }
+        if (len >= VECTOR_THRESHOLD && VectorSupport.isAvailable()) {
+            new SPN1Vector(key, rounds).encryptECB(data, off, len);
+            return;
+        }
+        if (len >= KERNEL_THRESHOLD) {
+            SPN1KernelCompiler.kernel(key, rounds).encryptBlocks(data, off, len);
+            return;
+        }
+        SPN1TableCipher engine = new SPN1TableCipher(key, rounds);
+        for (int i = off; i < off + len; i++) {
+            data[i] = engine.encrypt(data[i]);
+        }
+    }
+
     /**
      * Шифрование списка данных в режиме CBC
      * @param data список 16-битных значений
@@ -252,18 +321,39 @@ public class SPN1 {
      * @param iv вектор инициализации (16-бит)
      */
     public List<Integer> encryptDataCBC(List<Integer> data, long key, int rounds, int iv) {
-        List<Integer> rk = roundKeys(key);
-        List<Integer> result = new ArrayList<>();
-        int prev = iv & 0xFFFF;
-        for (int value : data) {
-            int mixed = mix(value & 0xFFFF, prev);
-            int enc = encrypt(mixed, rk, rounds) & 0xFFFF;
-            result.add(enc);
-            prev = enc;
-        }
+        return toList(encryptDataCBC(toIntArray(data), key, rounds, iv));
+    }
+
+    /**
+     * Шифрование массива данных в режиме CBC
+     * @param data массив 16-битных значений (не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return новый массив зашифрованных данных
+     */
+    public int[] encryptDataCBC(int[] data, long key, int rounds, int iv) {
+        int[] result = data.clone();
+        encryptDataCBCInPlace(result, 0, result.length, key, rounds, iv);
         return result;
     }
 
+    /**
+     * Шифрование участка массива в режиме CBC на месте.
+     * Возвращаемое значение можно передать как iv для следующего участка того же потока.
+     * @param data массив 16-битных значений
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return последний зашифрованный блок (сцепление для следующего участка)
+     */
+    public int encryptDataCBCInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        // Последовательный режим: при повторном использовании ключа шифрование идёт по кодовой книге
+        return BlockModes16.encryptCBC(new SPN1TableCipher(key, rounds), data, off, len, iv);
+    }
+
     /**
      * Расшифрование списка данных
      * @param data список зашифрованных 16-битных чисел
@@ -272,16 +362,49 @@ public class SPN1 {
      * @return список расшифрованных данных
      */
     public List<Integer> decryptData(List<Integer> data, long key, int rounds) {
-        List<Integer> lk = roundKeysToDecrypt(key);
-        List<Integer> result = new ArrayList<>();
-        
-        for (int value : data) {
-            result.add(decrypt(value, lk, rounds));
-        }
-        
+        return toList(decryptData(toIntArray(data), key, rounds));
+    }
+
+    /**
+     * Расшифрование массива данных
+     * @param data массив зашифрованных 16-битных чисел (не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @return новый массив расшифрованных данных
+     */
+    public int[] decryptData(int[] data, long key, int rounds) {
+        int[] result = data.clone();
+        decryptDataInPlace(result, 0, result.length, key, rounds);
         return result;
     }
 
+    /**
+     * Расшифрование участка массива на месте
+     * @param data массив зашифрованных 16-битных чисел
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     */
+    public void decryptDataInPlace(int[] data, int off, int len, long key, int rounds) {
+        if (len >= BITSLICE_THRESHOLD) {
+            new SPN1Bitsliced(key, rounds).decryptBlocks(data, off, len);
+            return;
+        }
+        if (len >= VECTOR_THRESHOLD && VectorSupport.isAvailable()) {
+            new SPN1Vector(key, rounds).decryptECB(data, off, len);
+            return;
+        }
+        if (len >= KERNEL_THRESHOLD) {
+            SPN1KernelCompiler.kernel(key, rounds).decryptBlocks(data, off, len);
+            return;
+        }
+        SPN1TableCipher engine = new SPN1TableCipher(key, rounds);
+        for (int i = off; i < off + len; i++) {
+            data[i] = engine.decrypt(data[i]);
+        }
+    }
+
     /**
      * Расшифрование списка данных в режиме CBC
      * @param data список 16-битных значений (шифротекст)
@@ -290,16 +413,46 @@ public class SPN1 {
      * @param iv вектор инициализации (16-бит)
      */
     public List<Integer> decryptDataCBC(List<Integer> data, long key, int rounds, int iv) {
-        List<Integer> lk = roundKeysToDecrypt(key);
-        List<Integer> result = new ArrayList<>();
+        return toList(decryptDataCBC(toIntArray(data), key, rounds, iv));
+    }
+
+    /**
+     * Расшифрование массива данных в режиме CBC
+     * @param data массив 16-битных значений (шифротекст, не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return новый массив расшифрованных данных
+     */
+    public int[] decryptDataCBC(int[] data, long key, int rounds, int iv) {
+        int[] result = data.clone();
+        decryptDataCBCInPlace(result, 0, result.length, key, rounds, iv);
+        return result;
+    }
+
+    /**
+     * Расшифрование участка массива в режиме CBC на месте
+     * @param data массив 16-битных значений (шифротекст)
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return последний блок шифротекста (сцепление для следующего участка)
+     */
+    public int decryptDataCBCInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        if (len >= VECTOR_THRESHOLD && VectorSupport.isAvailable()) {
+            return new SPN1Vector(key, rounds).decryptCBC(data, off, len, iv);
+        }
+        SPN1TableCipher engine = new SPN1TableCipher(key, rounds);
         int prev = iv & 0xFFFF;
-        for (int value : data) {
-            int dec = decrypt(value & 0xFFFF, lk, rounds) & 0xFFFF;
-            int plain = mix(dec, prev) & 0xFFFF;
-            result.add(plain);
-            prev = value & 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            int value = data[i] & 0xFFFF;
+            int dec = engine.decrypt(value) & 0xFFFF;
+            data[i] = mix(dec, prev) & 0xFFFF;
+            prev = value;
         }
-        return result;
+        return prev;
     }
 
     /**
@@ -310,17 +463,38 @@ public class SPN1 {
      * @param iv вектор инициализации (16-бит)
      */
     public List<Integer> encryptDataOFB(List<Integer> data, long key, int rounds, int iv) {
-        List<Integer> rk = roundKeys(key);
-        List<Integer> result = new ArrayList<>();
-        int keystream = iv & 0xFFFF;
-        for (int value : data) {
-            keystream = encrypt(keystream, rk, rounds) & 0xFFFF;
-            int cipher = mix(value & 0xFFFF, keystream) & 0xFFFF;
-            result.add(cipher);
-        }
+        return toList(encryptDataOFB(toIntArray(data), key, rounds, iv));
+    }
+
+    /**
+     * Шифрование массива данных в режиме OFB
+     * @param data массив 16-битных значений (не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return новый массив зашифрованных данных
+     */
+    public int[] encryptDataOFB(int[] data, long key, int rounds, int iv) {
+        int[] result = data.clone();
+        encryptDataOFBInPlace(result, 0, result.length, key, rounds, iv);
         return result;
     }
 
+    /**
+     * Шифрование/расшифрование участка массива в режиме OFB на месте (операции идентичны)
+     * @param data массив 16-битных значений
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return последнее значение keystream (сцепление для следующего участка)
+     */
+    public int encryptDataOFBInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        // Последовательный режим: при повторном использовании ключа шифрование идёт по кодовой книге
+        return BlockModes16.ofb(new SPN1TableCipher(key, rounds), data, off, len, iv);
+    }
+
     /**
      * Расшифрование списка данных в режиме OFB
      * @param data список 16-битных значений (шифротекст)
@@ -329,15 +503,34 @@ public class SPN1 {
      * @param iv вектор инициализации (16-бит)
      */
     public List<Integer> decryptDataOFB(List<Integer> data, long key, int rounds, int iv) {
-        List<Integer> rk = roundKeys(key);
-        List<Integer> result = new ArrayList<>();
-        int keystream = iv & 0xFFFF;
-        for (int value : data) {
-            keystream = encrypt(keystream, rk, rounds) & 0xFFFF;
-            int plain = mix(value & 0xFFFF, keystream) & 0xFFFF;
-            result.add(plain);
-        }
-        return result;
+        return toList(decryptDataOFB(toIntArray(data), key, rounds, iv));
+    }
+
+    /**
+     * Расшифрование массива данных в режиме OFB
+     * @param data массив 16-битных значений (шифротекст, не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return новый массив расшифрованных данных
+     */
+    public int[] decryptDataOFB(int[] data, long key, int rounds, int iv) {
+        // В OFB шифрование и расшифрование одинаковы
+        return encryptDataOFB(data, key, rounds, iv);
+    }
+
+    /**
+     * Расшифрование участка массива в режиме OFB на месте (то же, что {@link #encryptDataOFBInPlace})
+     * @param data массив 16-битных значений (шифротекст)
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return последнее значение keystream (сцепление для следующего участка)
+     */
+    public int decryptDataOFBInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        return encryptDataOFBInPlace(data, off, len, key, rounds, iv);
     }
 
     /**
@@ -348,18 +541,38 @@ public class SPN1 {
      * @param iv вектор инициализации (16-бит)
      */
     public List<Integer> encryptDataCFB(List<Integer> data, long key, int rounds, int iv) {
-        List<Integer> rk = roundKeys(key);
-        List<Integer> result = new ArrayList<>();
-        int feedback = iv & 0xFFFF;
-        for (int value : data) {
-            int keystream = encrypt(feedback, rk, rounds) & 0xFFFF;
-            int cipher = mix(value & 0xFFFF, keystream) & 0xFFFF;
-            result.add(cipher);
-            feedback = cipher;
-        }
+        return toList(encryptDataCFB(toIntArray(data), key, rounds, iv));
+    }
+
+    /**
+     * Шифрование массива данных в режиме CFB
+     * @param data массив 16-битных значений (не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return новый массив зашифрованных данных
+     */
+    public int[] encryptDataCFB(int[] data, long key, int rounds, int iv) {
+        int[] result = data.clone();
+        encryptDataCFBInPlace(result, 0, result.length, key, rounds, iv);
         return result;
     }
 
+    /**
+     * Шифрование участка массива в режиме CFB на месте
+     * @param data массив 16-битных значений
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return последний блок шифротекста (сцепление для следующего участка)
+     */
+    public int encryptDataCFBInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        // Последовательный режим: при повторном использовании ключа шифрование идёт по кодовой книге
+        return BlockModes16.encryptCFB(new SPN1TableCipher(key, rounds), data, off, len, iv);
+    }
+
     /**
      * Расшифрование списка данных в режиме CFB
      * @param data список 16-битных значений (шифротекст)
@@ -368,16 +581,46 @@ public class SPN1 {
      * @param iv вектор инициализации (16-бит)
      */
     public List<Integer> decryptDataCFB(List<Integer> data, long key, int rounds, int iv) {
-        List<Integer> rk = roundKeys(key);
-        List<Integer> result = new ArrayList<>();
+        return toList(decryptDataCFB(toIntArray(data), key, rounds, iv));
+    }
+
+    /**
+     * Расшифрование массива данных в режиме CFB
+     * @param data массив 16-битных значений (шифротекст, не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return новый массив расшифрованных данных
+     */
+    public int[] decryptDataCFB(int[] data, long key, int rounds, int iv) {
+        int[] result = data.clone();
+        decryptDataCFBInPlace(result, 0, result.length, key, rounds, iv);
+        return result;
+    }
+
+    /**
+     * Расшифрование участка массива в режиме CFB на месте
+     * @param data массив 16-битных значений (шифротекст)
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv вектор инициализации (16-бит)
+     * @return последний блок шифротекста (сцепление для следующего участка)
+     */
+    public int decryptDataCFBInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        if (len >= VECTOR_THRESHOLD && VectorSupport.isAvailable()) {
+            return new SPN1Vector(key, rounds).decryptCFB(data, off, len, iv);
+        }
+        SPN1TableCipher engine = new SPN1TableCipher(key, rounds);
         int feedback = iv & 0xFFFF;
-        for (int value : data) {
-            int keystream = encrypt(feedback, rk, rounds) & 0xFFFF;
-            int plain = mix(value & 0xFFFF, keystream) & 0xFFFF;
-            result.add(plain);
-            feedback = value & 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            int value = data[i] & 0xFFFF;
+            int keystream = engine.encrypt(feedback) & 0xFFFF;
+            data[i] = mix(value, keystream) & 0xFFFF;
+            feedback = value;
         }
-        return result;
+        return feedback;
     }
 
     /**
@@ -385,14 +628,7 @@ public class SPN1 {
      * Используется счетчик: counter_i = (iv + i) mod 2^16; keystream_i = E_K(counter_i)
      */
     public List<Integer> encryptDataCTR(List<Integer> data, long key, int rounds, int iv) {
-        List<Integer> rk = roundKeys(key);
-        List<Integer> result = new ArrayList<>();
-        int counter = iv & 0xFFFF;
-        for (int i = 0; i < data.size(); i++) {
-            int keystream = encrypt((counter + i) & 0xFFFF, rk, rounds) & 0xFFFF;
-            result.add(mix(data.get(i) & 0xFFFF, keystream) & 0xFFFF);
-        }
-        return result;
+        return toList(encryptDataCTR(toIntArray(data), key, rounds, iv));
     }
 
     public List<Integer> decryptDataCTR(List<Integer> data, long key, int rounds, int iv) {
@@ -400,43 +636,124 @@ public class SPN1 {
         return encryptDataCTR(data, key, rounds, iv);
     }
 
+    /**
+     * Шифрование/расшифрование массива данных в режиме CTR
+     * @param data массив 16-битных значений (не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv начальное значение счетчика (16-бит)
+     * @return новый массив результата
+     */
+    public int[] encryptDataCTR(int[] data, long key, int rounds, int iv) {
+        int[] result = data.clone();
+        encryptDataCTRInPlace(result, 0, result.length, key, rounds, iv);
+        return result;
+    }
+
+    /**
+     * Расшифрование массива данных в режиме CTR (то же, что {@link #encryptDataCTR(int[], long, int, int)})
+     * @param data массив 16-битных значений (шифротекст, не изменяется)
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv начальное значение счетчика (16-бит)
+     * @return новый массив расшифрованных данных
+     */
+    public int[] decryptDataCTR(int[] data, long key, int rounds, int iv) {
+        return encryptDataCTR(data, key, rounds, iv);
+    }
+
+    /**
+     * Шифрование/расшифрование участка массива в режиме CTR на месте
+     * @param data массив 16-битных значений
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv значение счетчика для первого блока участка (16-бит)
+     * @return значение счетчика для следующего участка
+     */
+    public int encryptDataCTRInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        if (len >= BITSLICE_THRESHOLD) {
+            return new SPN1Bitsliced(key, rounds).ctr(data, off, len, iv & 0xFFFF);
+        }
+        if (len >= VECTOR_THRESHOLD && VectorSupport.isAvailable()) {
+            return new SPN1Vector(key, rounds).ctr(data, off, len, iv);
+        }
+        SPN1TableCipher engine = new SPN1TableCipher(key, rounds);
+        int counter = iv & 0xFFFF;
+        for (int i = 0; i < len; i++) {
+            int keystream = engine.encrypt((counter + i) & 0xFFFF) & 0xFFFF;
+            data[off + i] = mix(data[off + i] & 0xFFFF, keystream) & 0xFFFF;
+        }
+        return (counter + len) & 0xFFFF;
+    }
+
+    /**
+     * Расшифрование участка массива в режиме CTR на месте (то же, что {@link #encryptDataCTRInPlace})
+     * @param data массив 16-битных значений (шифротекст)
+     * @param off индекс первого блока
+     * @param len количество блоков
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param iv значение счетчика для первого блока участка (16-бит)
+     * @return значение счетчика для следующего участка
+     */
+    public int decryptDataCTRInPlace(int[] data, int off, int len, long key, int rounds, int iv) {
+        return encryptDataCTRInPlace(data, off, len, key, rounds, iv);
+    }
+
     /**
      * Формирует список раундовых ключей для расшифрования
      * @param key ключ шифрования
      * @return список раундовых ключей для расшифрования
      */
     public List<Integer> roundKeysToDecrypt(long key) {
-        List<Integer> K = roundKeys(key);
-        List<Integer> L = new ArrayList<>();
+        return toList(roundKeysToDecryptArray(key));
+    }
+
+    /**
+     * Формирует массив раундовых ключей для расшифрования
+     * @param key ключ шифрования
+     * @return массив раундовых ключей для расшифрования
+     */
+    public int[] roundKeysToDecryptArray(long key) {
+        int[] K = roundKeysArray(key);
         
         // Для расшифрования порядок ключей обратный
         // Последний ключ шифрования становится первым ключом расшифрования
-        L.add(K.getLast()); // L[0] = K[4]
-        L.add(K.get(K.size() - 2)); // L[1] = K[3]
-        L.add(K.get(K.size() - 3)); // L[2] = K[2]
-        L.add(K.get(K.size() - 4)); // L[3] = K[1]
-        L.add(K.get(K.size() - 5)); // L[4] = K[0]
-        
-        return L;
+        return new int[]{K[4], K[3], K[2], K[1], K[0]};
     }
 
     /**
-     * Расшифрование одного блока данных
+     * Расшифрование одного блока данных.
+     * Список ключей преобразуется в массив при каждом вызове, поэтому для циклов по блокам
+     * следует один раз получить {@link #roundKeysToDecryptArray(long)} и вызывать {@link #decrypt(int, int[], int)}
      * @param c зашифрованные данные
      * @param rk список раундовых ключей для расшифрования
      * @param rounds количество раундов
      * @return расшифрованные данные
      */
     public int decrypt(int c, List<Integer> rk, int rounds) {
+        return decrypt(c, toIntArray(rk), rounds);
+    }
+
+    /**
+     * Расшифрование одного блока данных
+     * @param c зашифрованные данные
+     * @param rk массив раундовых ключей для расшифрования
+     * @param rounds количество раундов
+     * @return расшифрованные данные
+     */
+    public int decrypt(int c, int[] rk, int rounds) {
         int x = c;
         
         // Первый раунд расшифрования (обратный к последнему раунду шифрования)
         // Для lastRound(p, K3, K4) обратная функция вызывается как lastRoundDecrypt(c, K3, K4)
-        x = lastRoundDecrypt(x, rk.get(1), rk.get(0));
+        x = lastRoundDecrypt(x, rk[1], rk[0]);
         
         // Остальные раунды расшифрования (обратные к обычным раундам шифрования)
         for (int i = 2; i < rounds + 1; i++) {
-            x = roundDecrypt(x, rk.get(i));
+            x = roundDecrypt(x, rk[i]);
         }
         
         return x;
@@ -449,27 +766,38 @@ public class SPN1 {
      * @throws IOException если произошла ошибка при чтении файла
      */
     public List<Integer> readData2Byte(String filename) throws IOException {
+        return toList(readData2ByteArray(filename));
+    }
+
+    /**
+     * Читает данные из файла как массив 16-битных чисел (little-endian)
+     * @param filename имя файла
+     * @return массив 16-битных чисел
+     * @throws IOException если произошла ошибка при чтении файла
+     */
+    public int[] readData2ByteArray(String filename) throws IOException {
         byte[] fileBytes = FileUtils.readFile(filename);
-        return bytesToDataList(fileBytes);
+        return bytesToData(fileBytes, 0, fileBytes.length);
     }
 
     /**
-     * Преобразует массив байтов в список 16-битных чисел (little-endian)
-     * @param fileBytes массив байтов
-     * @return список 16-битных чисел
+     * Преобразует участок массива байтов в массив 16-битных чисел (little-endian)
+     * @param bytes массив байтов
+     * @param off индекс первого байта
+     * @param len количество байтов
+     * @return массив 16-битных чисел (нечетный последний байт дает отдельное значение)
      */
-    private List<Integer> bytesToDataList(byte[] fileBytes) {
-        List<Integer> data = new ArrayList<>();
+    public int[] bytesToData(byte[] bytes, int off, int len) {
+        int[] data = new int[(len + 1) / 2];
         
         // Читаем по 2 байта (16 бит) в little-endian порядке
-        for (int i = 0; i < fileBytes.length; i += 2) {
-            if (i + 1 < fileBytes.length) {
+        for (int i = 0; i < len; i += 2) {
+            if (i + 1 < len) {
                 // Little-endian: младший байт первый
-                int value = (fileBytes[i] & 0xFF) | ((fileBytes[i + 1] & 0xFF) << 8);
-                data.add(value);
+                data[i / 2] = (bytes[off + i] & 0xFF) | ((bytes[off + i + 1] & 0xFF) << 8);
             } else {
                 // Если остался только один байт
-                data.add(fileBytes[i] & 0xFF);
+                data[i / 2] = bytes[off + i] & 0xFF;
             }
         }
         
@@ -483,7 +811,17 @@ public class SPN1 {
      * @throws IOException если произошла ошибка при записи файла
      */
     public void writeData2Byte(String filename, List<Integer> data) throws IOException {
-        byte[] bytes = dataListToBytes(data, false);
+        writeData2Byte(filename, toIntArray(data));
+    }
+
+    /**
+     * Записывает массив 16-битных чисел в файл (little-endian)
+     * @param filename имя файла
+     * @param data массив 16-битных чисел
+     * @throws IOException если произошла ошибка при записи файла
+     */
+    public void writeData2Byte(String filename, int[] data) throws IOException {
+        byte[] bytes = dataToBytes(data, 0, data.length, false);
         FileUtils.writeFile(filename, bytes);
     }
 
@@ -495,29 +833,66 @@ public class SPN1 {
      * @throws IOException если произошла ошибка при записи файла
      */
     public void writeData2ByteWithSize(String filename, List<Integer> data, long originalSize) throws IOException {
-        byte[] bytes = dataListToBytes(data, originalSize % 2 == 1);
+        writeData2ByteWithSize(filename, toIntArray(data), originalSize);
+    }
+
+    /**
+     * Записывает массив 16-битных чисел в файл с учетом исходного размера файла
+     * @param filename имя файла
+     * @param data массив 16-битных чисел
+     * @param originalSize исходный размер файла в байтах
+     * @throws IOException если произошла ошибка при записи файла
+     */
+    public void writeData2ByteWithSize(String filename, int[] data, long originalSize) throws IOException {
+        byte[] bytes = dataToBytes(data, 0, data.length, originalSize % 2 == 1);
         FileUtils.writeFile(filename, bytes);
     }
 
     /**
-     * Преобразует список 16-битных чисел в массив байтов (little-endian)
-     * @param data список 16-битных чисел
+     * Потоковое шифрование файла без загрузки его в память (см. {@link SPN1FileCipher})
+     * @param inputFile исходный файл
+     * @param outputFile файл для записи результата
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param mode режим шифрования
+     * @param iv вектор инициализации (16-бит, не используется в ECB)
+     * @return количество обработанных байтов
+     * @throws IOException если произошла ошибка при чтении или записи файла
+     */
+    public long encryptFile(String inputFile, String outputFile, long key, int rounds, BlockMode mode, int iv) throws IOException {
+        return new SPN1FileCipher(key, rounds, mode, iv).encryptFile(inputFile, outputFile);
+    }
+
+    /**
+     * Потоковое расшифрование файла без загрузки его в память (см. {@link SPN1FileCipher})
+     * @return количество обработанных байтов
+     * @throws IOException если произошла ошибка при чтении или записи файла
+     */
+    public long decryptFile(String inputFile, String outputFile, long key, int rounds, BlockMode mode, int iv) throws IOException {
+        return new SPN1FileCipher(key, rounds, mode, iv).decryptFile(inputFile, outputFile);
+    }
+
+    /**
+     * Преобразует участок массива 16-битных чисел в массив байтов (little-endian)
+     * @param data массив 16-битных чисел
+     * @param off индекс первого значения
+     * @param len количество значений
      * @param lastByteOnly если true, для последнего элемента записывает только младший байт
      * @return массив байтов
      */
-    private byte[] dataListToBytes(List<Integer> data, boolean lastByteOnly) {
-        int totalBytes = data.size() * 2;
-        if (lastByteOnly && !data.isEmpty()) {
-            totalBytes = (data.size() - 1) * 2 + 1;
+    public byte[] dataToBytes(int[] data, int off, int len, boolean lastByteOnly) {
+        int totalBytes = len * 2;
+        if (lastByteOnly && len > 0) {
+            totalBytes = (len - 1) * 2 + 1;
         }
         
         byte[] bytes = new byte[totalBytes];
         int byteIndex = 0;
         
-        for (int i = 0; i < data.size(); i++) {
-            int value = data.get(i);
+        for (int i = 0; i < len; i++) {
+            int value = data[off + i];
             
-            if (i == data.size() - 1 && lastByteOnly) {
+            if (i == len - 1 && lastByteOnly) {
                 // Для последнего значения в файле с нечетным размером записываем только младший байт
                 bytes[byteIndex++] = (byte) (value & 0xFF);
             } else {
@@ -529,4 +904,27 @@ public class SPN1 {
         
         return bytes;
     }
+
+    /**
+     * Преобразует список в массив примитивов (для обёрток над List API)
+     */
+    private static int[] toIntArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+        int i = 0;
+        for (int value : list) {
+            result[i++] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Преобразует массив примитивов в изменяемый список (для обёрток над List API)
+     */
+    private static List<Integer> toList(int[] array) {
+        List<Integer> result = new ArrayList<>(array.length);
+        for (int value : array) {
+            result.add(value);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,91 @@
+package com.cryptography.main.task4;
+
+import java.util.List;
+
+/**
+ * Общие операции атак на последний раундовый ключ SPN1 (линейной и дифференциальной).
+ */
+final class SPN1Attacks {
+
+    private SPN1Attacks() {}
+
+    /**
+     * Набор активных нибблов маски: бит n установлен, если ниббл n ненулевой
+     */
+    static int activeNibbles(int mask) {
+        int set = 0;
+        for (int n = 0; n < 4; n++) {
+            if (((mask >>> (4 * n)) & 0xF) != 0) {
+                set |= 1 << n;
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Маска из 0xF на каждом ненулевом ниббле
+     */
+    static int nibbleMask(int mask) {
+        int result = 0;
+        for (int n = 0; n < 4; n++) {
+            if (((mask >>> (4 * n)) & 0xF) != 0) {
+                result |= 0xF << (4 * n);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Раскладывает младшие биты index по нибблам, выбранным в mask
+     */
+    static int deposit(int index, int mask) {
+        int result = 0;
+        for (int n = 0; n < 4; n++) {
+            if (((mask >>> (4 * n)) & 0xF) != 0) {
+                result |= (index & 0xF) << (4 * n);
+                index >>>= 4;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Проверка путей для атаки на rounds раундов: вид, число слоёв rounds - 1 и покрытие всех нибблов K_r
+     */
+    static void checkTrails(int rounds, List<SPN1TrailSearch.Trail> trails, SPN1TrailSearch.Kind kind) {
+        if (rounds < 2 || rounds > SPN1TableCipher.MAX_ROUNDS) {
+            throw new IllegalArgumentException("Число раундов должно быть от 2 до " + SPN1TableCipher.MAX_ROUNDS + ": " + rounds);
+        }
+        int covered = 0;
+        for (SPN1TrailSearch.Trail trail : trails) {
+            if (trail.kind() != kind || trail.layers() != rounds - 1) {
+                throw new IllegalArgumentException("Нужен путь вида " + kind + " из " + (rounds - 1) + " слоёв: " + trail);
+            }
+            covered |= trail.activeMask();
+        }
+        if (covered != 0xFFFF) {
+            throw new IllegalArgumentException("Пути не покрывают все нибблы последнего раундового ключа");
+        }
+    }
+
+    /**
+     * Перебор остальных 16 бит ключа для найденного последнего раундового ключа с проверкой по известным парам.
+     * K_r занимает биты [16 - 4r, 32 - 4r) ключа ({@link SPN1#roundKeysArray(long)}).
+     * @return 32-битный ключ или -1
+     */
+    static long extendKey(int rounds, int last, int[] plain, int[] cipher) {
+        int checks = Math.min(plain.length, 8);
+        int shift = 16 - 4 * rounds;
+        for (int rest = 0; rest < 1 << 16; rest++) {
+            int key32 = ((rest >>> shift) << (16 + shift)) | (last << shift) | (rest & ((1 << shift) - 1));
+            boolean match = true;
+            for (int i = 0; i < checks && match; i++) {
+                match = SPN1TableCipher.encrypt(plain[i], key32, rounds) == (cipher[i] & 0xFFFF);
+            }
+            if (match) {
+                return key32 & 0xFFFFFFFFL;
+            }
+        }
+        return -1;
+    }
+}
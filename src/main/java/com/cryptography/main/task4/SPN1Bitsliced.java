@@ -0,0 +1,251 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.utils.BitSlice;
+
+/**
+ * Побитово-срезовая (bitsliced) реализация SPN1: 64 блока обрабатываются за один проход.
+ * <p>
+ * Состояние — 16 плоскостей long (см. {@link BitSlice}). S-box вычисляется как булева схема
+ * над плоскостями (алгебраическая нормальная форма S_BOX), а P-box — это переименование
+ * плоскостей: выход S-box записывается сразу в плоскость с номером P_BOX[i].
+ * Сложение с ключом — XOR плоскости с 0 или -1 (или с плоскостью разных ключей при переборе).
+ * <p>
+ * Результаты совпадают с {@link SPN1#encrypt(int, int[], int)} и {@link SPN1#decrypt(int, int[], int)}.
+ * Экземпляр неизменяем; рабочие массивы создаются на каждый вызов массовой операции.
+ */
+public final class SPN1Bitsliced {
+
+    private final int rounds;
+    private final long[] encKeys; // (rounds + 1) * 16 плоскостей ключей K0..K4
+    private final long[] decKeys; // (rounds + 1) * 16 плоскостей ключей L0..L4
+
+    /**
+     * @param key ключ шифрования
+     * @param rounds количество раундов (1..4)
+     */
+    public SPN1Bitsliced(long key, int rounds) {
+        if (rounds < 1 || rounds > SPN1TableCipher.MAX_ROUNDS) {
+            throw new IllegalArgumentException("Число раундов должно быть от 1 до " + SPN1TableCipher.MAX_ROUNDS + ": " + rounds);
+        }
+        SPN1 spn = new SPN1();
+        this.rounds = rounds;
+        this.encKeys = broadcastKeys(spn.roundKeysArray(key));
+        this.decKeys = broadcastKeys(spn.roundKeysToDecryptArray(key));
+    }
+
+    private static long[] broadcastKeys(int[] rk) {
+        long[] planes = new long[rk.length * 16];
+        for (int i = 0; i < rk.length; i++) {
+            BitSlice.broadcast(rk[i], planes, i * 16);
+        }
+        return planes;
+    }
+
+    /**
+     * Плоскости раундовых ключей для 64 разных 32-битных ключей (по одному на позицию).
+     * Используется для перебора ключей: один проход шифрует один блок под 64 ключами.
+     * @param keys32 до 64 ключей; недостающие позиции получают ключ 0
+     * @param count количество ключей
+     * @return плоскости ключей K0..K4 в формате {@link #encrypt(long[], long[], long[], int)}
+     */
+    public static long[] keyPlanes(int[] keys32, int count) {
+        long[] planes = new long[5 * 16];
+        long[] work = new long[16];
+        int[] rk = new int[BitSlice.LANES];
+        for (int i = 0; i < 5; i++) {
+            int shift = 16 - 4 * i;
+            for (int b = 0; b < count; b++) {
+                rk[b] = (keys32[b] >>> shift) & 0xFFFF;
+            }
+            BitSlice.slice(rk, 0, count, work);
+            System.arraycopy(work, 0, planes, i * 16, 16);
+        }
+        return planes;
+    }
+
+    /**
+     * Шифрование 64 блоков, разложенных в state[0..15].
+     * @param state плоскости состояния (изменяются на месте)
+     * @param tmp временный массив не короче 16 элементов
+     * @param keys плоскости раундовых ключей
+     * @param rounds количество раундов
+     */
+    public static void encrypt(long[] state, long[] tmp, long[] keys, int rounds) {
+        long[] w = state;
+        long[] t = tmp;
+        for (int i = 0; i < rounds - 1; i++) {
+            addKey(w, keys, i * 16);
+            substitutePermute(w, t);
+            long[] s = w; w = t; t = s;
+        }
+        addKey(w, keys, (rounds - 1) * 16);
+        substitute(w);
+        addKey(w, keys, rounds * 16);
+        if (w != state) {
+            System.arraycopy(w, 0, state, 0, 16);
+        }
+    }
+
+    /**
+     * Расшифрование 64 блоков, разложенных в state[0..15] (ключи в порядке расшифрования).
+     */
+    public static void decrypt(long[] state, long[] tmp, long[] keys, int rounds) {
+        long[] w = state;
+        long[] t = tmp;
+        addKey(w, keys, 0);
+        invSubstitute(w);
+        addKey(w, keys, 16);
+        for (int i = 2; i < rounds + 1; i++) {
+            invPermuteSubstitute(w, t);
+            long[] s = w; w = t; t = s;
+            addKey(w, keys, i * 16);
+        }
+        if (w != state) {
+            System.arraycopy(w, 0, state, 0, 16);
+        }
+    }
+
+    /**
+     * Шифрование блоков в режиме ECB на месте
+     */
+    public void encryptBlocks(int[] data, int off, int len) {
+        long[] work = new long[16];
+        long[] tmp = new long[16];
+        for (int i = 0; i < len; i += BitSlice.LANES) {
+            int count = Math.min(BitSlice.LANES, len - i);
+            BitSlice.slice(data, off + i, count, work);
+            encrypt(work, tmp, encKeys, rounds);
+            BitSlice.unslice(work, data, off + i, count);
+        }
+    }
+
+    /**
+     * Расшифрование блоков в режиме ECB на месте
+     */
+    public void decryptBlocks(int[] data, int off, int len) {
+        long[] work = new long[16];
+        long[] tmp = new long[16];
+        for (int i = 0; i < len; i += BitSlice.LANES) {
+            int count = Math.min(BitSlice.LANES, len - i);
+            BitSlice.slice(data, off + i, count, work);
+            decrypt(work, tmp, decKeys, rounds);
+            BitSlice.unslice(work, data, off + i, count);
+        }
+    }
+
+    /**
+     * Шифрование 16-битных слов (little-endian) массива байтов в режиме ECB на месте.
+     * @param len количество байтов; нечётный последний байт не изменяется
+     */
+    public void encryptBytes(byte[] data, int off, int len) {
+        long[] work = new long[16];
+        long[] tmp = new long[16];
+        int words = len / 2;
+        for (int i = 0; i < words; i += BitSlice.LANES) {
+            int count = Math.min(BitSlice.LANES, words - i);
+            BitSlice.slice(data, off + 2 * i, count, work);
+            encrypt(work, tmp, encKeys, rounds);
+            BitSlice.unslice(work, data, off + 2 * i, count);
+        }
+    }
+
+    /**
+     * Расшифрование 16-битных слов (little-endian) массива байтов в режиме ECB на месте.
+     * @param len количество байтов; нечётный последний байт не изменяется
+     */
+    public void decryptBytes(byte[] data, int off, int len) {
+        long[] work = new long[16];
+        long[] tmp = new long[16];
+        int words = len / 2;
+        for (int i = 0; i < words; i += BitSlice.LANES) {
+            int count = Math.min(BitSlice.LANES, words - i);
+            BitSlice.slice(data, off + 2 * i, count, work);
+            decrypt(work, tmp, decKeys, rounds);
+            BitSlice.unslice(work, data, off + 2 * i, count);
+        }
+    }
+
+    /**
+     * Режим CTR на месте: data_i ^= E((counter + i) mod 2^16)
+     * @return значение счетчика для следующего участка
+     */
+    public int ctr(int[] data, int off, int len, int counter) {
+        long[] work = new long[16];
+        long[] tmp = new long[16];
+        int[] ks = new int[BitSlice.LANES];
+        for (int i = 0; i < len; i += BitSlice.LANES) {
+            int count = Math.min(BitSlice.LANES, len - i);
+            for (int b = 0; b < count; b++) {
+                ks[b] = (counter + i + b) & 0xFFFF;
+            }
+            BitSlice.slice(ks, 0, count, work);
+            encrypt(work, tmp, encKeys, rounds);
+            BitSlice.unslice(work, ks, 0, count);
+            for (int b = 0; b < count; b++) {
+                data[off + i + b] = (data[off + i + b] ^ ks[b]) & 0xFFFF;
+            }
+        }
+        return (counter + len) & 0xFFFF;
+    }
+
+    private static void addKey(long[] w, long[] keys, int k) {
+        for (int j = 0; j < 16; j++) {
+            w[j] ^= keys[k + j];
+        }
+    }
+
+    /**
+     * Слой S-box с последующей P-box: выходной бит b ниббла n попадает в плоскость P_BOX[4n + b] = 4b + n
+     */
+    private static void substitutePermute(long[] in, long[] out) {
+        for (int n = 0; n < 4; n++) {
+            long x0 = in[4 * n], x1 = in[4 * n + 1], x2 = in[4 * n + 2], x3 = in[4 * n + 3];
+            long x01 = x0 & x1, x02 = x0 & x2, x03 = x0 & x3, x12 = x1 & x2, x13 = x1 & x3, x23 = x2 & x3;
+            out[n] = x1 ^ x02 ^ x3 ^ x03 ^ (x01 & x3);
+            out[4 + n] = ~(x0 ^ x1 ^ x01 ^ x02 ^ x12 ^ x03 ^ x13 ^ x23 ^ (x02 & x3) ^ (x12 & x3));
+            out[8 + n] = ~(x01 ^ x2 ^ x02 ^ x3 ^ x13 ^ (x01 & x3));
+            out[12 + n] = ~(x0 ^ x2 ^ x12 ^ (x01 & x2) ^ x3 ^ x23 ^ (x12 & x3));
+        }
+    }
+
+    /**
+     * Слой S-box без перестановки (последний раунд)
+     */
+    private static void substitute(long[] w) {
+        for (int n = 0; n < 4; n++) {
+            long x0 = w[4 * n], x1 = w[4 * n + 1], x2 = w[4 * n + 2], x3 = w[4 * n + 3];
+            long x01 = x0 & x1, x02 = x0 & x2, x03 = x0 & x3, x12 = x1 & x2, x13 = x1 & x3, x23 = x2 & x3;
+            w[4 * n] = x1 ^ x02 ^ x3 ^ x03 ^ (x01 & x3);
+            w[4 * n + 1] = ~(x0 ^ x1 ^ x01 ^ x02 ^ x12 ^ x03 ^ x13 ^ x23 ^ (x02 & x3) ^ (x12 & x3));
+            w[4 * n + 2] = ~(x01 ^ x2 ^ x02 ^ x3 ^ x13 ^ (x01 & x3));
+            w[4 * n + 3] = ~(x0 ^ x2 ^ x12 ^ (x01 & x2) ^ x3 ^ x23 ^ (x12 & x3));
+        }
+    }
+
+    /**
+     * Обратный слой S-box без перестановки (первый раунд расшифрования)
+     */
+    private static void invSubstitute(long[] w) {
+        for (int n = 0; n < 4; n++) {
+            long x0 = w[4 * n], x1 = w[4 * n + 1], x2 = w[4 * n + 2], x3 = w[4 * n + 3];
+            invSbox(x0, x1, x2, x3, w, 4 * n);
+        }
+    }
+
+    /**
+     * Обратная P-box с последующим обратным S-box: вход бита b ниббла n берётся из плоскости 4b + n
+     */
+    private static void invPermuteSubstitute(long[] in, long[] out) {
+        for (int n = 0; n < 4; n++) {
+            invSbox(in[n], in[4 + n], in[8 + n], in[12 + n], out, 4 * n);
+        }
+    }
+
+    private static void invSbox(long x0, long x1, long x2, long x3, long[] out, int o) {
+        long x01 = x0 & x1, x03 = x0 & x3, x12 = x1 & x2, x13 = x1 & x3, x23 = x2 & x3;
+        out[o] = x0 ^ x01 ^ x2 ^ x12 ^ (x01 & x2) ^ x3 ^ x03 ^ x23 ^ (x03 & x2);
+        out[o + 1] = ~(x1 ^ x2 ^ x03 ^ x23 ^ (x03 & x2));
+        out[o + 2] = ~(x0 ^ x2 ^ x03 ^ x13 ^ (x01 & x3) ^ (x12 & x3));
+        out[o + 3] = ~(x0 ^ x1 ^ x2 ^ (x01 & x2) ^ x3);
+    }
+}
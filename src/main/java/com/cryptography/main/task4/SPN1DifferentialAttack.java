@@ -0,0 +1,333 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.main.task4.SPN1TrailSearch.Kind;
+import com.cryptography.main.task4.SPN1TrailSearch.Trail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Дифференциальный криптоанализ SPN1 с выбранным открытым текстом (по схеме Хейса).
+ * <p>
+ * Используются дифференциальные пути rounds - 1 раундов ({@link SPN1TrailSearch}) — характеристики
+ * ΔP → ΔU, где U — вход последнего слоя замены. Для каждой характеристики оракул шифрует пары
+ * (P, P XOR ΔP); пары, у которых разность шифротекстов ненулевая вне активных нибблов ΔU,
+ * отбрасываются сразу. Для оставшихся каждая догадка нибблов K_r проверяется частичным
+ * расшифрованием через обратный S-box: засчитываются пары, дающие ожидаемую ΔU.
+ * Генерация пар и подсчёт выполняются параллельно над примитивными массивами без выделения
+ * памяти на пару.
+ * <p>
+ * Найденный K_r дополняется до 32-битного ключа перебором остальных 16 бит.
+ */
+public final class SPN1DifferentialAttack {
+
+    /** Сколько лучших догадок сохраняется в рейтинге для каждой характеристики */
+    public static final int RANKING_SIZE = 8;
+
+    // Догадки со счётом не меньше TIE от лучшего проверяются как альтернативы (не более MAX_BRANCH)
+    private static final double TIE = 0.8;
+    private static final int MAX_BRANCH = 4;
+
+    private final int rounds;
+    private final List<Trail> characteristics;
+
+    /**
+     * Характеристики выбираются {@link SPN1TrailSearch#coveringTrails(SPN1TrailSearch.Kind, int, int)}
+     * с активностью ΔU не более чем на двух нибблах (догадка не длиннее 8 бит)
+     * @param rounds количество раундов (2..4)
+     */
+    public SPN1DifferentialAttack(int rounds) {
+        this(rounds, SPN1TrailSearch.coveringTrails(Kind.DIFFERENTIAL, rounds - 1, 2));
+    }
+
+    /**
+     * @param rounds количество раундов (2..4)
+     * @param characteristics дифференциальные пути из rounds - 1 слоёв, вместе покрывающие все нибблы K_r
+     */
+    public SPN1DifferentialAttack(int rounds, List<Trail> characteristics) {
+        SPN1Attacks.checkTrails(rounds, characteristics, Kind.DIFFERENTIAL);
+        this.rounds = rounds;
+        this.characteristics = Collections.unmodifiableList(new ArrayList<>(characteristics));
+    }
+
+    /**
+     * Таблица распределения разностей S_BOX: элемент [dx][dy] = #{x : S(x) XOR S(x XOR dx) = dy}
+     */
+    public static int[][] differenceDistributionTable() {
+        return SPN1TrailSearch.differenceDistributionTable();
+    }
+
+    /**
+     * Оракул шифрования SPN1 с неизвестным атакующему ключом
+     */
+    public static IntUnaryOperator oracle(long key, int rounds) {
+        SPN1 spn = new SPN1();
+        int[] rk = spn.roundKeysArray(key);
+        return p -> spn.encrypt(p, rk, rounds);
+    }
+
+    /**
+     * Характеристики, покрывающие все четыре ниббла K_r, в порядке применения
+     */
+    public List<Trail> characteristics() {
+        return characteristics;
+    }
+
+    /**
+     * Рекомендуемое число пар для характеристики: 32 / p (около 32 правильных пар)
+     */
+    public static int recommendedPairs(Trail characteristic) {
+        return (int) Math.min(1 << 22, Math.ceil(32 / characteristic.probability()));
+    }
+
+    /**
+     * Атака с рекомендуемым числом пар для каждой характеристики
+     * @param oracle функция шифрования (должна допускать вызовы из нескольких потоков)
+     * @param random источник случайных открытых текстов
+     */
+    public Result attack(IntUnaryOperator oracle, Random random) {
+        return attack(oracle, random, 0);
+    }
+
+    /**
+     * @param pairs число пар на характеристику (0 — рекомендуемое)
+     */
+    public Result attack(IntUnaryOperator oracle, Random random, int pairs) {
+        int[] plain = new int[8];
+        int[] cipher = new int[plain.length];
+        for (int i = 0; i < plain.length; i++) {
+            plain[i] = random.nextInt(1 << 16);
+            cipher[i] = oracle.applyAsInt(plain[i]) & 0xFFFF;
+        }
+        Recovery recovery = new Recovery(oracle, random.nextLong(), pairs, plain, cipher);
+        long key = recover(recovery, 0, 0, 0);
+        List<SubkeyRanking> rankings = key >= 0 ? recovery.path : recovery.firstPath;
+        return new Result(key >= 0 ? recovery.lastRoundKey : recovery.firstLastRoundKey, key, rankings, recovery.queries);
+    }
+
+    private long recover(Recovery recovery, int index, int known, int knownMask) {
+        if (index == characteristics.size()) {
+            if (recovery.firstPath == null) {
+                recovery.firstPath = new ArrayList<>(recovery.path);
+                recovery.firstLastRoundKey = known;
+            }
+            recovery.lastRoundKey = known;
+            return SPN1Attacks.extendKey(rounds, known, recovery.plain, recovery.cipher);
+        }
+        Trail characteristic = characteristics.get(index);
+        int target = characteristic.activeMask() & ~knownMask;
+        if (target == 0) {
+            return recover(recovery, index + 1, known, knownMask);
+        }
+        SubkeyRanking ranking = rank(recovery, characteristic, known, knownMask, target);
+        int depth = recovery.path.size();
+        recovery.path.add(ranking);
+        int top = ranking.counts[0];
+        for (int i = 0; i < Math.min(MAX_BRANCH, ranking.guesses.length) && ranking.counts[i] >= TIE * top; i++) {
+            long key = recover(recovery, index + 1, known | ranking.guesses[i], knownMask | target);
+            if (key >= 0) {
+                return key;
+            }
+            recovery.path.subList(depth + 1, recovery.path.size()).clear();
+        }
+        recovery.path.remove(depth);
+        return -1;
+    }
+
+    private SubkeyRanking rank(Recovery recovery, Trail characteristic, int known, int knownMask, int target) {
+        int n = recovery.pairs > 0 ? recovery.pairs : recommendedPairs(characteristic);
+        int dp = characteristic.input();
+        int du = characteristic.output();
+        int active = characteristic.activeMask();
+
+        // Пары шифротекстов; отбрасываем пары с ненулевой разностью вне активных нибблов
+        int[] c1 = new int[n];
+        int[] c2 = new int[n];
+        int parts = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, n / 1024));
+        SplittableRandom root = new SplittableRandom(recovery.seed + ((long) characteristic.input() << 16 | characteristic.output()));
+        SplittableRandom[] randoms = new SplittableRandom[parts];
+        for (int part = 0; part < parts; part++) {
+            randoms[part] = root.split();
+        }
+        IntUnaryOperator oracle = recovery.oracle;
+        IntStream.range(0, parts).parallel().forEach(part -> {
+            SplittableRandom random = randoms[part];
+            int from = (int) ((long) n * part / parts);
+            int to = (int) ((long) n * (part + 1) / parts);
+            for (int i = from; i < to; i++) {
+                int p = random.nextInt(1 << 16);
+                c1[i] = oracle.applyAsInt(p) & 0xFFFF;
+                c2[i] = oracle.applyAsInt(p ^ dp) & 0xFFFF;
+            }
+        });
+        recovery.queries += 2L * n;
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            if (((c1[i] ^ c2[i]) & ~active) == 0) {
+                c1[kept] = c1[i];
+                c2[kept] = c2[i];
+                kept++;
+            }
+        }
+        int filtered = kept;
+
+        int[] counts = new int[1 << Integer.bitCount(target)];
+        IntStream.range(0, counts.length).parallel().forEach(index -> {
+            int guess = (known & knownMask) | SPN1Attacks.deposit(index, target);
+            int count = 0;
+            for (int i = 0; i < filtered; i++) {
+                int u1 = SPN1TableCipher.substitute(SPN1TableCipher.IS, c1[i] ^ guess);
+                int u2 = SPN1TableCipher.substitute(SPN1TableCipher.IS, c2[i] ^ guess);
+                if (((u1 ^ u2) & active) == du) {
+                    count++;
+                }
+            }
+            counts[index] = count;
+        });
+
+        Integer[] order = new Integer[counts.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> -counts[i]));
+        int size = Math.min(RANKING_SIZE, order.length);
+        int[] guesses = new int[size];
+        int[] best = new int[size];
+        for (int i = 0; i < size; i++) {
+            guesses[i] = SPN1Attacks.deposit(order[i], target);
+            best[i] = counts[order[i]];
+        }
+        return new SubkeyRanking(characteristic, target, n, filtered, guesses, best);
+    }
+
+    /**
+     * Состояние подбора: оракул, проверочные пары и текущий путь по рейтингам
+     */
+    private static final class Recovery {
+        final IntUnaryOperator oracle;
+        final long seed;
+        final int pairs;
+        final int[] plain;
+        final int[] cipher;
+        final List<SubkeyRanking> path = new ArrayList<>();
+        List<SubkeyRanking> firstPath;
+        int firstLastRoundKey;
+        int lastRoundKey;
+        long queries;
+
+        Recovery(IntUnaryOperator oracle, long seed, int pairs, int[] plain, int[] cipher) {
+            this.oracle = oracle;
+            this.seed = seed;
+            this.pairs = pairs;
+            this.plain = plain;
+            this.cipher = cipher;
+            this.queries = plain.length;
+        }
+    }
+
+    /**
+     * Рейтинг догадок нибблов K_r для одной характеристики
+     */
+    public static final class SubkeyRanking {
+        private final Trail characteristic;
+        private final int targetMask;
+        private final int pairs;
+        private final int filtered;
+        private final int[] guesses;
+        private final int[] counts;
+
+        SubkeyRanking(Trail characteristic, int targetMask, int pairs, int filtered, int[] guesses, int[] counts) {
+            this.characteristic = characteristic;
+            this.targetMask = targetMask;
+            this.pairs = pairs;
+            this.filtered = filtered;
+            this.guesses = guesses;
+            this.counts = counts;
+        }
+
+        public Trail characteristic() {
+            return characteristic;
+        }
+
+        /** Нибблы, которые подбирались по этой характеристике */
+        public int targetMask() {
+            return targetMask;
+        }
+
+        /** Число выбранных пар */
+        public int pairs() {
+            return pairs;
+        }
+
+        /** Число пар, прошедших фильтр по неактивным нибблам */
+        public int filtered() {
+            return filtered;
+        }
+
+        /** Догадки по убыванию счёта (значения на позициях targetMask) */
+        public int[] guesses() {
+            return guesses.clone();
+        }
+
+        /** Число пар, подтвердивших ΔU для каждой догадки */
+        public int[] counts() {
+            return counts.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(characteristic + ", пар " + pairs + " (после фильтра " + filtered
+                    + "), нибблы " + String.format("%04X", targetMask) + ":");
+            for (int i = 0; i < guesses.length; i++) {
+                sb.append(String.format(" %04X(%.4f)", guesses[i], (double) counts[i] / pairs));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Результат атаки
+     */
+    public static final class Result {
+        private final int lastRoundKey;
+        private final long key;
+        private final List<SubkeyRanking> rankings;
+        private final long queries;
+
+        Result(int lastRoundKey, long key, List<SubkeyRanking> rankings, long queries) {
+            this.lastRoundKey = lastRoundKey;
+            this.key = key;
+            this.rankings = Collections.unmodifiableList(rankings);
+            this.queries = queries;
+        }
+
+        /** Последний раундовый ключ K_r по лучшим догадкам */
+        public int lastRoundKey() {
+            return lastRoundKey;
+        }
+
+        /**
+         * Восстановленный 32-битный ключ или -1, если проверка по парам не прошла.
+         * При rounds < 4 младшие 16 - 4r бит не участвуют в шифровании, и возвращается один из эквивалентных ключей.
+         */
+        public long key() {
+            return key;
+        }
+
+        public List<SubkeyRanking> rankings() {
+            return rankings;
+        }
+
+        /** Число обращений к оракулу */
+        public long queries() {
+            return queries;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Потоковое шифрование файлов SPN1 через FileChannel.
+ * <p>
+ * Файл читается участками фиксированного размера, 16-битные слова берутся из ByteBuffer в порядке
+ * little-endian, а состояние режима (сцепление или счетчик) переносится между участками. Память
+ * не зависит от размера файла. Результат совпадает с цепочкой
+ * {@link SPN1#readData2Byte(String)} → шифрование списка → {@link SPN1#writeData2ByteWithSize(String, java.util.List, long)}:
+ * нечетный последний байт обрабатывается как отдельный блок, и в выходной файл записывается его младший байт.
+ */
+public final class SPN1FileCipher {
+
+    /** Размер участка по умолчанию: 32768 блоков (64 КиБ) */
+    public static final int DEFAULT_CHUNK_BLOCKS = 1 << 15;
+
+    private final SPN1 spn = new SPN1();
+    private final long key;
+    private final int rounds;
+    private final BlockMode mode;
+    private final int iv;
+    private final int chunkBlocks;
+
+    /**
+     * @param key ключ шифрования
+     * @param rounds количество раундов
+     * @param mode режим шифрования
+     * @param iv вектор инициализации (16-бит, не используется в ECB)
+     */
+    public SPN1FileCipher(long key, int rounds, BlockMode mode, int iv) {
+        this(key, rounds, mode, iv, DEFAULT_CHUNK_BLOCKS);
+    }
+
+    /**
+     * @param chunkBlocks количество 16-битных блоков в одном участке
+     */
+    public SPN1FileCipher(long key, int rounds, BlockMode mode, int iv, int chunkBlocks) {
+        if (chunkBlocks < 1) {
+            throw new IllegalArgumentException("Размер участка должен быть положительным: " + chunkBlocks);
+        }
+        new SPN1TableCipher(key, rounds); // проверка числа раундов
+        this.key = key;
+        this.rounds = rounds;
+        this.mode = mode;
+        this.iv = iv & 0xFFFF;
+        this.chunkBlocks = chunkBlocks;
+    }
+
+    /**
+     * Шифрование файла
+     * @return количество обработанных байтов
+     * @throws IOException если произошла ошибка при чтении или записи файла
+     */
+    public long encryptFile(String inputFile, String outputFile) throws IOException {
+        return processFile(inputFile, outputFile, true);
+    }
+
+    /**
+     * Расшифрование файла
+     * @return количество обработанных байтов
+     * @throws IOException если произошла ошибка при чтении или записи файла
+     */
+    public long decryptFile(String inputFile, String outputFile) throws IOException {
+        return processFile(inputFile, outputFile, false);
+    }
+
+    public long encrypt(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        return process(in, out, true);
+    }
+
+    public long decrypt(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        return process(in, out, false);
+    }
+
+    private long processFile(String inputFile, String outputFile, boolean encrypt) throws IOException {
+        Path output = Paths.get(outputFile);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (FileChannel in = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return process(in, out, encrypt);
+        }
+    }
+
+    private long process(ReadableByteChannel in, WritableByteChannel out, boolean encrypt) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(chunkBlocks * 2).order(ByteOrder.LITTLE_ENDIAN);
+        int[] data = new int[chunkBlocks];
+        int state = iv;
+        long total = 0;
+        while (true) {
+            buffer.clear();
+            boolean eof = fill(in, buffer);
+            buffer.flip();
+            int bytes = buffer.remaining();
+            if (bytes == 0) {
+                break;
+            }
+            int words = bytes / 2;
+            for (int i = 0; i < words; i++) {
+                data[i] = buffer.getShort() & 0xFFFF;
+            }
+            boolean odd = (bytes & 1) != 0;
+            int blocks = words;
+            if (odd) {
+                // Нечетный последний байт — отдельный блок, как в bytesToData
+                data[blocks++] = buffer.get() & 0xFF;
+            }
+
+            state = process(data, blocks, state, encrypt);
+
+            buffer.clear();
+            for (int i = 0; i < words; i++) {
+                buffer.putShort((short) data[i]);
+            }
+            if (odd) {
+                buffer.put((byte) data[words]);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            total += bytes;
+            if (eof) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Чтение до заполнения буфера или конца потока, чтобы нечетный байт мог быть только в последнем участке
+     * @return true, если достигнут конец потока
+     */
+    private static boolean fill(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Обработка участка на месте
+     * @return состояние режима для следующего участка
+     */
+    private int process(int[] data, int len, int state, boolean encrypt) {
+        switch (mode) {
+            case ECB:
+                if (encrypt) {
+                    spn.encryptDataInPlace(data, 0, len, key, rounds);
+                } else {
+                    spn.decryptDataInPlace(data, 0, len, key, rounds);
+                }
+                return state;
+            case CBC:
+                return encrypt
+                        ? spn.encryptDataCBCInPlace(data, 0, len, key, rounds, state)
+                        : spn.decryptDataCBCInPlace(data, 0, len, key, rounds, state);
+            case OFB:
+                return spn.encryptDataOFBInPlace(data, 0, len, key, rounds, state);
+            case CFB:
+                return encrypt
+                        ? spn.encryptDataCFBInPlace(data, 0, len, key, rounds, state)
+                        : spn.decryptDataCFBInPlace(data, 0, len, key, rounds, state);
+            case CTR:
+                return spn.encryptDataCTRInPlace(data, 0, len, key, rounds, state);
+            default:
+                throw new IllegalArgumentException("Неизвестный режим: " + mode);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.cryptography.main.task4;
+
+/**
+ * Шифрование и расшифрование SPN1 для фиксированных ключа и числа раундов.
+ * Реализации создаются {@link SPN1KernelCompiler}.
+ */
+public interface SPN1Kernel {
+
+    /**
+     * Шифрование одного 16-битного блока
+     */
+    int encrypt(int block);
+
+    /**
+     * Расшифрование одного 16-битного блока
+     */
+    int decrypt(int block);
+
+    /**
+     * Поблочное шифрование (ECB) участка массива на месте
+     */
+    void encryptBlocks(int[] data, int off, int len);
+
+    /**
+     * Поблочное расшифрование (ECB) участка массива на месте
+     */
+    void decryptBlocks(int[] data, int off, int len);
+}
@@ -0,0 +1,367 @@
+package com.cryptography.main.task4;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Генерация класса SPN1, специализированного под один ключ и число раундов.
+ * <p>
+ * Байткод собирается вручную и загружается через {@link MethodHandles.Lookup#defineHiddenClass}.
+ * В сгенерированном классе раунды полностью развёрнуты, раундовые ключи записаны константами,
+ * а замена с перестановкой — это обращения к таблицам {@link SPN1TableCipher}. JIT компилирует
+ * такой код в линейное ядро без циклов по раундам и без обращений к массиву ключей.
+ * <p>
+ * Скрытые классы создаются без опции STRONG, поэтому выгружаются вместе с последним экземпляром.
+ * Кэш хранит не более {@link #CACHE_SIZE} ядер и вытесняет давно не использованные.
+ * <p>
+ * Ядра используются в ECB {@link SPN1} (а значит, и в {@link SPN1FileCipher}) для участков
+ * от {@link SPN1#KERNEL_THRESHOLD} до {@link SPN1#BITSLICE_THRESHOLD} блоков без Vector API.
+ */
+public final class SPN1KernelCompiler {
+
+    /** Максимальное число ядер в кэше */
+    public static final int CACHE_SIZE = 64;
+
+    private static final String CLASS_NAME = "com/cryptography/main/task4/SPN1KernelImpl";
+    private static final String TABLES_OWNER = "com/cryptography/main/task4/SPN1TableCipher";
+    private static final String KERNEL_INTERFACE = "com/cryptography/main/task4/SPN1Kernel";
+
+    // Кэш по (32-битный ключ, число раундов) в порядке доступа
+    private static final Map<Long, SPN1Kernel> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SPN1Kernel> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private SPN1KernelCompiler() {}
+
+    /**
+     * Ядро для ключа и числа раундов (из кэша или вновь сгенерированное)
+     * @param key ключ шифрования (используются младшие 32 бита)
+     * @param rounds количество раундов (1..4)
+     * @throws IllegalArgumentException если число раундов вне диапазона
+     */
+    public static SPN1Kernel kernel(long key, int rounds) {
+        SPN1TableCipher cipher = new SPN1TableCipher(key, rounds);
+        Long cacheKey = ((key & 0xFFFFFFFFL) << 3) | rounds;
+        synchronized (CACHE) {
+            SPN1Kernel cached = CACHE.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        SPN1Kernel kernel = compile(cipher);
+        synchronized (CACHE) {
+            SPN1Kernel cached = CACHE.putIfAbsent(cacheKey, kernel);
+            return cached != null ? cached : kernel;
+        }
+    }
+
+    /**
+     * Очистка кэша: сгенерированные классы становятся доступны для выгрузки
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    public static int cacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    private static SPN1Kernel compile(SPN1TableCipher cipher) {
+        byte[] bytes = classBytes(cipher);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (SPN1Kernel) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не удалось создать специализированный класс SPN1", e);
+        }
+    }
+
+    /**
+     * Класс-файл: конструктор, encrypt, decrypt и циклы encryptBlocks/decryptBlocks
+     */
+    static byte[] classBytes(SPN1TableCipher cipher) {
+        ClassWriter cw = new ClassWriter();
+        int rounds = cipher.rounds();
+        byte[] init = cw.constructor();
+        byte[] encrypt = cw.network(steps("SP", "S", rounds), cipher.encryptionKeys());
+        byte[] decrypt = cw.network(steps("APIS", "IS", rounds), cipher.decryptionKeys());
+        byte[] encryptBlocks = cw.blocksLoop("encrypt");
+        byte[] decryptBlocks = cw.blocksLoop("decrypt");
+
+        int thisClass = cw.classRef(CLASS_NAME);
+        int superClass = cw.classRef("java/lang/Object");
+        int iface = cw.classRef(KERNEL_INTERFACE);
+        int[] names = {
+            cw.utf8("<init>"), cw.utf8("encrypt"), cw.utf8("decrypt"),
+            cw.utf8("encryptBlocks"), cw.utf8("decryptBlocks")
+        };
+        int[] descriptors = {
+            cw.utf8("()V"), cw.utf8("(I)I"), cw.utf8("(I)I"), cw.utf8("([III)V"), cw.utf8("([III)V")
+        };
+        byte[][] codes = {init, encrypt, decrypt, encryptBlocks, decryptBlocks};
+
+        Bytes out = new Bytes();
+        out.u4(0xCAFEBABE);
+        out.u2(0);
+        out.u2(61); // Java 17
+        out.u2(cw.count);
+        out.writeBytes(cw.pool.toByteArray());
+        out.u2(0x0031); // public final super
+        out.u2(thisClass);
+        out.u2(superClass);
+        out.u2(1);
+        out.u2(iface);
+        out.u2(0); // поля
+        out.u2(codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            out.u2(0x0001); // public
+            out.u2(names[i]);
+            out.u2(descriptors[i]);
+            out.u2(1);
+            out.writeBytes(codes[i]);
+        }
+        out.u2(0); // атрибуты класса
+        return out.toByteArray();
+    }
+
+    private static String[] steps(String round, String last, int rounds) {
+        String[] t = new String[rounds];
+        for (int i = 0; i < rounds; i++) {
+            t[i] = i < rounds - 1 ? round : last;
+        }
+        return t;
+    }
+
+    /**
+     * Буфер с записью чисел в порядке big-endian, как требует формат class-файла
+     */
+    private static final class Bytes extends ByteArrayOutputStream {
+        void u1(int v) {
+            write(v);
+        }
+
+        void u2(int v) {
+            write(v >>> 8);
+            write(v);
+        }
+
+        void u4(int v) {
+            u2(v >>> 16);
+            u2(v);
+        }
+    }
+
+    /**
+     * Пул констант и атрибуты Code для сгенерированных методов
+     */
+    private static final class ClassWriter {
+
+        // Коды операций JVM
+        private static final int ALOAD_0 = 0x2a, ALOAD_1 = 0x2b;
+        private static final int ILOAD = 0x15, ILOAD_1 = 0x1b, ILOAD_2 = 0x1c, ILOAD_3 = 0x1d;
+        private static final int ISTORE = 0x36, ISTORE_1 = 0x3c;
+        private static final int IALOAD = 0x2e, IASTORE = 0x4f;
+        private static final int BIPUSH = 0x10, LDC_W = 0x13;
+        private static final int IADD = 0x60, IUSHR = 0x7c, IAND = 0x7e, IOR = 0x80, IXOR = 0x82;
+        private static final int IINC = 0x84, IF_ICMPGE = 0xa2, GOTO = 0xa7;
+        private static final int IRETURN = 0xac, RETURN = 0xb1;
+        private static final int GETSTATIC = 0xb2, INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7;
+
+        final Bytes pool = new Bytes();
+        int count = 1;
+        private final Map<String, Integer> entries = new HashMap<>();
+
+        private int entry(String key, Bytes body) {
+            Integer index = entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            pool.writeBytes(body.toByteArray());
+            entries.put(key, count);
+            return count++;
+        }
+
+        int utf8(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            Bytes body = new Bytes();
+            body.u1(1);
+            body.u2(b.length);
+            body.writeBytes(b);
+            return entry("U" + s, body);
+        }
+
+        int integer(int v) {
+            Bytes body = new Bytes();
+            body.u1(3);
+            body.u4(v);
+            return entry("I" + v, body);
+        }
+
+        int classRef(String name) {
+            int n = utf8(name);
+            Bytes body = new Bytes();
+            body.u1(7);
+            body.u2(n);
+            return entry("C" + name, body);
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int n = utf8(name);
+            int d = utf8(descriptor);
+            Bytes body = new Bytes();
+            body.u1(12);
+            body.u2(n);
+            body.u2(d);
+            return entry("N" + name + ":" + descriptor, body);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            int c = classRef(owner);
+            int nt = nameAndType(name, descriptor);
+            Bytes body = new Bytes();
+            body.u1(tag);
+            body.u2(c);
+            body.u2(nt);
+            return entry(tag + owner + "." + name + ":" + descriptor, body);
+        }
+
+        /**
+         * Атрибут Code без таблицы исключений; stackMap — готовый атрибут StackMapTable или null
+         */
+        private byte[] code(int maxStack, int maxLocals, Bytes code, byte[] stackMap) {
+            int nameIndex = utf8("Code");
+            byte[] body = code.toByteArray();
+            Bytes attr = new Bytes();
+            attr.u2(nameIndex);
+            attr.u4(12 + body.length + (stackMap != null ? stackMap.length : 0));
+            attr.u2(maxStack);
+            attr.u2(maxLocals);
+            attr.u4(body.length);
+            attr.writeBytes(body);
+            attr.u2(0);
+            if (stackMap != null) {
+                attr.u2(1);
+                attr.writeBytes(stackMap);
+            } else {
+                attr.u2(0);
+            }
+            return attr.toByteArray();
+        }
+
+        byte[] constructor() {
+            Bytes c = new Bytes();
+            c.u1(ALOAD_0);
+            c.u1(INVOKESPECIAL);
+            c.u2(memberRef(10, "java/lang/Object", "<init>", "()V"));
+            c.u1(RETURN);
+            return code(1, 1, c, null);
+        }
+
+        /**
+         * int f(int x): для каждого шага x = T(x ^ k) как XOR четырёх обращений к таблице, в конце x ^ k_n
+         */
+        byte[] network(String[] tables, int[] keys) {
+            Bytes c = new Bytes();
+            for (int s = 0; s < tables.length; s++) {
+                int table = memberRef(9, TABLES_OWNER, tables[s], "[I");
+                c.u1(ILOAD_1);
+                c.u1(LDC_W);
+                c.u2(integer(keys[s]));
+                c.u1(IXOR);
+                c.u1(ISTORE_1);
+                for (int p = 0; p < 4; p++) {
+                    c.u1(GETSTATIC);
+                    c.u2(table);
+                    c.u1(ILOAD_1);
+                    if (p > 0) {
+                        c.u1(BIPUSH);
+                        c.u1(4 * p);
+                        c.u1(IUSHR);
+                    }
+                    c.u1(BIPUSH);
+                    c.u1(0xF);
+                    c.u1(IAND);
+                    if (p > 0) {
+                        c.u1(BIPUSH);
+                        c.u1(p << 4);
+                        c.u1(IOR);
+                        c.u1(IALOAD);
+                        c.u1(IXOR);
+                    } else {
+                        c.u1(IALOAD);
+                    }
+                }
+                c.u1(ISTORE_1);
+            }
+            c.u1(ILOAD_1);
+            c.u1(LDC_W);
+            c.u2(integer(keys[tables.length]));
+            c.u1(IXOR);
+            c.u1(IRETURN);
+            return code(4, 2, c, null);
+        }
+
+        /**
+         * void fBlocks(int[] data, int off, int len): for (i = off; i < off + len; i++) data[i] = f(data[i])
+         */
+        byte[] blocksLoop(String method) {
+            int target = memberRef(10, CLASS_NAME, method, "(I)I");
+            Bytes c = new Bytes();
+            c.u1(ILOAD_2);          // 0
+            c.u1(ILOAD_3);          // 1
+            c.u1(IADD);             // 2
+            c.u1(ISTORE);           // 3: end = off + len
+            c.u1(5);
+            c.u1(ILOAD_2);          // 5
+            c.u1(ISTORE);           // 6: i = off
+            c.u1(4);
+            c.u1(ILOAD);            // 8: начало цикла
+            c.u1(4);
+            c.u1(ILOAD);            // 10
+            c.u1(5);
+            c.u1(IF_ICMPGE);        // 12 -> 33
+            c.u2(21);
+            c.u1(ALOAD_1);          // 15
+            c.u1(ILOAD);            // 16
+            c.u1(4);
+            c.u1(ALOAD_0);          // 18
+            c.u1(ALOAD_1);          // 19
+            c.u1(ILOAD);            // 20
+            c.u1(4);
+            c.u1(IALOAD);           // 22
+            c.u1(INVOKEVIRTUAL);    // 23
+            c.u2(target);
+            c.u1(IASTORE);          // 26
+            c.u1(IINC);             // 27
+            c.u1(4);
+            c.u1(1);
+            c.u1(GOTO);             // 30 -> 8
+            c.u2(-22);
+            c.u1(RETURN);           // 33
+
+            // Кадры: в начале цикла добавлены локальные i и end (int), после цикла — тот же кадр
+            Bytes map = new Bytes();
+            map.u2(utf8("StackMapTable"));
+            map.u4(8);
+            map.u2(2);
+            map.u1(253);            // append_frame, 2 локальные переменные
+            map.u2(8);
+            map.u1(1);              // Integer
+            map.u1(1);              // Integer
+            map.u1(24);             // same_frame, смещение 8 + 1 + 24 = 33
+            return code(5, 6, c, map.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+/**
+ * Параллельный перебор неизвестных старших битов 32-битного ключа SPN1 по известному открытому тексту.
+ * <p>
+ * Для любого режима известные блоки открытого текста (crib) и шифротекста сводятся к парам (x, y)
+ * с E_k(x) = y, не зависящим от ключа:
+ * <ul>
+ *   <li>ECB: (p_i, c_i)</li>
+ *   <li>CBC: (p_i XOR c_{i-1}, c_i)</li>
+ *   <li>CFB: (c_{i-1}, c_i XOR p_i)</li>
+ *   <li>OFB: (s_{i-1}, s_i), где s_i = c_i XOR p_i</li>
+ *   <li>CTR: (IV + i, c_i XOR p_i)</li>
+ * </ul>
+ * с c_{-1} = s_{-1} = IV. Кандидат отсеивается по первой паре без создания объектов,
+ * а совпавшие проверяются по всем остальным, поэтому ложные срабатывания не проходят.
+ * Пространство ключей делится на участки, которые обрабатываются на всех ядрах.
+ */
+public final class SPN1KeySearch {
+
+    /** Количество кандидатов в одном участке параллельного перебора */
+    private static final long CHUNK = 1L << 16;
+
+    private final int rounds;
+
+    /**
+     * @param rounds количество раундов (1..4)
+     */
+    public SPN1KeySearch(int rounds) {
+        if (rounds < 1 || rounds > SPN1TableCipher.MAX_ROUNDS) {
+            throw new IllegalArgumentException("Число раундов должно быть от 1 до " + SPN1TableCipher.MAX_ROUNDS + ": " + rounds);
+        }
+        this.rounds = rounds;
+    }
+
+    /**
+     * Известные блоки заголовка BMP-файла в представлении {@link SPN1#readData2Byte(String)}:
+     * сигнатура 'BM', размер файла (два слова) и два нулевых зарезервированных слова
+     * @param fileSize размер файла в байтах
+     */
+    public static int[] bmpCrib(long fileSize) {
+        return new int[]{0x4D42, (int) (fileSize & 0xFFFF), (int) ((fileSize >>> 16) & 0xFFFF), 0, 0};
+    }
+
+    /**
+     * Только сигнатура 'BM' — для BMP-файлов, у которых поле размера равно 0 или не совпадает с размером файла
+     */
+    public static int[] bmpSignatureCrib() {
+        return new int[]{0x4D42};
+    }
+
+    /**
+     * Сведение известного открытого текста к парам E_k(x) = y
+     * @param cipher блоки шифротекста
+     * @param crib известные блоки открытого текста с начала файла
+     * @param mode режим шифрования
+     * @param iv вектор инициализации (16-бит)
+     * @return массив {x, y} длины min(cipher.length, crib.length)
+     */
+    public static int[][] knownPairs(int[] cipher, int[] crib, BlockMode mode, int iv) {
+        int n = Math.min(cipher.length, crib.length);
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int prev = iv & 0xFFFF;
+        for (int i = 0; i < n; i++) {
+            int c = cipher[i] & 0xFFFF;
+            int p = crib[i] & 0xFFFF;
+            switch (mode) {
+                case ECB:
+                    xs[i] = p;
+                    ys[i] = c;
+                    break;
+                case CBC:
+                    xs[i] = p ^ prev;
+                    ys[i] = c;
+                    prev = c;
+                    break;
+                case CFB:
+                    xs[i] = prev;
+                    ys[i] = c ^ p;
+                    prev = c;
+                    break;
+                case OFB:
+                    xs[i] = prev;
+                    ys[i] = c ^ p;
+                    prev = c ^ p;
+                    break;
+                case CTR:
+                    xs[i] = (iv + i) & 0xFFFF;
+                    ys[i] = c ^ p;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный режим: " + mode);
+            }
+        }
+        return new int[][]{xs, ys};
+    }
+
+    /**
+     * Поиск ключа по шифротексту и известному началу открытого текста
+     * @param knownLow известные младшие биты ключа
+     * @param knownBits количество известных младших битов (0..32)
+     */
+    public Result search(int[] cipher, int[] crib, BlockMode mode, int iv, long knownLow, int knownBits) {
+        int[][] pairs = knownPairs(cipher, crib, mode, iv);
+        return search(pairs[0], pairs[1], knownLow, knownBits, false);
+    }
+
+    /**
+     * Поиск ключа BMP-файла: сначала по заголовку {@link #bmpCrib(long)}, а если ни один ключ не подошёл,
+     * то по одной сигнатуре {@link #bmpSignatureCrib()}; в результат входят оба перебора
+     * @param fileSize размер файла в байтах
+     */
+    public Result searchBmp(int[] cipher, long fileSize, BlockMode mode, int iv, long knownLow, int knownBits) {
+        Result strict = search(cipher, bmpCrib(fileSize), mode, iv, knownLow, knownBits);
+        if (!strict.keys.isEmpty()) {
+            return strict;
+        }
+        Result loose = search(cipher, bmpSignatureCrib(), mode, iv, knownLow, knownBits);
+        return new Result(loose.keys, strict.tested + loose.tested, strict.nanos + loose.nanos);
+    }
+
+    /**
+     * Перебор 2^(32 - knownBits) кандидатов
+     * @param xs входы известных пар
+     * @param ys выходы известных пар: E_k(xs[i]) = ys[i]
+     * @param knownLow известные младшие биты ключа
+     * @param knownBits количество известных младших битов (0..32)
+     * @param stopAtFirst завершить перебор после первого подходящего ключа
+     * @throws IllegalArgumentException если пар нет или число битов вне диапазона
+     */
+    public Result search(int[] xs, int[] ys, long knownLow, int knownBits, boolean stopAtFirst) {
+        if (xs.length == 0 || xs.length != ys.length) {
+            throw new IllegalArgumentException("Нужна хотя бы одна известная пара открытый/шифрованный блок");
+        }
+        if (knownBits < 0 || knownBits > 32) {
+            throw new IllegalArgumentException("Количество известных битов должно быть от 0 до 32: " + knownBits);
+        }
+        int low = (int) (knownLow & ((1L << knownBits) - 1));
+        long total = 1L << (32 - knownBits);
+        long chunks = (total + CHUNK - 1) / CHUNK;
+        ConcurrentLinkedQueue<Long> found = new ConcurrentLinkedQueue<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder tested = new LongAdder();
+
+        long start = System.nanoTime();
+        LongStream.range(0, chunks).parallel().forEach(chunk -> {
+            if (stop.get()) {
+                return;
+            }
+            long from = chunk * CHUNK;
+            long to = Math.min(total, from + CHUNK);
+            scan(xs, ys, from, to, knownBits, low, found);
+            tested.add(to - from);
+            if (stopAtFirst && !found.isEmpty()) {
+                stop.set(true);
+            }
+        });
+        long nanos = System.nanoTime() - start;
+
+        List<Long> keys = new ArrayList<>(found);
+        Collections.sort(keys);
+        return new Result(keys, tested.sum(), nanos);
+    }
+
+    private void scan(int[] xs, int[] ys, long from, long to, int knownBits, int low, ConcurrentLinkedQueue<Long> found) {
+        int x0 = xs[0];
+        int y0 = ys[0];
+        for (long hi = from; hi < to; hi++) {
+            int key32 = (int) (hi << knownBits) | low;
+            if (SPN1TableCipher.encrypt(x0, key32, rounds) != y0) {
+                continue;
+            }
+            boolean match = true;
+            for (int i = 1; i < xs.length && match; i++) {
+                match = SPN1TableCipher.encrypt(xs[i], key32, rounds) == ys[i];
+            }
+            if (match) {
+                found.add(key32 & 0xFFFFFFFFL);
+            }
+        }
+    }
+
+    /**
+     * Результат перебора
+     */
+    public static final class Result {
+        private final List<Long> keys;
+        private final long tested;
+        private final long nanos;
+
+        Result(List<Long> keys, long tested, long nanos) {
+            this.keys = Collections.unmodifiableList(keys);
+            this.tested = tested;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Ключи (32 бита), согласованные со всеми известными парами
+         */
+        public List<Long> keys() {
+            return keys;
+        }
+
+        /**
+         * Количество проверенных кандидатов
+         */
+        public long tested() {
+            return tested;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Скорость перебора, ключей в секунду
+         */
+        public double keysPerSecond() {
+            return nanos == 0 ? 0 : tested * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("найдено ключей: %d, проверено: %d, %.1f мс, %.2f млн ключей/с",
+                    keys.size(), tested, nanos / 1e6, keysPerSecond() / 1e6);
+        }
+    }
+}
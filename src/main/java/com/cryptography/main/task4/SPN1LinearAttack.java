@@ -0,0 +1,295 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.main.task4.SPN1TrailSearch.Kind;
+import com.cryptography.main.task4.SPN1TrailSearch.Trail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Линейный криптоанализ SPN1 по схеме Хейса (Heys, «A Tutorial on Linear and Differential Cryptanalysis»).
+ * <p>
+ * Используются линейные пути rounds - 1 раундов ({@link SPN1TrailSearch}) — аппроксимации вида
+ * α·P XOR β·U = 0, где U — вход последнего слоя замены. Для каждой аппроксимации подбираются нибблы
+ * последнего раундового ключа K_r, на которых β активна: шифротекст частично расшифровывается через
+ * обратный S-box, и выбирается догадка с наибольшим смещением. Подсчёт выполняется в два этапа:
+ * параллельная гистограмма пар по (α·P, активные нибблы шифротекста) в примитивных массивах и
+ * параллельная оценка всех догадок по гистограмме — время второго этапа не зависит от числа пар.
+ * <p>
+ * K_r — это 16 бит ключа, начиная с бита 16 - 4r ({@link SPN1#roundKeysArray(long)}), поэтому
+ * остальные 16 бит находятся перебором 2^16 вариантов с проверкой по известным парам.
+ */
+public final class SPN1LinearAttack {
+
+    /** Сколько лучших догадок сохраняется в рейтинге для каждой аппроксимации */
+    public static final int RANKING_SIZE = 8;
+
+    // Догадки со смещением не меньше TIE от лучшего проверяются как альтернативы (не более MAX_BRANCH)
+    private static final double TIE = 0.8;
+    private static final int MAX_BRANCH = 4;
+
+    private final int rounds;
+    private final List<Trail> approximations;
+
+    /**
+     * Аппроксимации выбираются {@link SPN1TrailSearch#coveringTrails(SPN1TrailSearch.Kind, int, int)}
+     * с активностью β не более чем на двух нибблах (догадка не длиннее 8 бит)
+     * @param rounds количество раундов (2..4)
+     */
+    public SPN1LinearAttack(int rounds) {
+        this(rounds, SPN1TrailSearch.coveringTrails(Kind.LINEAR, rounds - 1, 2));
+    }
+
+    /**
+     * @param rounds количество раундов (2..4)
+     * @param approximations линейные пути из rounds - 1 слоёв, вместе покрывающие все нибблы K_r
+     */
+    public SPN1LinearAttack(int rounds, List<Trail> approximations) {
+        SPN1Attacks.checkTrails(rounds, approximations, Kind.LINEAR);
+        this.rounds = rounds;
+        this.approximations = Collections.unmodifiableList(new ArrayList<>(approximations));
+    }
+
+    /**
+     * Таблица линейных аппроксимаций S_BOX: элемент [a][b] = #{x : a·x = b·S(x)} - 8
+     */
+    public static int[][] linearApproximationTable() {
+        return SPN1TrailSearch.linearApproximationTable();
+    }
+
+    /**
+     * Аппроксимации, покрывающие все четыре ниббла K_r, в порядке применения
+     */
+    public List<Trail> approximations() {
+        return approximations;
+    }
+
+    /**
+     * Рекомендуемое число известных пар: 16 / ε² для самой слабой аппроксимации
+     */
+    public int recommendedPairs() {
+        double min = 1;
+        for (Trail a : approximations) {
+            min = Math.min(min, Math.abs(a.bias()));
+        }
+        return (int) Math.min(1 << 24, Math.ceil(16 / (min * min)));
+    }
+
+    /**
+     * Известные пары открытый/шифрованный текст для случайных блоков (шифрование через {@link SPN1#encryptData(int[], long, int)})
+     * @return массив {plain, cipher}
+     */
+    public static int[][] knownPlaintext(long key, int rounds, int count, Random random) {
+        int[] plain = new int[count];
+        for (int i = 0; i < count; i++) {
+            plain[i] = random.nextInt(1 << 16);
+        }
+        return new int[][]{plain, new SPN1().encryptData(plain, key, rounds)};
+    }
+
+    /**
+     * Восстановление ключа по известным парам
+     * @param plain открытые блоки
+     * @param cipher соответствующие шифроблоки
+     */
+    public Result attack(int[] plain, int[] cipher) {
+        if (plain.length == 0 || plain.length != cipher.length) {
+            throw new IllegalArgumentException("Нужны пары открытый/шифрованный блок одинаковой длины");
+        }
+        Recovery recovery = new Recovery(plain, cipher);
+        long key = recover(recovery, 0, 0, 0);
+        List<SubkeyRanking> rankings = key >= 0 ? recovery.path : recovery.firstPath;
+        return new Result(key >= 0 ? recovery.lastRoundKey : recovery.firstLastRoundKey, key, rankings);
+    }
+
+    /**
+     * Подбор нибблов K_r по аппроксимациям начиная с index. Догадки, почти равные лучшей
+     * (бывают точные совпадения смещений с противоположным знаком), проверяются по очереди.
+     * @return 32-битный ключ или -1
+     */
+    private long recover(Recovery recovery, int index, int known, int knownMask) {
+        if (index == approximations.size()) {
+            if (recovery.firstPath == null) {
+                recovery.firstPath = new ArrayList<>(recovery.path);
+                recovery.firstLastRoundKey = known;
+            }
+            recovery.lastRoundKey = known;
+            return SPN1Attacks.extendKey(rounds, known, recovery.plain, recovery.cipher);
+        }
+        Trail approximation = approximations.get(index);
+        int target = approximation.activeMask() & ~knownMask;
+        if (target == 0) {
+            return recover(recovery, index + 1, known, knownMask);
+        }
+        SubkeyRanking ranking = rank(approximation, recovery.plain, recovery.cipher, known, knownMask, target);
+        int depth = recovery.path.size();
+        recovery.path.add(ranking);
+        double top = Math.abs(ranking.biases[0]);
+        for (int i = 0; i < Math.min(MAX_BRANCH, ranking.guesses.length) && Math.abs(ranking.biases[i]) >= TIE * top; i++) {
+            long key = recover(recovery, index + 1, known | ranking.guesses[i], knownMask | target);
+            if (key >= 0) {
+                return key;
+            }
+            recovery.path.subList(depth + 1, recovery.path.size()).clear();
+        }
+        recovery.path.remove(depth);
+        return -1;
+    }
+
+    /**
+     * Смещения всех догадок нибблов target при фиксированных уже найденных нибблах
+     */
+    private SubkeyRanking rank(Trail approximation, int[] plain, int[] cipher, int known, int knownMask, int target) {
+        int alpha = approximation.input();
+        int beta = approximation.output();
+        int active = approximation.activeMask();
+        int n = plain.length;
+
+        // Гистограмма: индекс (α·P << 16) | (C & active)
+        int parts = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 2, n / 4096));
+        int[] hist = IntStream.range(0, parts).parallel().mapToObj(part -> {
+            int[] h = new int[2 << 16];
+            int from = (int) ((long) n * part / parts);
+            int to = (int) ((long) n * (part + 1) / parts);
+            for (int i = from; i < to; i++) {
+                h[(parity(plain[i] & alpha) << 16) | (cipher[i] & active)]++;
+            }
+            return h;
+        }).reduce((x, y) -> {
+            for (int i = 0; i < x.length; i++) {
+                x[i] += y[i];
+            }
+            return x;
+        }).orElseThrow();
+
+        int guessBits = Integer.bitCount(target);
+        double[] bias = new double[1 << guessBits];
+        IntStream.range(0, bias.length).parallel().forEach(index -> {
+            int guess = (known & knownMask) | SPN1Attacks.deposit(index, target);
+            long zeros = 0;
+            int v = 0;
+            do {
+                int u = SPN1TableCipher.substitute(SPN1TableCipher.IS, v ^ guess);
+                zeros += parity(u & beta) == 0 ? hist[v] : hist[(1 << 16) | v];
+                v = (v - active) & active;
+            } while (v != 0);
+            bias[index] = (double) zeros / n - 0.5;
+        });
+
+        Integer[] order = new Integer[bias.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> -Math.abs(bias[i])));
+        int size = Math.min(RANKING_SIZE, order.length);
+        int[] guesses = new int[size];
+        double[] biases = new double[size];
+        for (int i = 0; i < size; i++) {
+            guesses[i] = SPN1Attacks.deposit(order[i], target);
+            biases[i] = bias[order[i]];
+        }
+        return new SubkeyRanking(approximation, target, guesses, biases);
+    }
+
+    /**
+     * Состояние подбора: известные пары и текущий путь по рейтингам
+     */
+    private static final class Recovery {
+        final int[] plain;
+        final int[] cipher;
+        final List<SubkeyRanking> path = new ArrayList<>();
+        List<SubkeyRanking> firstPath;
+        int firstLastRoundKey;
+        int lastRoundKey;
+
+        Recovery(int[] plain, int[] cipher) {
+            this.plain = plain;
+            this.cipher = cipher;
+        }
+    }
+
+    private static int parity(int x) {
+        return Integer.bitCount(x) & 1;
+    }
+
+    /**
+     * Рейтинг догадок нибблов K_r для одной аппроксимации
+     */
+    public static final class SubkeyRanking {
+        private final Trail approximation;
+        private final int targetMask;
+        private final int[] guesses;
+        private final double[] biases;
+
+        SubkeyRanking(Trail approximation, int targetMask, int[] guesses, double[] biases) {
+            this.approximation = approximation;
+            this.targetMask = targetMask;
+            this.guesses = guesses;
+            this.biases = biases;
+        }
+
+        public Trail approximation() {
+            return approximation;
+        }
+
+        /** Нибблы, которые подбирались по этой аппроксимации */
+        public int targetMask() {
+            return targetMask;
+        }
+
+        /** Догадки по убыванию |смещения| (значения на позициях targetMask) */
+        public int[] guesses() {
+            return guesses.clone();
+        }
+
+        public double[] biases() {
+            return biases.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(approximation + ", нибблы " + String.format("%04X", targetMask) + ":");
+            for (int i = 0; i < guesses.length; i++) {
+                sb.append(String.format(" %04X(%+.4f)", guesses[i], biases[i]));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Результат атаки
+     */
+    public static final class Result {
+        private final int lastRoundKey;
+        private final long key;
+        private final List<SubkeyRanking> rankings;
+
+        Result(int lastRoundKey, long key, List<SubkeyRanking> rankings) {
+            this.lastRoundKey = lastRoundKey;
+            this.key = key;
+            this.rankings = Collections.unmodifiableList(rankings);
+        }
+
+        /** Последний раундовый ключ K_r по лучшим догадкам */
+        public int lastRoundKey() {
+            return lastRoundKey;
+        }
+
+        /**
+         * Восстановленный 32-битный ключ или -1, если проверка по парам не прошла.
+         * При rounds < 4 младшие 16 - 4r бит не участвуют в шифровании, и возвращается один из эквивалентных ключей.
+         */
+        public long key() {
+            return key;
+        }
+
+        public List<SubkeyRanking> rankings() {
+            return rankings;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Радужные таблицы (компромисс время/память Хеллмана–Эшлина) для ключа SPN1.
+ * <p>
+ * Атакуемая функция f(k) = E_k(x0) | E_k(x1) << 16 для двух фиксированных входов, например блоков
+ * заголовка BMP ('BM' и нулевого зарезервированного слова) в ECB или счётчиков IV и IV + 3 в CTR
+ * ({@link #bmpInputs(BlockMode, int)}). При rounds < 4 младшие 16 - 4r бит ключа не участвуют в
+ * шифровании, поэтому цепочки строятся над N = 2^(16 + 4r) классами эквивалентных ключей.
+ * <p>
+ * Цепочка: e_0 = начало, e_{i+1} = R_i(f(e_i)), где R_i(y) — старшие log2(N) бит
+ * (y XOR j * 0x9E3779B9) * 0x2C1B3C6D, j — сквозной номер столбца по всем таблицам (нечётное умножение
+ * переносит в старшие биты все 32 бита f). Цепочки считаются параллельно, от каждой сохраняется
+ * пара (конец, начало) как long, отсортированный по концу, без повторяющихся концов. Все таблицы
+ * хранятся в одном файле и при открытии отображаются в память.
+ * <p>
+ * Формат файла (long, little-endian): MAGIC, rounds, x0, x1, chains, length, tables, затем число
+ * записей каждой таблицы и сами записи таблиц подряд.
+ */
+public final class SPN1RainbowTable implements AutoCloseable {
+
+    private static final long MAGIC = 0x5350_4E31_5242_5731L; // "SPN1RBW1"
+    private static final int HEADER_LONGS = 7;
+    private static final int COLUMN_SALT = 0x9E3779B9;
+    private static final int MIX = 0x2C1B3C6D;
+
+    private final FileChannel channel;
+    private final LongBuffer[] tables;
+    private final int rounds;
+    private final int x0;
+    private final int x1;
+    private final int chains;
+    private final int length;
+    private final int shift;
+
+    private SPN1RainbowTable(FileChannel channel, LongBuffer[] tables, int rounds, int x0, int x1, int chains, int length) {
+        this.channel = channel;
+        this.tables = tables;
+        this.rounds = rounds;
+        this.x0 = x0;
+        this.x1 = x1;
+        this.chains = chains;
+        this.length = length;
+        this.shift = 16 - 4 * rounds;
+    }
+
+    /**
+     * Входы f для файла BMP, зашифрованного с фиксированным IV: блок 0 ('BM') и блок 3 (нулевое
+     * зарезервированное слово). Подходят режимы, в которых вход шифра не зависит от шифротекста.
+     * @return массив {x0, x1}
+     * @throws IllegalArgumentException для CBC, CFB и OFB
+     */
+    public static int[] bmpInputs(BlockMode mode, int iv) {
+        switch (mode) {
+            case ECB:
+                return new int[]{0x4D42, 0};
+            case CTR:
+                return new int[]{iv & 0xFFFF, (iv + 3) & 0xFFFF};
+            default:
+                throw new IllegalArgumentException("Радужная таблица поддерживает только ECB и CTR: " + mode);
+        }
+    }
+
+    /**
+     * Значение f для шифротекста BMP-файла (входы {@link #bmpInputs(BlockMode, int)})
+     * @param cipher блоки шифротекста (не меньше четырёх)
+     */
+    public static int bmpImage(int[] cipher, BlockMode mode) {
+        if (cipher.length < 4) {
+            throw new IllegalArgumentException("Нужны хотя бы четыре блока шифротекста");
+        }
+        switch (mode) {
+            case ECB:
+                return (cipher[0] & 0xFFFF) | (cipher[3] & 0xFFFF) << 16;
+            case CTR:
+                return ((cipher[0] ^ 0x4D42) & 0xFFFF) | (cipher[3] & 0xFFFF) << 16;
+            default:
+                throw new IllegalArgumentException("Радужная таблица поддерживает только ECB и CTR: " + mode);
+        }
+    }
+
+    /**
+     * f(k) = E_k(x0) | E_k(x1) << 16
+     */
+    public static int image(long key, int rounds, int x0, int x1) {
+        int key32 = (int) key;
+        return SPN1TableCipher.encrypt(x0 & 0xFFFF, key32, rounds)
+                | SPN1TableCipher.encrypt(x1 & 0xFFFF, key32, rounds) << 16;
+    }
+
+    /**
+     * Число классов эквивалентных ключей: 2^(16 + 4 * rounds)
+     */
+    public static long keySpace(int rounds) {
+        return 1L << (16 + 4 * rounds);
+    }
+
+    /**
+     * Вероятность найти ключ (по Эшлину): для одной таблицы 1 - Π(1 - m_i / N),
+     * m_1 = chains, m_{i+1} = N(1 - e^{-m_i / N}), для нескольких — 1 - (1 - p)^tables.
+     * Оценка выведена для случайной функции; при rounds < 4 образ f заметно меньше N, и цепочки
+     * сливаются чаще, поэтому фактическая вероятность ниже.
+     */
+    public static double successProbability(int rounds, int chains, int length, int tables) {
+        double n = keySpace(rounds);
+        double m = chains;
+        double miss = 1;
+        for (int i = 0; i < length; i++) {
+            miss *= 1 - m / n;
+            m = n * -Math.expm1(-m / n);
+        }
+        return 1 - Math.pow(miss, tables);
+    }
+
+    /**
+     * Предварительный расчёт таблиц и запись в файл
+     * @param file файл таблиц (перезаписывается)
+     * @param rounds количество раундов (1..4)
+     * @param x0 первый фиксированный вход
+     * @param x1 второй фиксированный вход
+     * @param chains число цепочек в таблице (до 2^28)
+     * @param length длина цепочки
+     * @param tables число таблиц
+     * @return открытые таблицы
+     * @throws IOException если произошла ошибка при записи файла
+     */
+    public static SPN1RainbowTable build(Path file, int rounds, int x0, int x1, int chains, int length, int tables)
+            throws IOException {
+        if (rounds < 1 || rounds > SPN1TableCipher.MAX_ROUNDS) {
+            throw new IllegalArgumentException("Число раундов должно быть от 1 до " + SPN1TableCipher.MAX_ROUNDS + ": " + rounds);
+        }
+        if (chains < 1 || chains > 1 << 28 || chains > keySpace(rounds) || length < 1 || tables < 1) {
+            throw new IllegalArgumentException("Недопустимые параметры таблицы: chains=" + chains
+                    + ", length=" + length + ", tables=" + tables);
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        int shift = 16 - 4 * rounds;
+        int mask = (int) (keySpace(rounds) - 1);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long[] counts = new long[tables];
+            long position = (HEADER_LONGS + tables) * 8L;
+            for (int t = 0; t < tables; t++) {
+                final int table = t;
+                long[] entries = new long[chains];
+                IntStream.range(0, chains).parallel().forEach(j -> {
+                    // Нечётный множитель даёт различные начала внутри таблицы
+                    int start = (j * 0x2545F491 + table * 0x6C8E9CF5) & mask;
+                    int end = walk(start, 0, length, table, length, rounds, x0, x1, shift);
+                    entries[j] = (long) end << 32 | (start & 0xFFFFFFFFL);
+                });
+                Arrays.parallelSort(entries);
+                int count = 0;
+                for (int j = 0; j < chains; j++) {
+                    if (count == 0 || (int) (entries[j] >> 32) != (int) (entries[count - 1] >> 32)) {
+                        entries[count++] = entries[j];
+                    }
+                }
+                counts[t] = count;
+                MappedByteBuffer region = out.map(FileChannel.MapMode.READ_WRITE, position, count * 8L);
+                region.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(entries, 0, count);
+                region.force();
+                position += count * 8L;
+            }
+            ByteBuffer header = ByteBuffer.allocate((HEADER_LONGS + tables) * 8).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putLong(rounds).putLong(x0 & 0xFFFF).putLong(x1 & 0xFFFF)
+                    .putLong(chains).putLong(length).putLong(tables);
+            for (long count : counts) {
+                header.putLong(count);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header, header.position());
+            }
+        }
+        return open(file);
+    }
+
+    /**
+     * Открытие ранее построенных таблиц с отображением в память
+     * @throws IOException если файл не читается или имеет неверный формат
+     */
+    public static SPN1RainbowTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer fixed = ByteBuffer.allocate(HEADER_LONGS * 8).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, fixed, 0);
+            if (fixed.getLong() != MAGIC) {
+                throw new IOException("Файл не является радужной таблицей SPN1: " + file);
+            }
+            int rounds = (int) fixed.getLong();
+            int x0 = (int) fixed.getLong();
+            int x1 = (int) fixed.getLong();
+            int chains = (int) fixed.getLong();
+            int length = (int) fixed.getLong();
+            int count = (int) fixed.getLong();
+            ByteBuffer sizes = ByteBuffer.allocate(count * 8).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, sizes, HEADER_LONGS * 8L);
+            LongBuffer[] tables = new LongBuffer[count];
+            long position = (HEADER_LONGS + count) * 8L;
+            for (int t = 0; t < count; t++) {
+                long size = sizes.getLong() * 8L;
+                tables[t] = channel.map(FileChannel.MapMode.READ_ONLY, position, size)
+                        .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                position += size;
+            }
+            return new SPN1RainbowTable(channel, tables, rounds, x0, x1, chains, length);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    public int chains() {
+        return chains;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int tables() {
+        return tables.length;
+    }
+
+    /**
+     * Число сохранённых цепочек (после удаления совпавших концов)
+     */
+    public long storedChains() {
+        long total = 0;
+        for (LongBuffer table : tables) {
+            total += table.limit();
+        }
+        return total;
+    }
+
+    /**
+     * Оценка вероятности успеха для параметров этих таблиц
+     */
+    public double successProbability() {
+        return successProbability(rounds, chains, length, tables.length);
+    }
+
+    /**
+     * Поиск ключа по значению f
+     * @return 32-битный ключ (младшие 16 - 4r бит равны нулю) или -1
+     */
+    public long lookup(int image) {
+        return lookup(image, key -> true);
+    }
+
+    /**
+     * Поиск ключа по значению f с дополнительной проверкой кандидатов (например, по другим блокам файла)
+     * @param accept проверка 32-битного ключа; отвергнутые кандидаты пропускаются
+     * @return 32-битный ключ или -1
+     */
+    public long lookup(int image, LongPredicate accept) {
+        for (int column = length - 1; column >= 0; column--) {
+            for (int t = 0; t < tables.length; t++) {
+                int end = walk(reduce(image, t * length + column, shift), column + 1, length, t, length, rounds, x0, x1, shift);
+                LongBuffer table = tables[t];
+                for (int i = find(table, end); i >= 0 && i < table.limit() && (int) (table.get(i) >> 32) == end; i++) {
+                    int start = (int) table.get(i);
+                    int e = walk(start, 0, column, t, length, rounds, x0, x1, shift);
+                    long key = (e & 0xFFFFFFFFL) << shift;
+                    if (image(key, rounds, x0, x1) == image && accept.test(key)) {
+                        return key;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Проход цепочки по столбцам [from, to)
+     */
+    private static int walk(int e, int from, int to, int table, int length, int rounds, int x0, int x1, int shift) {
+        for (int i = from; i < to; i++) {
+            int key32 = e << shift;
+            int y = SPN1TableCipher.encrypt(x0, key32, rounds) | SPN1TableCipher.encrypt(x1, key32, rounds) << 16;
+            e = reduce(y, table * length + i, shift);
+        }
+        return e;
+    }
+
+    private static int reduce(int y, int column, int shift) {
+        return ((y ^ column * COLUMN_SALT) * MIX) >>> shift;
+    }
+
+    /**
+     * Индекс первой записи с концом end или -1
+     */
+    private static int find(LongBuffer table, int end) {
+        int lo = 0;
+        int hi = table.limit();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if ((int) (table.get(mid) >> 32) < end) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < table.limit() && (int) (table.get(lo) >> 32) == end ? lo : -1;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неожиданный конец файла радужной таблицы");
+            }
+        }
+        buffer.flip();
+    }
+}
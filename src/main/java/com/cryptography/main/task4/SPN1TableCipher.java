@@ -0,0 +1,204 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.cipher.modes.BlockCipher16;
+import com.cryptography.utils.NibbleNetwork;
+
+import java.util.Arrays;
+
+/**
+ * Табличная реализация SPN1 для фиксированного ключа и числа раундов.
+ * <p>
+ * Замена и перестановка объединены в таблицы по позиции ниббла: поскольку P-box линейна,
+ * pbox(S(u)) = XOR по n из pbox(S(u_n) << 4n). Поэтому обычный раунд — это четыре обращения
+ * к таблице и XOR, без промежуточных массивов demux/mux и побитового цикла pbox.
+ * Для расшифрования используется тот же приём: состояние хранится «после apbox»,
+ * раундовые ключи заранее пропущены через apbox, а обратная замена объединена с apbox.
+ * <p>
+ * Результат совпадает с {@link SPN1#encrypt(int, int[], int)} и {@link SPN1#decrypt(int, int[], int)}
+ * для любого ключа и числа раундов 1..4. Экземпляр неизменяем и может использоваться из нескольких потоков.
+ */
+public final class SPN1TableCipher implements BlockCipher16 {
+
+    /** Максимальное число раундов: ключевое расписание SPN1 даёт 5 раундовых ключей */
+    public static final int MAX_ROUNDS = 4;
+
+    // Индекс таблицы: (позиция ниббла << 4) | значение ниббла
+    // pbox(sbox(v) << 4n) — обычный раунд шифрования
+    static final int[] SP = new int[64];
+    // sbox(v) << 4n — последний раунд шифрования
+    static final int[] S = new int[64];
+    // apbox(asbox(v) << 4n) — обычный раунд расшифрования в представлении «после apbox»
+    static final int[] APIS = new int[64];
+    // asbox(v) << 4n — последний раунд расшифрования
+    static final int[] IS = new int[64];
+
+    static {
+        SPN1 spn = new SPN1();
+        for (int n = 0; n < 4; n++) {
+            for (int v = 0; v < 16; v++) {
+                int idx = (n << 4) | v;
+                S[idx] = spn.sbox(v) << (4 * n);
+                SP[idx] = spn.pbox(S[idx]);
+                IS[idx] = spn.asbox(v) << (4 * n);
+                APIS[idx] = spn.apbox(IS[idx]);
+            }
+        }
+    }
+
+    private final int rounds;
+    private final int[] rk;    // ключи шифрования K0..K4
+    private final int[] lk;    // ключи расшифрования L0..L4 (обратный порядок)
+    private final int[] apLk;  // apbox(L_i)
+
+    /**
+     * @param key ключ шифрования (используются младшие 32 бита, как в {@link SPN1#roundKeysArray(long)})
+     * @param rounds количество раундов (1..4)
+     * @throws IllegalArgumentException если число раундов вне диапазона
+     */
+    public SPN1TableCipher(long key, int rounds) {
+        if (rounds < 1 || rounds > MAX_ROUNDS) {
+            throw new IllegalArgumentException("Число раундов должно быть от 1 до " + MAX_ROUNDS + ": " + rounds);
+        }
+        SPN1 spn = new SPN1();
+        this.rounds = rounds;
+        this.rk = spn.roundKeysArray(key);
+        this.lk = spn.roundKeysToDecryptArray(key);
+        this.apLk = new int[lk.length];
+        for (int i = 0; i < lk.length; i++) {
+            apLk[i] = spn.apbox(lk[i]);
+        }
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    /**
+     * Шифрование одного 16-битного блока
+     */
+    @Override
+    public int encrypt(int p) {
+        return encrypt(p, rk, rounds);
+    }
+
+    /**
+     * Расшифрование одного 16-битного блока
+     */
+    @Override
+    public int decrypt(int c) {
+        int r = rounds;
+        if (r == 1) {
+            return substitute(IS, c ^ lk[0]) ^ lk[1];
+        }
+        int y = substitute(APIS, c ^ lk[0]) ^ apLk[1];
+        for (int i = 2; i < r; i++) {
+            y = substitute(APIS, y) ^ apLk[i];
+        }
+        return substitute(IS, y) ^ lk[r];
+    }
+
+    /**
+     * Экземпляры равны, если совпадают число раундов и раундовые ключи
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SPN1TableCipher)) {
+            return false;
+        }
+        SPN1TableCipher other = (SPN1TableCipher) o;
+        return rounds == other.rounds && Arrays.equals(rk, other.rk);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * rounds + Arrays.hashCode(rk);
+    }
+
+    /**
+     * Шифрование в виде сети табличных шагов (для векторных реализаций режимов)
+     */
+    NibbleNetwork encryptionNetwork() {
+        return new NibbleNetwork(steps(SP, S), encryptionKeys());
+    }
+
+    /**
+     * Расшифрование в виде сети табличных шагов: тот же порядок, что и в {@link #decrypt(int)}
+     */
+    NibbleNetwork decryptionNetwork() {
+        return new NibbleNetwork(steps(APIS, IS), decryptionKeys());
+    }
+
+    /**
+     * Ключи, добавляемые перед каждым шагом шифрования и после последнего: K0..K_r
+     */
+    int[] encryptionKeys() {
+        int[] k = new int[rounds + 1];
+        System.arraycopy(rk, 0, k, 0, rounds + 1);
+        return k;
+    }
+
+    /**
+     * Ключи шагов расшифрования: L0, apbox(L1)..apbox(L_{r-1}), L_r
+     */
+    int[] decryptionKeys() {
+        int[] k = new int[rounds + 1];
+        k[0] = lk[0];
+        for (int i = 1; i < rounds; i++) {
+            k[i] = apLk[i];
+        }
+        k[rounds] = lk[rounds];
+        return k;
+    }
+
+    /**
+     * Последовательность таблиц: rounds - 1 обычных раундов и последний
+     */
+    private int[][] steps(int[] round, int[] last) {
+        int[][] t = new int[rounds][];
+        for (int i = 0; i < rounds; i++) {
+            t[i] = i < rounds - 1 ? round : last;
+        }
+        return t;
+    }
+
+    /**
+     * Шифрование блока по заданным раундовым ключам без создания объекта шифра.
+     * Удобно при переборе ключей: вызывающий переиспользует собственный массив rk.
+     * @param p 16-битный блок
+     * @param rk раундовые ключи (как {@link SPN1#roundKeysArray(long)})
+     * @param rounds количество раундов
+     */
+    public static int encrypt(int p, int[] rk, int rounds) {
+        int x = p;
+        for (int i = 0; i < rounds - 1; i++) {
+            x = substitute(SP, x ^ rk[i]);
+        }
+        return substitute(S, x ^ rk[rounds - 1]) ^ rk[rounds];
+    }
+
+    /**
+     * Шифрование блока для 32-битного ключа без промежуточного массива раундовых ключей
+     */
+    public static int encrypt(int p, int key32, int rounds) {
+        int x = p;
+        for (int i = 0; i < rounds - 1; i++) {
+            x = substitute(SP, x ^ ((key32 >>> (16 - 4 * i)) & 0xFFFF));
+        }
+        int k1 = (key32 >>> (16 - 4 * (rounds - 1))) & 0xFFFF;
+        int k2 = (key32 >>> (16 - 4 * rounds)) & 0xFFFF;
+        return substitute(S, x ^ k1) ^ k2;
+    }
+
+    /**
+     * Четыре обращения к таблице по нибблам 16-битного значения
+     */
+    static int substitute(int[] t, int u) {
+        return t[u & 0xF]
+             ^ t[16 | ((u >>> 4) & 0xF)]
+             ^ t[32 | ((u >>> 8) & 0xF)]
+             ^ t[48 | ((u >>> 12) & 0xF)];
+    }
+}
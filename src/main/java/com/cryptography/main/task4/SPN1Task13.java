@@ -2,13 +2,13 @@ package com.cryptography.main.task4;
 
 import java.io.IOException;
 import java.util.List;
+import com.cryptography.cipher.modes.BlockMode;
 import com.cryptography.utils.FileUtils;
 
 public class SPN1Task13 {
 
 	// Младшие биты ключа из условия
 	private static final String KNOWN_LOW_BITS = "0110101011010011100001111"; // 27 бит
-	private static final int MAX_UNKNOWN_BITS = 16; // перебор до 2^16 вариантов (65536) (до ~16 млн)
 
 	public static void executeTask13() {
 		SPN1 spn = new SPN1();
@@ -23,38 +23,23 @@ public class SPN1Task13 {
 			long originalSize = FileUtils.getFileSize(inputFile);
 			List<Integer> cipher = spn.readData2Byte(inputFile);
 
-			// Используем свойство CTR: keystream0 = C0 xor P0, где P0 = 'BM' (0x4D42, little-endian)
-			int counter0 = iv & 0xFFFF;
-			int c0 = cipher.getFirst() & 0xFFFF;
-			int p0 = 0x4D42; // 'BM' в little-endian
-			int keystream0 = c0 ^ p0;
-
+			// Известный открытый текст — начало заголовка BMP ('BM', размер файла, нули), а если ключ
+			// не найден — только 'BM'. В CTR каждая пара даёт E_k(IV + i) = C_i xor P_i; перебираем
+			// старшие биты ключа на всех ядрах
 			long low = Long.parseLong(KNOWN_LOW_BITS, 2);
 			int lowLen = KNOWN_LOW_BITS.length();
+			int[] cipherBlocks = cipher.stream().mapToInt(Integer::intValue).toArray();
 
-			Long foundKey = null;
-			int unknownLimit = 1 << MAX_UNKNOWN_BITS;
-			System.out.println("Перебираем " + unknownLimit + " вариантов ключей...");
-			
-			for (int hi = 0; hi < unknownLimit; hi++) {
-				long keyCandidate = ((long) hi << lowLen) | low;
-				// генерируем keystream0 для кандидата и сравниваем
-				List<Integer> rk = spn.roundKeys(keyCandidate);
-				int ks0 = spn.encrypt(counter0, rk, rounds) & 0xFFFF;
-				if (ks0 == keystream0) { 
-					foundKey = keyCandidate; 
-					System.out.println("Найден ключ на итерации " + hi + ": " + foundKey);
-					break; 
-				}
-				if (hi % 10000 == 0 && hi > 0) {
-					System.out.println("Проверено " + hi + " ключей...");
-				}
-			}
+			System.out.println("Перебираем " + (1L << (32 - lowLen)) + " вариантов ключей...");
+			SPN1KeySearch.Result result = new SPN1KeySearch(rounds)
+					.searchBmp(cipherBlocks, originalSize, BlockMode.CTR, iv, low, lowLen);
+			System.out.println(result);
 
-			if (foundKey == null) {
+			if (result.keys().isEmpty()) {
 				System.out.println("CTR-13: не удалось найти ключ в диапазоне перебора. Уточните младшие биты.");
 				return;
 			}
+			long foundKey = result.keys().getFirst();
 
 			// Полное расшифрование найденным ключом
 			List<Integer> plain = spn.decryptDataCTR(cipher, foundKey, rounds, iv & 0xFFFF);
@@ -102,12 +102,12 @@ public class SPN1Task4 {
         System.out.println("Исходные данные: " + originalData + " (bin: " + toBinaryString(originalData) + ")");
         
         // Шифрование
-        List<Integer> encryptKeys = spn.roundKeys(key);
+        int[] encryptKeys = spn.roundKeysArray(key);
         int encrypted = spn.encrypt(originalData, encryptKeys, rounds);
         System.out.println("Зашифрованные данные: " + encrypted + " (bin: " + toBinaryString(encrypted) + ")");
         
         // Расшифрование
-        List<Integer> decryptKeys = spn.roundKeysToDecrypt(key);
+        int[] decryptKeys = spn.roundKeysToDecryptArray(key);
         int decrypted = spn.decrypt(encrypted, decryptKeys, rounds);
         System.out.println("Расшифрованные данные: " + decrypted + " (bin: " + toBinaryString(decrypted) + ")");
         
@@ -181,7 +181,7 @@ public class SPN1Task4 {
         System.out.println("Зашифрованные данные: " + encryptedData);
         
         // Расшифрование
-        List<Integer> decryptKeys = spn.roundKeysToDecrypt(key);
+        int[] decryptKeys = spn.roundKeysToDecryptArray(key);
         List<Integer> decryptedData = new java.util.ArrayList<>();
         
         for (int encryptedValue : encryptedData) {
@@ -216,8 +216,8 @@ public class SPN1Task5 {
         System.out.println("Ключ: " + testKey);
         System.out.println("Раундов: " + rounds);
         
-        List<Integer> rk = spn.roundKeys(testKey);
-        List<Integer> lk = spn.roundKeysToDecrypt(testKey);
+        int[] rk = spn.roundKeysArray(testKey);
+        int[] lk = spn.roundKeysToDecryptArray(testKey);
         
         boolean allCorrect = true;
         
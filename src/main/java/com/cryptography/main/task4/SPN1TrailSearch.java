@@ -0,0 +1,490 @@
+package com.cryptography.main.task4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Поиск лучших дифференциальных и линейных путей через слои замены и перестановки SPN1
+ * методом ветвей и границ (по Мацуи).
+ * <p>
+ * Путь из layers слоёв: a_0 → b_0 = S(a_0) → a_1 = P(b_0) → ... → output = P(b_{layers-1}).
+ * Вес перехода через S-box — вероятность DDT / 16 или модуль корреляции LAT / 8, вес пути — произведение весов.
+ * Лучший вес B_k для k слоёв ищется по возрастанию k, и B_{k-1} служит оценкой сверху для оставшихся слоёв.
+ * Для каждого состояния (число оставшихся слоёв, вход) запоминается либо точный лучший вес, либо
+ * верхняя граница, полученная при неудачной попытке превысить порог, поэтому повторные ветви
+ * отсекаются сразу. Верхний уровень перебирает входы параллельно с общим порогом.
+ * <p>
+ * Для атак на SPN1 с rounds раундами нужны пути из rounds - 1 слоёв: output — это разность или маска
+ * на входе последнего слоя замены ({@link SPN1DifferentialAttack}, {@link SPN1LinearAttack}).
+ */
+public final class SPN1TrailSearch {
+
+    /** Наибольшее число слоёв пути */
+    public static final int MAX_LAYERS = 16;
+
+    /**
+     * Вид пути
+     */
+    public enum Kind {
+        /** Разности, вес — вероятность */
+        DIFFERENTIAL,
+        /** Маски, вес — модуль корреляции */
+        LINEAR
+    }
+
+    // DDT[(dx << 4) | dy] = #{x : S(x) XOR S(x XOR dx) = dy}
+    private static final int[] DDT = new int[256];
+    // LAT[(a << 4) | b] = #{x : a·x = b·S(x)} - 8
+    private static final int[] LAT = new int[256];
+    // Веса переходов и ненулевые выходы для каждого входа по убыванию веса, по видам путей
+    private static final double[][] WEIGHTS = new double[2][256];
+    private static final int[][][] OPTIONS = new int[2][16][];
+    // Перестановка P для всех 16-битных значений
+    private static final int[] PERM = new int[1 << 16];
+
+    static {
+        SPN1 spn = new SPN1();
+        for (int a = 0; a < 16; a++) {
+            for (int x = 0; x < 16; x++) {
+                DDT[(a << 4) | (spn.sbox(x) ^ spn.sbox(x ^ a))]++;
+            }
+            for (int b = 0; b < 16; b++) {
+                int count = 0;
+                for (int x = 0; x < 16; x++) {
+                    if (parity(a & x) == parity(b & spn.sbox(x))) {
+                        count++;
+                    }
+                }
+                LAT[(a << 4) | b] = count - 8;
+            }
+        }
+        for (int i = 0; i < 256; i++) {
+            WEIGHTS[Kind.DIFFERENTIAL.ordinal()][i] = DDT[i] / 16.0;
+            WEIGHTS[Kind.LINEAR.ordinal()][i] = Math.abs(LAT[i]) / 8.0;
+        }
+        for (Kind kind : Kind.values()) {
+            double[] w = WEIGHTS[kind.ordinal()];
+            OPTIONS[kind.ordinal()][0] = new int[0];
+            for (int in = 1; in < 16; in++) {
+                List<Integer> options = new ArrayList<>();
+                for (int out = 1; out < 16; out++) {
+                    if (w[(in << 4) | out] != 0) {
+                        options.add(out);
+                    }
+                }
+                final int from = in;
+                options.sort(Comparator.comparingDouble(out -> -w[(from << 4) | out]));
+                OPTIONS[kind.ordinal()][in] = options.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        for (int x = 0; x < PERM.length; x++) {
+            PERM[x] = spn.pbox(x);
+        }
+    }
+
+    // Начальное значение ячейки памяти: граница 1.0
+    private static final long UNKNOWN = encode(1.0, false);
+
+    private final Kind kind;
+    private final int layers;
+    private final int outputNibbles;
+    private final int allowed;
+    private final double[] weights;
+    private final int[][] options;
+    // memo[k][a]: точный лучший вес k слоёв от входа a (знак +) или верхняя граница (знак -)
+    private final AtomicLongArray[] memo;
+    // bounds[k]: лучший вес k слоёв по всем входам
+    private final double[] bounds;
+    private Trail best;
+
+    /**
+     * Поиск без ограничений на выход
+     * @param layers число слоёв замены (1..16)
+     */
+    public SPN1TrailSearch(Kind kind, int layers) {
+        this(kind, layers, 0);
+    }
+
+    /**
+     * @param layers число слоёв замены (1..16)
+     * @param outputNibbles набор активных нибблов выхода (бит n — ниббл n), 0 — любой
+     */
+    public SPN1TrailSearch(Kind kind, int layers, int outputNibbles) {
+        if (layers < 1 || layers > MAX_LAYERS) {
+            throw new IllegalArgumentException("Число слоёв должно быть от 1 до " + MAX_LAYERS + ": " + layers);
+        }
+        if (outputNibbles < 0 || outputNibbles > 0xF) {
+            throw new IllegalArgumentException("Набор нибблов выхода должен быть 4-битным: " + outputNibbles);
+        }
+        this.kind = kind;
+        this.layers = layers;
+        this.outputNibbles = outputNibbles;
+        this.allowed = outputNibbles == 0 ? 0xF : outputNibbles;
+        this.weights = WEIGHTS[kind.ordinal()];
+        this.options = OPTIONS[kind.ordinal()];
+        this.memo = new AtomicLongArray[layers + 1];
+        for (int k = 1; k <= layers; k++) {
+            memo[k] = new AtomicLongArray(1 << 16);
+            for (int a = 0; a < 1 << 16; a++) {
+                memo[k].set(a, UNKNOWN);
+            }
+        }
+        this.bounds = new double[layers + 1];
+        this.bounds[0] = 1.0;
+    }
+
+    /**
+     * Таблица распределения разностей S_BOX: элемент [dx][dy] = #{x : S(x) XOR S(x XOR dx) = dy}
+     */
+    public static int[][] differenceDistributionTable() {
+        return table(DDT);
+    }
+
+    /**
+     * Таблица линейных аппроксимаций S_BOX: элемент [a][b] = #{x : a·x = b·S(x)} - 8
+     */
+    public static int[][] linearApproximationTable() {
+        return table(LAT);
+    }
+
+    /**
+     * Лучшие пути для атаки на последний раундовый ключ: для каждого ниббла выбирается самый
+     * тяжёлый путь, выход которого активен на этом ниббле и не более чем на maxActive нибблах
+     * (при равном весе — с меньшим числом активных нибблов)
+     * @return различные пути, покрывающие все нибблы, по убыванию веса
+     */
+    public static List<Trail> coveringTrails(Kind kind, int layers, int maxActive) {
+        if (maxActive < 1 || maxActive > 4) {
+            throw new IllegalArgumentException("Число активных нибблов должно быть от 1 до 4: " + maxActive);
+        }
+        List<Trail> candidates = new ArrayList<>();
+        for (int set = 1; set < 16; set++) {
+            if (Integer.bitCount(set) <= maxActive) {
+                Trail trail = new SPN1TrailSearch(kind, layers, set).search();
+                if (trail != null) {
+                    candidates.add(trail);
+                }
+            }
+        }
+        Comparator<Trail> order = Comparator.comparingDouble((Trail t) -> -t.weight())
+                .thenComparingInt(t -> Integer.bitCount(SPN1Attacks.activeNibbles(t.output())))
+                .thenComparingInt(Trail::activeMask);
+        candidates.sort(order);
+        List<Trail> chosen = new ArrayList<>();
+        for (int nibble = 0; nibble < 4; nibble++) {
+            for (Trail trail : candidates) {
+                if ((trail.activeMask() & (0xF << (4 * nibble))) != 0) {
+                    if (!chosen.contains(trail)) {
+                        chosen.add(trail);
+                    }
+                    break;
+                }
+            }
+        }
+        chosen.sort(order);
+        return Collections.unmodifiableList(chosen);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public int layers() {
+        return layers;
+    }
+
+    /**
+     * Лучший путь (при равных весах — с наименьшим входом)
+     * @return путь или null, если путей с заданным набором нибблов выхода нет
+     */
+    public synchronized Trail search() {
+        if (best != null || bounds[layers] != 0) {
+            return best;
+        }
+        for (int k = 1; k <= layers; k++) {
+            final int level = k;
+            AtomicLong top = new AtomicLong(Double.doubleToLongBits(0));
+            IntStream.range(1, 1 << 16).parallel().forEach(a -> {
+                double floor = Double.longBitsToDouble(top.get());
+                double value = best(level, a, floor);
+                if (value > floor) {
+                    top.accumulateAndGet(Double.doubleToLongBits(value),
+                            (x, y) -> Double.longBitsToDouble(x) >= Double.longBitsToDouble(y) ? x : y);
+                }
+            });
+            bounds[k] = Double.longBitsToDouble(top.get());
+            if (bounds[k] == 0) {
+                return null;
+            }
+        }
+        double weight = bounds[layers];
+        double floor = below(weight);
+        for (int a = 1; a < 1 << 16; a++) {
+            if (best(layers, a, floor) == weight) {
+                best = reconstruct(a, weight);
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Лучшие веса путей из 1..layers слоёв (при заданном наборе нибблов выхода)
+     */
+    public double[] bounds() {
+        search();
+        double[] result = new double[layers];
+        System.arraycopy(bounds, 1, result, 0, layers);
+        return result;
+    }
+
+    /**
+     * Лучший вес k слоёв от входа a, если он больше floor, иначе 0
+     */
+    private double best(int k, int a, double floor) {
+        long cell = memo[k].get(a);
+        double known = Math.abs(Double.longBitsToDouble(cell));
+        if (cell >= 0) {
+            return known > floor ? known : 0;
+        }
+        if (known <= floor) {
+            return 0;
+        }
+        // suffix[n]: оценка сверху произведения весов нибблов n..3
+        double[] suffix = new double[5];
+        suffix[4] = 1.0;
+        for (int n = 3; n >= 0; n--) {
+            int in = (a >>> (4 * n)) & 0xF;
+            suffix[n] = in == 0 ? suffix[n + 1] : suffix[n + 1] * maxWeight(k, in);
+        }
+        double running = enumerate(k, a, 0, 0, 1.0, 0, suffix, floor);
+        boolean exact = running > floor;
+        long update = encode(exact ? running : floor, exact);
+        memo[k].accumulateAndGet(a, update, SPN1TrailSearch::merge);
+        return exact ? running : 0;
+    }
+
+    /**
+     * Перебор выходов слоя по нибблам с отсечением по оценке сверху
+     * @return наибольший из running и весов найденных путей
+     */
+    private double enumerate(int k, int a, int nibble, int b, double p, int union, double[] suffix, double running) {
+        if (nibble == 4) {
+            if (k == 1) {
+                if (outputNibbles != 0 && union != outputNibbles) {
+                    return running;
+                }
+                return Math.max(running, p);
+            }
+            double sub = best(k - 1, PERM[b], running / p);
+            return sub == 0 ? running : Math.max(running, p * sub);
+        }
+        int in = (a >>> (4 * nibble)) & 0xF;
+        if (in == 0) {
+            return enumerate(k, a, nibble + 1, b, p, union, suffix, running);
+        }
+        for (int out : options[in]) {
+            // На последнем слое бит j выхода S-box попадает в ниббл j выхода пути
+            if (k == 1 && (out & ~allowed) != 0) {
+                continue;
+            }
+            double q = p * weights[(in << 4) | out];
+            if (q * suffix[nibble + 1] * bounds[k - 1] <= running) {
+                break;
+            }
+            running = enumerate(k, a, nibble + 1, b | (out << (4 * nibble)), q, union | out, suffix, running);
+        }
+        return running;
+    }
+
+    private double maxWeight(int k, int in) {
+        for (int out : options[in]) {
+            if (k > 1 || (out & ~allowed) == 0) {
+                return weights[(in << 4) | out];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Восстановление пути с весом weight от входа a: на каждом слое берётся первый выход в порядке
+     * перебора, на котором достигается точный лучший вес
+     */
+    private Trail reconstruct(int a, double weight) {
+        int[] inputs = new int[layers];
+        int[] outputs = new int[layers];
+        int sign = 1;
+        int state = a;
+        double target = weight;
+        for (int k = layers; k >= 1; k--) {
+            int layer = layers - k;
+            inputs[layer] = state;
+            int b = choose(k, state, 0, 0, 1.0, 0, target);
+            outputs[layer] = b;
+            double p = 1.0;
+            for (int n = 0; n < 4; n++) {
+                int in = (state >>> (4 * n)) & 0xF;
+                if (in != 0) {
+                    int out = (b >>> (4 * n)) & 0xF;
+                    p *= weights[(in << 4) | out];
+                    if (LAT[(in << 4) | out] < 0) {
+                        sign = -sign;
+                    }
+                }
+            }
+            state = PERM[b];
+            if (k > 1) {
+                target = best(k - 1, state, below(target / p));
+            }
+        }
+        return new Trail(kind, a, state, kind == Kind.LINEAR ? sign * weight : weight, inputs, outputs);
+    }
+
+    private int choose(int k, int a, int nibble, int b, double p, int union, double target) {
+        if (nibble == 4) {
+            if (k == 1) {
+                return (outputNibbles == 0 || union == outputNibbles) && p == target ? b : -1;
+            }
+            double sub = best(k - 1, PERM[b], below(target / p));
+            return sub != 0 && p * sub == target ? b : -1;
+        }
+        int in = (a >>> (4 * nibble)) & 0xF;
+        if (in == 0) {
+            return choose(k, a, nibble + 1, b, p, union, target);
+        }
+        for (int out : options[in]) {
+            if (k == 1 && (out & ~allowed) != 0) {
+                continue;
+            }
+            int found = choose(k, a, nibble + 1, b | (out << (4 * nibble)), p * weights[(in << 4) | out], union | out, target);
+            if (found >= 0) {
+                return found;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Порог чуть ниже value, чтобы погрешность деления не отбросила точное значение
+     */
+    private static double below(double value) {
+        return value * (1 - 1e-9);
+    }
+
+    private static long encode(double value, boolean exact) {
+        return Double.doubleToLongBits(exact ? value : -value) | (exact ? 0 : Long.MIN_VALUE);
+    }
+
+    /**
+     * Точное значение важнее границы, из двух границ остаётся меньшая
+     */
+    private static long merge(long current, long update) {
+        if (current >= 0) {
+            return current;
+        }
+        if (update >= 0) {
+            return update;
+        }
+        return Double.longBitsToDouble(current) >= Double.longBitsToDouble(update) ? current : update;
+    }
+
+    private static int[][] table(int[] flat) {
+        int[][] table = new int[16][16];
+        for (int a = 0; a < 16; a++) {
+            for (int b = 0; b < 16; b++) {
+                table[a][b] = flat[(a << 4) | b];
+            }
+        }
+        return table;
+    }
+
+    private static int parity(int x) {
+        return Integer.bitCount(x) & 1;
+    }
+
+    /**
+     * Путь через layers слоёв замены
+     */
+    public static final class Trail {
+        private final Kind kind;
+        private final int input;
+        private final int output;
+        private final double weight;
+        private final int[] layerInputs;
+        private final int[] layerOutputs;
+
+        Trail(Kind kind, int input, int output, double weight, int[] layerInputs, int[] layerOutputs) {
+            this.kind = kind;
+            this.input = input;
+            this.output = output;
+            this.weight = weight;
+            this.layerInputs = layerInputs;
+            this.layerOutputs = layerOutputs;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        public int layers() {
+            return layerInputs.length;
+        }
+
+        /** Входная разность ΔP или маска α */
+        public int input() {
+            return input;
+        }
+
+        /** Выходная разность ΔU или маска β (после последней перестановки) */
+        public int output() {
+            return output;
+        }
+
+        /** Модуль веса: вероятность или |корреляция| */
+        public double weight() {
+            return Math.abs(weight);
+        }
+
+        /** Вероятность дифференциального пути */
+        public double probability() {
+            return kind == Kind.DIFFERENTIAL ? weight : 0;
+        }
+
+        /** Корреляция линейного пути со знаком (произведение корреляций S-box) */
+        public double correlation() {
+            return kind == Kind.LINEAR ? weight : 0;
+        }
+
+        /** Смещение ε = корреляция / 2 (по лемме о нагромождении) */
+        public double bias() {
+            return correlation() / 2;
+        }
+
+        /** Входы слоёв замены */
+        public int[] layerInputs() {
+            return layerInputs.clone();
+        }
+
+        /** Выходы слоёв замены */
+        public int[] layerOutputs() {
+            return layerOutputs.clone();
+        }
+
+        /** Нибблы, на которых активен выход (маска из 0xF по каждому нибблу) */
+        public int activeMask() {
+            return SPN1Attacks.nibbleMask(output);
+        }
+
+        @Override
+        public String toString() {
+            return kind == Kind.DIFFERENTIAL
+                    ? String.format("ΔP=%04X ΔU=%04X p=%.5f", input, output, weight)
+                    : String.format("α=%04X β=%04X ε=%+.5f", input, output, bias());
+        }
+    }
+}
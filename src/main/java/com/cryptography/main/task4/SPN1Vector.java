@@ -0,0 +1,67 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.utils.NibbleNetwork;
+import com.cryptography.utils.VectorSupport;
+
+/**
+ * Векторная (SIMD) реализация массовых режимов SPN1 для фиксированного ключа.
+ * <p>
+ * Каждая полоса вектора обрабатывает независимый 16-битный блок, поэтому векторизуются режимы
+ * без зависимости между соседними блоками: ECB, CTR, а также расшифрование CBC и CFB.
+ * Раунды — это табличные шаги {@link SPN1TableCipher}, выполняемые перестановками полос.
+ * Без модуля jdk.incubator.vector используется скалярная табличная реализация с тем же результатом.
+ */
+public final class SPN1Vector {
+
+    private final NibbleNetwork encryption;
+    private final NibbleNetwork decryption;
+
+    /**
+     * @param key ключ шифрования
+     * @param rounds количество раундов (1..4)
+     */
+    public SPN1Vector(long key, int rounds) {
+        SPN1TableCipher cipher = new SPN1TableCipher(key, rounds);
+        this.encryption = cipher.encryptionNetwork();
+        this.decryption = cipher.decryptionNetwork();
+    }
+
+    /**
+     * Описание выбранной реализации (вид вектора или скалярный режим)
+     */
+    public static String implementation() {
+        return VectorSupport.description();
+    }
+
+    public void encryptECB(int[] data, int off, int len) {
+        encryption.applyInPlace(data, off, len);
+    }
+
+    public void decryptECB(int[] data, int off, int len) {
+        decryption.applyInPlace(data, off, len);
+    }
+
+    /**
+     * Шифрование/расшифрование CTR на месте
+     * @return значение счетчика для следующего участка
+     */
+    public int ctr(int[] data, int off, int len, int counter) {
+        return encryption.ctrInPlace(data, off, len, counter & 0xFFFF);
+    }
+
+    /**
+     * Расшифрование CBC на месте
+     * @return последний блок шифротекста (сцепление для следующего участка)
+     */
+    public int decryptCBC(int[] data, int off, int len, int iv) {
+        return decryption.decryptCBCInPlace(data, off, len, iv);
+    }
+
+    /**
+     * Расшифрование CFB на месте
+     * @return последний блок шифротекста (сцепление для следующего участка)
+     */
+    public int decryptCFB(int[] data, int off, int len, int iv) {
+        return encryption.decryptCFBInPlace(data, off, len, iv);
+    }
+}
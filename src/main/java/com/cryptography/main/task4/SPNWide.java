@@ -0,0 +1,296 @@
+package com.cryptography.main.task4;
+
+/**
+ * Семейство SPN-шифров с блоком 16, 32 или 64 бита; состояние хранится в long.
+ * <p>
+ * Раунд устроен как в SPN1: XOR с раундовым ключом, замена S_BOX SPN1 в каждом ниббле и перестановка
+ * битов P(i) = i * B / 4 mod (B - 1), P(B - 1) = B - 1 (при B = 16 это P_BOX SPN1); в последнем раунде
+ * перестановки нет, добавляется ключ K_r. Ключ имеет 2B бит, раундовый ключ K_i — окно из B бит,
+ * начинающееся с бита B - i * B / 4, что обобщает {@link SPN1#roundKeysArray(long)}: при B = 16
+ * шифр совпадает с SPN1 для 32-битного ключа.
+ * <p>
+ * Замена и перестановка объединены в таблицы по позиции байта (B / 8 обращений к таблице из 256 long
+ * на раунд), расшифрование использует представление «после обратной перестановки», как
+ * {@link SPN1TableCipher}. Экземпляр неизменяем и может использоваться из нескольких потоков.
+ */
+public final class SPNWide {
+
+    /** Максимальное число раундов: ключевое расписание даёт 5 раундовых ключей */
+    public static final int MAX_ROUNDS = 4;
+
+    private static final int[] S_BOX = {14, 4, 13, 1, 2, 15, 11, 8, 3, 10, 6, 12, 5, 9, 0, 7};
+    private static final int[] S_INV = new int[16];
+
+    static {
+        for (int i = 0; i < 16; i++) {
+            S_INV[S_BOX[i]] = i;
+        }
+    }
+
+    private final int blockBits;
+    private final int blockBytes;
+    private final long mask;
+    private final int rounds;
+    // Индекс таблицы: (позиция байта << 8) | значение байта
+    private final long[] sp;    // P(S(v) << 8n) — обычный раунд шифрования
+    private final long[] s;     // S(v) << 8n — последний раунд шифрования
+    private final long[] apis;  // P^-1(S^-1(v) << 8n) — обычный раунд расшифрования
+    private final long[] is;    // S^-1(v) << 8n — последний раунд расшифрования
+    private final long[] rk;    // K0..K_r
+    private final long[] apRk;  // P^-1(K_i)
+
+    /**
+     * @param blockBits размер блока: 16, 32 или 64
+     * @param key ключ (используются младшие 2 * blockBits бит, поэтому только для блоков 16 и 32)
+     * @param rounds количество раундов (1..4)
+     */
+    public SPNWide(int blockBits, long key, int rounds) {
+        this(blockBits, 0, key, rounds);
+        if (blockBits == 64) {
+            throw new IllegalArgumentException("Для 64-битного блока нужен 128-битный ключ");
+        }
+    }
+
+    /**
+     * @param blockBits размер блока: 16, 32 или 64
+     * @param keyHigh старшие 64 бита ключа
+     * @param keyLow младшие 64 бита ключа (используются младшие 2 * blockBits бит 128-битного ключа)
+     * @param rounds количество раундов (1..4)
+     * @throws IllegalArgumentException если размер блока или число раундов недопустимы
+     */
+    public SPNWide(int blockBits, long keyHigh, long keyLow, int rounds) {
+        if (blockBits != 16 && blockBits != 32 && blockBits != 64) {
+            throw new IllegalArgumentException("Размер блока должен быть 16, 32 или 64 бита: " + blockBits);
+        }
+        if (rounds < 1 || rounds > MAX_ROUNDS) {
+            throw new IllegalArgumentException("Число раундов должно быть от 1 до " + MAX_ROUNDS + ": " + rounds);
+        }
+        this.blockBits = blockBits;
+        this.blockBytes = blockBits / 8;
+        this.mask = blockBits == 64 ? -1L : (1L << blockBits) - 1;
+        this.rounds = rounds;
+
+        int[] perm = permutation(blockBits);
+        int[] inverse = new int[blockBits];
+        for (int i = 0; i < blockBits; i++) {
+            inverse[perm[i]] = i;
+        }
+        int size = blockBytes << 8;
+        this.sp = new long[size];
+        this.s = new long[size];
+        this.apis = new long[size];
+        this.is = new long[size];
+        for (int n = 0; n < blockBytes; n++) {
+            for (int v = 0; v < 256; v++) {
+                int idx = (n << 8) | v;
+                s[idx] = (long) (S_BOX[v & 0xF] | S_BOX[v >>> 4] << 4) << (8 * n);
+                sp[idx] = permute(s[idx], perm);
+                is[idx] = (long) (S_INV[v & 0xF] | S_INV[v >>> 4] << 4) << (8 * n);
+                apis[idx] = permute(is[idx], inverse);
+            }
+        }
+
+        this.rk = new long[MAX_ROUNDS + 1];
+        this.apRk = new long[MAX_ROUNDS + 1];
+        int step = blockBits / 4;
+        for (int i = 0; i <= MAX_ROUNDS; i++) {
+            rk[i] = window(keyHigh, keyLow, blockBits - i * step) & mask;
+            apRk[i] = permute(rk[i], inverse);
+        }
+    }
+
+    /**
+     * Перестановка битов P(i) = i * B / 4 mod (B - 1), P(B - 1) = B - 1
+     */
+    public static int[] permutation(int blockBits) {
+        int[] p = new int[blockBits];
+        for (int i = 0; i < blockBits - 1; i++) {
+            p[i] = i * (blockBits / 4) % (blockBits - 1);
+        }
+        p[blockBits - 1] = blockBits - 1;
+        return p;
+    }
+
+    public int blockBits() {
+        return blockBits;
+    }
+
+    public int blockBytes() {
+        return blockBytes;
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    /**
+     * Раундовые ключи K0..K4
+     */
+    public long[] roundKeys() {
+        return rk.clone();
+    }
+
+    /**
+     * Шифрование одного блока
+     */
+    public long encrypt(long p) {
+        long x = p & mask;
+        for (int i = 0; i < rounds - 1; i++) {
+            x = substitute(sp, x ^ rk[i]);
+        }
+        return substitute(s, x ^ rk[rounds - 1]) ^ rk[rounds];
+    }
+
+    /**
+     * Расшифрование одного блока
+     */
+    public long decrypt(long c) {
+        int r = rounds;
+        long x = c & mask;
+        if (r == 1) {
+            return substitute(is, x ^ rk[1]) ^ rk[0];
+        }
+        long y = substitute(apis, x ^ rk[r]) ^ apRk[r - 1];
+        for (int i = r - 2; i >= 1; i--) {
+            y = substitute(apis, y) ^ apRk[i];
+        }
+        return substitute(is, y) ^ rk[0];
+    }
+
+    /**
+     * Шифрование ECB на месте
+     */
+    public void encryptECB(long[] data, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            data[i] = encrypt(data[i]);
+        }
+    }
+
+    /**
+     * Расшифрование ECB на месте
+     */
+    public void decryptECB(long[] data, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            data[i] = decrypt(data[i]);
+        }
+    }
+
+    /**
+     * Шифрование CBC на месте
+     * @return последний блок шифротекста (IV для продолжения)
+     */
+    public long encryptCBC(long[] data, int off, int len, long iv) {
+        long prev = iv & mask;
+        for (int i = off; i < off + len; i++) {
+            prev = encrypt(data[i] ^ prev);
+            data[i] = prev;
+        }
+        return prev;
+    }
+
+    /**
+     * Расшифрование CBC на месте
+     * @return последний блок шифротекста (IV для продолжения)
+     */
+    public long decryptCBC(long[] data, int off, int len, long iv) {
+        long prev = iv & mask;
+        for (int i = off; i < off + len; i++) {
+            long c = data[i] & mask;
+            data[i] = decrypt(c) ^ prev;
+            prev = c;
+        }
+        return prev;
+    }
+
+    /**
+     * OFB на месте (шифрование и расшифрование совпадают)
+     * @return состояние гаммы для продолжения
+     */
+    public long ofb(long[] data, int off, int len, long iv) {
+        long state = iv & mask;
+        for (int i = off; i < off + len; i++) {
+            state = encrypt(state);
+            data[i] = (data[i] ^ state) & mask;
+        }
+        return state;
+    }
+
+    /**
+     * Шифрование CFB на месте
+     * @return последний блок шифротекста (IV для продолжения)
+     */
+    public long encryptCFB(long[] data, int off, int len, long iv) {
+        long prev = iv & mask;
+        for (int i = off; i < off + len; i++) {
+            prev = (data[i] ^ encrypt(prev)) & mask;
+            data[i] = prev;
+        }
+        return prev;
+    }
+
+    /**
+     * Расшифрование CFB на месте
+     * @return последний блок шифротекста (IV для продолжения)
+     */
+    public long decryptCFB(long[] data, int off, int len, long iv) {
+        long prev = iv & mask;
+        for (int i = off; i < off + len; i++) {
+            long c = data[i] & mask;
+            data[i] = (c ^ encrypt(prev)) & mask;
+            prev = c;
+        }
+        return prev;
+    }
+
+    /**
+     * CTR на месте: y_i = x_i XOR E(IV + i)
+     * @return значение счётчика для продолжения
+     */
+    public long ctr(long[] data, int off, int len, long iv) {
+        long counter = iv;
+        for (int i = off; i < off + len; i++) {
+            data[i] = (data[i] ^ encrypt(counter)) & mask;
+            counter++;
+        }
+        return counter & mask;
+    }
+
+    /**
+     * Обращения к таблице по всем байтам блока
+     */
+    private long substitute(long[] t, long u) {
+        long y = t[(int) u & 0xFF] ^ t[256 | ((int) (u >>> 8) & 0xFF)];
+        if (blockBytes == 2) {
+            return y;
+        }
+        y ^= t[512 | ((int) (u >>> 16) & 0xFF)] ^ t[768 | ((int) (u >>> 24) & 0xFF)];
+        if (blockBytes == 4) {
+            return y;
+        }
+        return y ^ t[1024 | ((int) (u >>> 32) & 0xFF)] ^ t[1280 | ((int) (u >>> 40) & 0xFF)]
+                 ^ t[1536 | ((int) (u >>> 48) & 0xFF)] ^ t[1792 | (int) (u >>> 56)];
+    }
+
+    private static long permute(long x, int[] perm) {
+        long y = 0;
+        for (int i = 0; i < perm.length; i++) {
+            if ((x & (1L << i)) != 0) {
+                y |= 1L << perm[i];
+            }
+        }
+        return y;
+    }
+
+    /**
+     * Младшие 64 бита 128-битного ключа, сдвинутого вправо на shift (0..64)
+     */
+    private static long window(long high, long low, int shift) {
+        if (shift == 0) {
+            return low;
+        }
+        if (shift == 64) {
+            return high;
+        }
+        return (high << (64 - shift)) | (low >>> shift);
+    }
+}
@@ -0,0 +1,248 @@
+package com.cryptography.main.task4;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Потоковое шифрование файлов шифром {@link SPNWide} через FileChannel, по схеме {@link SPN1FileCipher}.
+ * <p>
+ * Блоки по B / 8 байт читаются из ByteBuffer в порядке little-endian, состояние режима переносится
+ * между участками. Размер файла сохраняется, как в {@link SPN1FileCipher}: хвост короче блока в OFB,
+ * CFB и CTR складывается с началом очередного блока гаммы, а в ECB и CBC шифруется с заимствованием
+ * шифротекста (ciphertext stealing) у последнего полного блока: на его место записывается полный блок,
+ * на место хвоста — начало промежуточного блока. Файл короче одного блока в ECB и CBC складывается
+ * с гаммой E(IV) (в ECB — E(0)). Последний полный блок каждого участка придерживается до следующего,
+ * чтобы хвост всегда оказывался рядом с ним.
+ */
+public final class SPNWideFileCipher {
+
+    /** Размер участка по умолчанию: 64 КиБ */
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 16;
+
+    private final SPNWide cipher;
+    private final BlockMode mode;
+    private final long iv;
+    private final int chunkBlocks;
+
+    /**
+     * @param cipher шифр с ключом
+     * @param mode режим шифрования
+     * @param iv вектор инициализации (не используется в ECB)
+     */
+    public SPNWideFileCipher(SPNWide cipher, BlockMode mode, long iv) {
+        this(cipher, mode, iv, DEFAULT_CHUNK_BYTES / cipher.blockBytes());
+    }
+
+    /**
+     * @param chunkBlocks количество блоков в одном участке
+     */
+    public SPNWideFileCipher(SPNWide cipher, BlockMode mode, long iv, int chunkBlocks) {
+        if (chunkBlocks < 1) {
+            throw new IllegalArgumentException("Размер участка должен быть положительным: " + chunkBlocks);
+        }
+        this.cipher = cipher;
+        this.mode = mode;
+        this.iv = iv;
+        this.chunkBlocks = chunkBlocks;
+    }
+
+    /**
+     * Шифрование файла
+     * @return количество обработанных байтов
+     * @throws IOException если произошла ошибка при чтении или записи файла
+     */
+    public long encryptFile(String inputFile, String outputFile) throws IOException {
+        return processFile(inputFile, outputFile, true);
+    }
+
+    /**
+     * Расшифрование файла
+     * @return количество обработанных байтов
+     * @throws IOException если произошла ошибка при чтении или записи файла
+     */
+    public long decryptFile(String inputFile, String outputFile) throws IOException {
+        return processFile(inputFile, outputFile, false);
+    }
+
+    public long encrypt(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        return process(in, out, true);
+    }
+
+    public long decrypt(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        return process(in, out, false);
+    }
+
+    private long processFile(String inputFile, String outputFile, boolean encrypt) throws IOException {
+        Path output = Paths.get(outputFile);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (FileChannel in = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return process(in, out, encrypt);
+        }
+    }
+
+    private long process(ReadableByteChannel in, WritableByteChannel out, boolean encrypt) throws IOException {
+        int blockBytes = cipher.blockBytes();
+        // Дополнительный блок в буфере — придержанный последний блок предыдущего участка
+        ByteBuffer buffer = ByteBuffer.allocateDirect((chunkBlocks + 1) * blockBytes).order(ByteOrder.LITTLE_ENDIAN);
+        long[] data = new long[chunkBlocks + 1];
+        byte[] carry = new byte[blockBytes];
+        int carried = 0;
+        long state = mode == BlockMode.ECB ? 0 : iv;
+        long total = 0;
+        while (true) {
+            buffer.clear();
+            buffer.put(carry, 0, carried);
+            boolean eof = fill(in, buffer);
+            buffer.flip();
+            int bytes = buffer.remaining();
+            if (bytes == 0) {
+                break;
+            }
+            carried = eof ? 0 : blockBytes;
+            int blocks = (bytes - carried) / blockBytes;
+            // Хвост возможен только в последнем участке: буфер заполняется до конца или до конца потока
+            int tail = bytes - carried - blocks * blockBytes;
+            for (int i = 0; i < blocks; i++) {
+                data[i] = get(buffer, blockBytes);
+            }
+            long last = get(buffer, tail);
+            buffer.get(carry, 0, carried);
+
+            boolean steal = tail > 0 && blocks > 0 && (mode == BlockMode.ECB || mode == BlockMode.CBC);
+            if (steal) {
+                state = process(data, blocks - 1, state, encrypt);
+                last = steal(data, blocks - 1, last, tail, state, encrypt);
+            } else {
+                state = process(data, blocks, state, encrypt);
+                if (tail > 0) {
+                    // Гамма для хвоста; в ECB и CBC — только для файла короче блока
+                    last ^= cipher.encrypt(state);
+                }
+            }
+
+            buffer.clear();
+            for (int i = 0; i < blocks; i++) {
+                put(buffer, data[i], blockBytes);
+            }
+            put(buffer, last, tail);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            total += bytes - carried;
+            if (eof) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Заимствование шифротекста для последнего полного блока data[i] и хвоста из tail байт:
+     * в ECB X = E(P_{n-1}), C_{n-1} = E(P_n || X[tail..]), C_n = X[0..tail);
+     * в CBC X = E(P_{n-1} ^ C_{n-2}), C_{n-1} = E(X ^ (P_n || 0)), C_n = X[0..tail)
+     * @param state последний блок шифротекста перед data[i] (в CBC)
+     * @return преобразованный хвост
+     */
+    private long steal(long[] data, int i, long last, int tail, long state, boolean encrypt) {
+        long head = (1L << (8 * tail)) - 1;
+        boolean cbc = mode == BlockMode.CBC;
+        if (encrypt) {
+            long x = cipher.encrypt(cbc ? data[i] ^ state : data[i]);
+            data[i] = cipher.encrypt(cbc ? x ^ last : (x & ~head) | last);
+            return x & head;
+        }
+        long y = cipher.decrypt(data[i]);
+        long x = (y & ~head) | last;
+        data[i] = cbc ? cipher.decrypt(x) ^ state : cipher.decrypt(x);
+        return (cbc ? y ^ x : y) & head;
+    }
+
+    private static boolean fill(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Чтение n байт (блока или хвоста) в порядке little-endian
+     */
+    private static long get(ByteBuffer buffer, int n) {
+        switch (n) {
+            case 2:
+                return buffer.getShort() & 0xFFFFL;
+            case 4:
+                return buffer.getInt() & 0xFFFFFFFFL;
+            case 8:
+                return buffer.getLong();
+            default:
+                long v = 0;
+                for (int i = 0; i < n; i++) {
+                    v |= (buffer.get() & 0xFFL) << (8 * i);
+                }
+                return v;
+        }
+    }
+
+    private static void put(ByteBuffer buffer, long value, int n) {
+        switch (n) {
+            case 2:
+                buffer.putShort((short) value);
+                break;
+            case 4:
+                buffer.putInt((int) value);
+                break;
+            case 8:
+                buffer.putLong(value);
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    buffer.put((byte) (value >>> (8 * i)));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Обработка участка на месте
+     * @return состояние режима для следующего участка
+     */
+    private long process(long[] data, int len, long state, boolean encrypt) {
+        switch (mode) {
+            case ECB:
+                if (encrypt) {
+                    cipher.encryptECB(data, 0, len);
+                } else {
+                    cipher.decryptECB(data, 0, len);
+                }
+                return state;
+            case CBC:
+                return encrypt ? cipher.encryptCBC(data, 0, len, state) : cipher.decryptCBC(data, 0, len, state);
+            case OFB:
+                return cipher.ofb(data, 0, len, state);
+            case CFB:
+                return encrypt ? cipher.encryptCFB(data, 0, len, state) : cipher.decryptCFB(data, 0, len, state);
+            case CTR:
+                return cipher.ctr(data, 0, len, state);
+            default:
+                throw new IllegalArgumentException("Неизвестный режим: " + mode);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.cryptography.main.task5;
+
+/**
+ * Полный DES (FIPS 46-3): 64-битный блок, 56-битный ключ, 16 раундов сети Фейстеля.
+ * <p>
+ * Устроен так же, как {@link S_DES} (IP, раунды f_K с расширением E, S-блоками и перестановкой P, FP),
+ * но вычисляется по таблицам: замена S_i и перестановка P объединены в 8 таблиц по 64 int,
+ * а начальная и конечная перестановки — в 8 таблиц по 256 long на позицию байта, поэтому раунд —
+ * это 8 обращений к таблицам, а IP и FP — по 8. Раундовые ключи вычисляются один раз в конструкторе
+ * и хранятся как 6-битные группы. Биты ключа чётности игнорируются.
+ */
+public final class DES extends DESBlockCipher {
+
+    // Таблицы стандарта, биты нумеруются с 1 от старшего
+    static final int[] IP = {
+            58, 50, 42, 34, 26, 18, 10, 2, 60, 52, 44, 36, 28, 20, 12, 4,
+            62, 54, 46, 38, 30, 22, 14, 6, 64, 56, 48, 40, 32, 24, 16, 8,
+            57, 49, 41, 33, 25, 17, 9, 1, 59, 51, 43, 35, 27, 19, 11, 3,
+            61, 53, 45, 37, 29, 21, 13, 5, 63, 55, 47, 39, 31, 23, 15, 7};
+    static final int[] FP = {
+            40, 8, 48, 16, 56, 24, 64, 32, 39, 7, 47, 15, 55, 23, 63, 31,
+            38, 6, 46, 14, 54, 22, 62, 30, 37, 5, 45, 13, 53, 21, 61, 29,
+            36, 4, 44, 12, 52, 20, 60, 28, 35, 3, 43, 11, 51, 19, 59, 27,
+            34, 2, 42, 10, 50, 18, 58, 26, 33, 1, 41, 9, 49, 17, 57, 25};
+    static final int[] P = {
+            16, 7, 20, 21, 29, 12, 28, 17, 1, 15, 23, 26, 5, 18, 31, 10,
+            2, 8, 24, 14, 32, 27, 3, 9, 19, 13, 30, 6, 22, 11, 4, 25};
+    static final int[] PC1 = {
+            57, 49, 41, 33, 25, 17, 9, 1, 58, 50, 42, 34, 26, 18,
+            10, 2, 59, 51, 43, 35, 27, 19, 11, 3, 60, 52, 44, 36,
+            63, 55, 47, 39, 31, 23, 15, 7, 62, 54, 46, 38, 30, 22,
+            14, 6, 61, 53, 45, 37, 29, 21, 13, 5, 28, 20, 12, 4};
+    static final int[] PC2 = {
+            14, 17, 11, 24, 1, 5, 3, 28, 15, 6, 21, 10,
+            23, 19, 12, 4, 26, 8, 16, 7, 27, 20, 13, 2,
+            41, 52, 31, 37, 47, 55, 30, 40, 51, 45, 33, 48,
+            44, 49, 39, 56, 34, 53, 46, 42, 50, 36, 29, 32};
+    static final int[] SHIFTS = {1, 1, 2, 2, 2, 2, 2, 2, 1, 2, 2, 2, 2, 2, 2, 1};
+    static final int[][] S = {
+            {14, 4, 13, 1, 2, 15, 11, 8, 3, 10, 6, 12, 5, 9, 0, 7,
+                    0, 15, 7, 4, 14, 2, 13, 1, 10, 6, 12, 11, 9, 5, 3, 8,
+                    4, 1, 14, 8, 13, 6, 2, 11, 15, 12, 9, 7, 3, 10, 5, 0,
+                    15, 12, 8, 2, 4, 9, 1, 7, 5, 11, 3, 14, 10, 0, 6, 13},
+            {15, 1, 8, 14, 6, 11, 3, 4, 9, 7, 2, 13, 12, 0, 5, 10,
+                    3, 13, 4, 7, 15, 2, 8, 14, 12, 0, 1, 10, 6, 9, 11, 5,
+                    0, 14, 7, 11, 10, 4, 13, 1, 5, 8, 12, 6, 9, 3, 2, 15,
+                    13, 8, 10, 1, 3, 15, 4, 2, 11, 6, 7, 12, 0, 5, 14, 9},
+            {10, 0, 9, 14, 6, 3, 15, 5, 1, 13, 12, 7, 11, 4, 2, 8,
+                    13, 7, 0, 9, 3, 4, 6, 10, 2, 8, 5, 14, 12, 11, 15, 1,
+                    13, 6, 4, 9, 8, 15, 3, 0, 11, 1, 2, 12, 5, 10, 14, 7,
+                    1, 10, 13, 0, 6, 9, 8, 7, 4, 15, 14, 3, 11, 5, 2, 12},
+            {7, 13, 14, 3, 0, 6, 9, 10, 1, 2, 8, 5, 11, 12, 4, 15,
+                    13, 8, 11, 5, 6, 15, 0, 3, 4, 7, 2, 12, 1, 10, 14, 9,
+                    10, 6, 9, 0, 12, 11, 7, 13, 15, 1, 3, 14, 5, 2, 8, 4,
+                    3, 15, 0, 6, 10, 1, 13, 8, 9, 4, 5, 11, 12, 7, 2, 14},
+            {2, 12, 4, 1, 7, 10, 11, 6, 8, 5, 3, 15, 13, 0, 14, 9,
+                    14, 11, 2, 12, 4, 7, 13, 1, 5, 0, 15, 10, 3, 9, 8, 6,
+                    4, 2, 1, 11, 10, 13, 7, 8, 15, 9, 12, 5, 6, 3, 0, 14,
+                    11, 8, 12, 7, 1, 14, 2, 13, 6, 15, 0, 9, 10, 4, 5, 3},
+            {12, 1, 10, 15, 9, 2, 6, 8, 0, 13, 3, 4, 14, 7, 5, 11,
+                    10, 15, 4, 2, 7, 12, 9, 5, 6, 1, 13, 14, 0, 11, 3, 8,
+                    9, 14, 15, 5, 2, 8, 12, 3, 7, 0, 4, 10, 1, 13, 11, 6,
+                    4, 3, 2, 12, 9, 5, 15, 10, 11, 14, 1, 7, 6, 0, 8, 13},
+            {4, 11, 2, 14, 15, 0, 8, 13, 3, 12, 9, 7, 5, 10, 6, 1,
+                    13, 0, 11, 7, 4, 9, 1, 10, 14, 3, 5, 12, 2, 15, 8, 6,
+                    1, 4, 11, 13, 12, 3, 7, 14, 10, 15, 6, 8, 0, 5, 9, 2,
+                    6, 11, 13, 8, 1, 4, 10, 7, 9, 5, 0, 15, 14, 2, 3, 12},
+            {13, 2, 8, 4, 6, 15, 11, 1, 10, 9, 3, 14, 5, 0, 12, 7,
+                    1, 15, 13, 8, 10, 3, 7, 4, 12, 5, 6, 11, 0, 14, 9, 2,
+                    7, 11, 4, 1, 9, 12, 14, 2, 0, 6, 10, 13, 15, 3, 5, 8,
+                    2, 1, 14, 7, 4, 10, 8, 13, 15, 12, 9, 0, 3, 5, 6, 11}};
+
+    // SP[i << 6 | x] = P(S_i(x) в позиции ниббла i)
+    private static final int[] SP = new int[8 * 64];
+    // IP_T[p << 8 | v] = IP(v в позиции байта p, считая от старшего)
+    private static final long[] IP_T = new long[8 * 256];
+    private static final long[] FP_T = new long[8 * 256];
+
+    static {
+        for (int i = 0; i < 8; i++) {
+            for (int x = 0; x < 64; x++) {
+                int row = ((x >>> 4) & 2) | (x & 1);
+                int col = (x >>> 1) & 0xF;
+                long s = (long) S[i][row << 4 | col] << (28 - 4 * i);
+                SP[i << 6 | x] = (int) permute(s, P, 32);
+            }
+        }
+        for (int p = 0; p < 8; p++) {
+            for (int v = 0; v < 256; v++) {
+                long x = (long) v << (56 - 8 * p);
+                IP_T[p << 8 | v] = permute(x, IP, 64);
+                FP_T[p << 8 | v] = permute(x, FP, 64);
+            }
+        }
+    }
+
+    private final long key;
+    // Раундовые ключи: 16 раундов по 8 групп из 6 бит
+    private final int[] encKeys = new int[16 * 8];
+    private final int[] decKeys = new int[16 * 8];
+
+    /**
+     * @param key 64-битный ключ (младший бит каждого байта — бит чётности, не используется)
+     */
+    public DES(long key) {
+        this.key = key;
+        long cd = permute(key, PC1, 64);
+        int c = (int) (cd >>> 28) & 0xFFFFFFF;
+        int d = (int) cd & 0xFFFFFFF;
+        for (int r = 0; r < 16; r++) {
+            c = rotate28(c, SHIFTS[r]);
+            d = rotate28(d, SHIFTS[r]);
+            long k48 = permute((long) c << 28 | d, PC2, 56);
+            for (int i = 0; i < 8; i++) {
+                int chunk = (int) (k48 >>> (42 - 6 * i)) & 0x3F;
+                encKeys[r * 8 + i] = chunk;
+                decKeys[(15 - r) * 8 + i] = chunk;
+            }
+        }
+    }
+
+    /**
+     * @param key 8 байт ключа
+     * @throws IllegalArgumentException если длина ключа не 8 байт
+     */
+    public DES(byte[] key) {
+        this(toLong(key));
+    }
+
+    private static long toLong(byte[] key) {
+        if (key.length != BLOCK_BYTES) {
+            throw new IllegalArgumentException("Ключ DES должен содержать 8 байт: " + key.length);
+        }
+        return get(key, 0);
+    }
+
+    /** 64-битный ключ (с битами чётности, как был передан) */
+    public long key() {
+        return key;
+    }
+
+    /**
+     * Раундовые ключи K1..K16 (по 48 бит)
+     */
+    public long[] roundKeys() {
+        long[] result = new long[16];
+        for (int r = 0; r < 16; r++) {
+            for (int i = 0; i < 8; i++) {
+                result[r] = (result[r] << 6) | encKeys[r * 8 + i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long encrypt(long block) {
+        return crypt(block, encKeys);
+    }
+
+    @Override
+    public long decrypt(long block) {
+        return crypt(block, decKeys);
+    }
+
+    private static long crypt(long block, int[] k) {
+        long x = byteTable(IP_T, block);
+        int l = (int) (x >>> 32);
+        int r = (int) x;
+        for (int round = 0; round < 16; round++) {
+            int t = r;
+            r = l ^ f(r, k, round * 8);
+            l = t;
+        }
+        // После 16-го раунда половины не меняются местами
+        return byteTable(FP_T, (long) r << 32 | (l & 0xFFFFFFFFL));
+    }
+
+    /**
+     * f(R, K): 6-битная группа i расширения E — биты 4i..4i+5 R (по кругу), т.е. R, повёрнутый вправо на 27 - 4i
+     */
+    private static int f(int r, int[] k, int base) {
+        return SP[(Integer.rotateRight(r, 27) & 0x3F) ^ k[base]]
+                ^ SP[64 | ((Integer.rotateRight(r, 23) & 0x3F) ^ k[base + 1])]
+                ^ SP[128 | ((Integer.rotateRight(r, 19) & 0x3F) ^ k[base + 2])]
+                ^ SP[192 | ((Integer.rotateRight(r, 15) & 0x3F) ^ k[base + 3])]
+                ^ SP[256 | ((Integer.rotateRight(r, 11) & 0x3F) ^ k[base + 4])]
+                ^ SP[320 | ((Integer.rotateRight(r, 7) & 0x3F) ^ k[base + 5])]
+                ^ SP[384 | ((Integer.rotateRight(r, 3) & 0x3F) ^ k[base + 6])]
+                ^ SP[448 | ((Integer.rotateLeft(r, 1) & 0x3F) ^ k[base + 7])];
+    }
+
+    private static long byteTable(long[] t, long x) {
+        return t[(int) (x >>> 56)]
+                ^ t[256 | ((int) (x >>> 48) & 0xFF)]
+                ^ t[512 | ((int) (x >>> 40) & 0xFF)]
+                ^ t[768 | ((int) (x >>> 32) & 0xFF)]
+                ^ t[1024 | ((int) (x >>> 24) & 0xFF)]
+                ^ t[1280 | ((int) (x >>> 16) & 0xFF)]
+                ^ t[1536 | ((int) (x >>> 8) & 0xFF)]
+                ^ t[1792 | ((int) x & 0xFF)];
+    }
+
+    private static int rotate28(int x, int n) {
+        return ((x << n) | (x >>> (28 - n))) & 0xFFFFFFF;
+    }
+
+    /**
+     * Перестановка по таблице стандарта: бит j результата (с 1 от старшего) — бит table[j - 1] входа из inBits бит
+     */
+    static long permute(long x, int[] table, int inBits) {
+        long y = 0;
+        for (int t : table) {
+            y = (y << 1) | ((x >>> (inBits - t)) & 1);
+        }
+        return y;
+    }
+}
@@ -0,0 +1,36 @@
+package com.cryptography.main.task5;
+
+import com.cryptography.cipher.modes.BlockMode;
+import com.cryptography.utils.Benchmark;
+
+/**
+ * Сравнение пропускной способности S-DES, DES и 3DES этого пакета с реализациями JDK ("DES", "DESede")
+ * в режимах ECB, CBC и OFB одним и тем же замером {@link Benchmark}
+ */
+public class DESBenchmark {
+
+    private static final BlockMode[] MODES = {BlockMode.ECB, BlockMode.CBC, BlockMode.OFB};
+
+    public static void main(String[] args) throws Exception {
+        int bytes = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        bytes -= bytes % DESBlockCipher.BLOCK_BYTES;
+        Benchmark benchmark = new Benchmark(bytes, 3, 500);
+
+        S_DESKey sdes = S_DESKey.of(645);
+        benchmark.run("S-DES ECB", data -> sdes.encrypt_data(data, 0, data.length));
+        benchmark.run("S-DES CBC", data -> sdes.encrypt_data_cbc(data, 0, data.length, 56));
+        benchmark.run("S-DES OFB", data -> sdes.encrypt_data_ofb(data, 0, data.length, 234));
+
+        byte[] desKey = {0x13, 0x34, 0x57, 0x79, (byte) 0x9B, (byte) 0xBC, (byte) 0xDF, (byte) 0xF1};
+        byte[] tripleKey = new byte[24];
+        for (int i = 0; i < tripleKey.length; i++) {
+            tripleKey[i] = (byte) (i * 37 + 11);
+        }
+        byte[] iv = {1, 2, 3, 4, 5, 6, 7, 8};
+        benchmark.compareWithJdk("DES", new DES(desKey), "DES", desKey, iv, MODES);
+        benchmark.compareWithJdk("DESede", new TripleDES(tripleKey), "DESede", tripleKey, iv, MODES);
+
+        System.out.println("=== Пропускная способность, буфер " + bytes + " байт ===");
+        System.out.print(benchmark.report());
+    }
+}
@@ -0,0 +1,128 @@
+package com.cryptography.main.task5;
+
+import com.cryptography.cipher.modes.BlockCipher;
+import com.cryptography.cipher.modes.BlockMode;
+import com.cryptography.cipher.modes.BlockModes;
+
+/**
+ * Общая часть 64-битных шифров {@link DES} и {@link TripleDES}: {@link BlockCipher} над 8-байтовыми блоками
+ * и режимы над byte[] на месте через {@link BlockModes}, с состоянием режима в виде long, по той же схеме,
+ * что и у {@link S_DESKey} (CBC и OFB возвращают состояние для следующего участка).
+ * <p>
+ * Блок читается из массива в порядке big-endian, как в стандарте DES; длина участка должна быть
+ * кратна 8 байтам. Наследники неизменяемы и могут использоваться из нескольких потоков.
+ */
+public abstract class DESBlockCipher implements BlockCipher {
+
+    /** Размер блока в байтах */
+    public static final int BLOCK_BYTES = 8;
+
+    DESBlockCipher() {
+    }
+
+    /**
+     * Шифрование одного 64-битного блока
+     */
+    public abstract long encrypt(long block);
+
+    /**
+     * Расшифрование одного 64-битного блока
+     */
+    public abstract long decrypt(long block);
+
+    @Override
+    public int blockBytes() {
+        return BLOCK_BYTES;
+    }
+
+    @Override
+    public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        put(out, outOff, encrypt(get(in, inOff)));
+    }
+
+    @Override
+    public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        put(out, outOff, decrypt(get(in, inOff)));
+    }
+
+    /**
+     * Шифрование ECB на месте
+     */
+    public void encrypt_data(byte[] data, int off, int len) {
+        BlockModes.encryptECB(this, data, off, len);
+    }
+
+    /**
+     * Расшифрование ECB на месте
+     */
+    public void decrypt_data(byte[] data, int off, int len) {
+        BlockModes.decryptECB(this, data, off, len);
+    }
+
+    /**
+     * Шифрование CBC на месте
+     * @param iv вектор инициализации или последний блок шифротекста предыдущего участка
+     * @return последний блок шифротекста
+     */
+    public long encrypt_data_cbc(byte[] data, int off, int len, long iv) {
+        return transform(BlockMode.CBC, true, data, off, len, iv);
+    }
+
+    /**
+     * Расшифрование CBC на месте
+     * @param iv вектор инициализации или последний блок шифротекста предыдущего участка
+     * @return последний блок шифротекста
+     */
+    public long decrypt_data_cbc(byte[] data, int off, int len, long iv) {
+        return transform(BlockMode.CBC, false, data, off, len, iv);
+    }
+
+    /**
+     * OFB на месте (шифрование и расшифрование совпадают)
+     * @param iv вектор инициализации или состояние гаммы предыдущего участка
+     * @return состояние гаммы
+     */
+    public long encrypt_data_ofb(byte[] data, int off, int len, long iv) {
+        return transform(BlockMode.OFB, true, data, off, len, iv);
+    }
+
+    /**
+     * Расшифрование OFB на месте (совпадает с шифрованием)
+     */
+    public long decrypt_data_ofb(byte[] data, int off, int len, long iv) {
+        return encrypt_data_ofb(data, off, len, iv);
+    }
+
+    /**
+     * Обработка участка на месте в заданном режиме (см. {@link BlockModes#transform})
+     * @param state IV, счётчик или состояние режима после предыдущего участка (в ECB не используется)
+     * @return состояние режима для следующего участка
+     */
+    public long transform(BlockMode mode, boolean encrypt, byte[] data, int off, int len, long state) {
+        byte[] iv = new byte[BLOCK_BYTES];
+        put(iv, 0, state);
+        BlockModes.transform(this, mode, encrypt, data, off, len, iv);
+        return get(iv, 0);
+    }
+
+    /**
+     * 64-битное значение из 8 байтов, начиная с off (big-endian)
+     */
+    public static long get(byte[] data, int off) {
+        long v = 0;
+        for (int i = 0; i < BLOCK_BYTES; i++) {
+            v = (v << 8) | (data[off + i] & 0xFF);
+        }
+        return v;
+    }
+
+    /**
+     * Запись 64-битного значения в 8 байтов, начиная с off (big-endian)
+     */
+    public static void put(byte[] data, int off, long v) {
+        for (int i = BLOCK_BYTES - 1; i >= 0; i--) {
+            data[off + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.cryptography.main.task5;
 
+import com.cryptography.cipher.modes.BlockMode;
 import com.cryptography.utils.FileUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * Реализация алгоритма S-DES (Simplified DES)
  * <p>
@@ -51,10 +59,23 @@ public class S_DES {
     /**
      * Алгоритм расширения ключа
      * Формирует из ключа шифрования key два раундовых ключа k1, k2
+     * Раундовые ключи берутся из общей таблицы {@link S_DESKeySchedule}
      * 
      * @param key 10-битный ключ шифрования
      */
     public void key_schedule(int key) {
+        int packed = S_DESKeySchedule.packed(key);
+        this.k1 = packed >>> 8;
+        this.k2 = packed & 0xFF;
+    }
+
+    /**
+     * Вычисление раундовых ключей по перестановкам P10, LS-1, LS-2, P8 (для построения таблицы)
+     * 
+     * @param key 10-битный ключ шифрования
+     * @return k1 << 8 | k2
+     */
+    int compute_key_schedule(int key) {
         // Шаг 1: Применяем P10 перестановку
         int p10_result = pbox(key, P10, 10);
         
@@ -70,7 +91,7 @@ public class S_DES {
         int combined_ls1 = (left_ls1 << 5) | right_ls1;
         
         // Шаг 3: Применяем P8 для получения K1
-        this.k1 = pbox(combined_ls1, P8, 10);
+        int k1 = pbox(combined_ls1, P8, 10);
         
         // Шаг 4: LS-2 (Left Shift 2) применяется к результатам LS-1
         int left_ls2 = pbox(left_ls1, LS2, 5);
@@ -80,7 +101,8 @@ public class S_DES {
         int combined_ls2 = (left_ls2 << 5) | right_ls2;
         
         // Шаг 5: Применяем P8 для получения K2
-        this.k2 = pbox(combined_ls2, P8, 10);
+        int k2 = pbox(combined_ls2, P8, 10);
+        return (k1 << 8) | k2;
     }
     
     /**
@@ -228,30 +250,24 @@ public class S_DES {
 
     /**
      * Шифрование массива байт
+     * Выполняется по таблицам {@link S_DESKey} (одно обращение на байт)
      * @param data массив байт для шифрования
      * @param master_key 10-битный мастер-ключ (0..1023)
      * @return массив зашифрованных байт
      */
     public int[] encrypt_data(int[] data, int master_key) {
-        int[] result = new int[data.length];
-        for (int i = 0; i < data.length; i++) {
-            result[i] = encrypt(data[i] & 0xFF, master_key);
-        }
-        return result;
+        return S_DESKey.of(master_key).encrypt_data(data);
     }
 
     /**
      * Расшифрование массива байт
+     * Выполняется по таблицам {@link S_DESKey} (одно обращение на байт)
      * @param data массив зашифрованных байт
      * @param master_key 10-битный мастер-ключ (0..1023)
      * @return массив расшифрованных байт
      */
     public int[] decrypt_data(int[] data, int master_key) {
-        int[] result = new int[data.length];
-        for (int i = 0; i < data.length; i++) {
-            result[i] = decrypt(data[i] & 0xFF, master_key);
-        }
-        return result;
+        return S_DESKey.of(master_key).decrypt_data(data);
     }
 
     /**
@@ -287,73 +303,38 @@ public class S_DES {
 
     /**
      * Шифрование данных в режиме CBC (Cipher Block Chaining)
+     * Выполняется по таблицам {@link S_DESKey} (одно обращение на байт)
      * @param data массив байт для шифрования
      * @param master_key мастер-ключ
      * @param iv вектор инициализации
      * @return зашифрованный массив байт
      */
     public int[] encrypt_data_cbc(int[] data, int master_key, int iv) {
-        int[] result = new int[data.length];
-        int previousBlock = iv; // Начинаем с IV
-        
-        for (int i = 0; i < data.length; i++) {
-            // XOR с предыдущим блоком (или IV для первого блока)
-            int xorResult = data[i] ^ previousBlock;
-            
-            // Шифруем результат XOR
-            int encrypted = encrypt(xorResult, master_key);
-            
-            result[i] = encrypted;
-            previousBlock = encrypted; // Обновляем для следующего блока
-        }
-        
-        return result;
+        return S_DESKey.of(master_key).encrypt_data_cbc(data, iv);
     }
 
     /**
      * Расшифрование данных в режиме CBC (Cipher Block Chaining)
+     * Выполняется по таблицам {@link S_DESKey} (одно обращение на байт)
      * @param data массив байт для расшифрования
      * @param master_key мастер-ключ
      * @param iv вектор инициализации
      * @return расшифрованный массив байт
      */
     public int[] decrypt_data_cbc(int[] data, int master_key, int iv) {
-        int[] result = new int[data.length];
-        int previousBlock = iv; // Начинаем с IV
-        
-        for (int i = 0; i < data.length; i++) {
-            // Расшифровываем текущий блок
-            int decrypted = decrypt(data[i], master_key);
-            
-            // XOR с предыдущим зашифрованным блоком (или IV для первого блока)
-            result[i] = decrypted ^ previousBlock;
-            
-            previousBlock = data[i]; // Обновляем для следующего блока
-        }
-        
-        return result;
+        return S_DESKey.of(master_key).decrypt_data_cbc(data, iv);
     }
 
     /**
      * Шифрование данных в режиме OFB (Output Feedback)
+     * Выполняется по таблицам {@link S_DESKey} (одно обращение на байт)
      * @param data массив байт для шифрования
      * @param master_key мастер-ключ
      * @param iv вектор инициализации
      * @return зашифрованный массив байт
      */
     public int[] encrypt_data_ofb(int[] data, int master_key, int iv) {
-        int[] result = new int[data.length];
-        int keystream = iv; // Начинаем с IV
-        
-        for (int i = 0; i < data.length; i++) {
-            // Генерируем следующий элемент keystream
-            keystream = encrypt(keystream, master_key);
-            
-            // XOR с данными
-            result[i] = data[i] ^ keystream;
-        }
-        
-        return result;
+        return S_DESKey.of(master_key).encrypt_data_ofb(data, iv);
     }
 
     /**
@@ -368,6 +349,90 @@ public class S_DES {
         return encrypt_data_ofb(data, master_key, iv);
     }
     
+    /**
+     * Шифрование участка массива байт на месте (ECB)
+     * @param data массив байт
+     * @param off начало участка
+     * @param len длина участка
+     * @param master_key 10-битный мастер-ключ (0..1023)
+     */
+    public void encrypt_data(byte[] data, int off, int len, int master_key) {
+        S_DESKey.of(master_key).encrypt_data(data, off, len);
+    }
+
+    /**
+     * Расшифрование участка массива байт на месте (ECB)
+     */
+    public void decrypt_data(byte[] data, int off, int len, int master_key) {
+        S_DESKey.of(master_key).decrypt_data(data, off, len);
+    }
+
+    /**
+     * Шифрование участка массива байт на месте в режиме CBC
+     * @return последний блок шифротекста (IV для следующего участка)
+     */
+    public int encrypt_data_cbc(byte[] data, int off, int len, int master_key, int iv) {
+        return S_DESKey.of(master_key).encrypt_data_cbc(data, off, len, iv);
+    }
+
+    /**
+     * Расшифрование участка массива байт на месте в режиме CBC
+     * @return последний блок шифротекста (IV для следующего участка)
+     */
+    public int decrypt_data_cbc(byte[] data, int off, int len, int master_key, int iv) {
+        return S_DESKey.of(master_key).decrypt_data_cbc(data, off, len, iv);
+    }
+
+    /**
+     * Шифрование участка массива байт на месте в режиме OFB
+     * @return состояние гаммы (IV для следующего участка)
+     */
+    public int encrypt_data_ofb(byte[] data, int off, int len, int master_key, int iv) {
+        return S_DESKey.of(master_key).encrypt_data_ofb(data, off, len, iv);
+    }
+
+    /**
+     * Расшифрование участка массива байт на месте в режиме OFB (совпадает с шифрованием)
+     */
+    public int decrypt_data_ofb(byte[] data, int off, int len, int master_key, int iv) {
+        return encrypt_data_ofb(data, off, len, master_key, iv);
+    }
+
+    /**
+     * Потоковое шифрование файла через {@link S_DESOutputStream}, без загрузки файла в память
+     * @param mode ECB, CBC или OFB
+     * @param iv вектор инициализации (не используется в ECB)
+     * @return количество обработанных байт
+     */
+    public long encryptFile(String inputFile, String outputFile, int master_key, BlockMode mode, int iv)
+            throws IOException {
+        return transformFile(inputFile, outputFile, master_key, mode, iv, true);
+    }
+
+    /**
+     * Потоковое расшифрование файла через {@link S_DESOutputStream}, без загрузки файла в память
+     * @param mode ECB, CBC или OFB
+     * @param iv вектор инициализации (не используется в ECB)
+     * @return количество обработанных байт
+     */
+    public long decryptFile(String inputFile, String outputFile, int master_key, BlockMode mode, int iv)
+            throws IOException {
+        return transformFile(inputFile, outputFile, master_key, mode, iv, false);
+    }
+
+    private long transformFile(String inputFile, String outputFile, int master_key, BlockMode mode, int iv,
+                               boolean encrypt) throws IOException {
+        Path output = Paths.get(outputFile);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (InputStream in = Files.newInputStream(Paths.get(inputFile));
+             OutputStream out = new S_DESOutputStream(Files.newOutputStream(output),
+                     S_DESKey.of(master_key), mode, iv, encrypt)) {
+            return in.transferTo(out);
+        }
+    }
+
     /**
      * Возвращает первый раундовый ключ K1
      * 
@@ -0,0 +1,140 @@
+package com.cryptography.main.task5;
+
+import com.cryptography.utils.KeySieve;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Полная кодовая книга S-DES: шифрование и расшифрование всех 256 блоков для всех 1024 ключей (512 КиБ).
+ * <p>
+ * Элемент [key << 8 | p] первой половины — E_key(p), второй половины — D_key(c), поэтому любое
+ * шифрование или расшифрование — одно обращение по индексу. Книга строится параллельно
+ * при первом обращении к {@link #shared()} или может храниться в файле и отображаться в память
+ * ({@link #open(Path)}, {@link #load(Path)}). Экземпляр только читается и безопасен для нескольких потоков.
+ */
+public final class S_DESCodebook {
+
+    /** Число ключей S-DES */
+    public static final int KEYS = 1024;
+
+    /** Размер книги в байтах: 2 * 1024 * 256 */
+    public static final int SIZE = 2 * KEYS * 256;
+
+    private static final int DECRYPT_OFFSET = KEYS * 256;
+
+    private final ByteBuffer book;
+
+    private S_DESCodebook(ByteBuffer book) {
+        this.book = book;
+    }
+
+    private static final class Holder {
+        static final S_DESCodebook SHARED = build();
+    }
+
+    /**
+     * Общая книга в памяти (строится при первом вызове)
+     */
+    public static S_DESCodebook shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Параллельное построение книги в памяти
+     */
+    public static S_DESCodebook build() {
+        byte[] book = new byte[SIZE];
+        IntStream.range(0, KEYS).parallel().forEach(key -> {
+            S_DESKey k = new S_DESKey(key);
+            for (int p = 0; p < 256; p++) {
+                int c = k.encrypt(p);
+                book[key << 8 | p] = (byte) c;
+                book[DECRYPT_OFFSET + (key << 8 | c)] = (byte) p;
+            }
+        });
+        return new S_DESCodebook(ByteBuffer.wrap(book).asReadOnlyBuffer());
+    }
+
+    /**
+     * Отображение сохранённой книги в память
+     * @throws IOException если файл не читается или не является кодовой книгой S-DES
+     */
+    public static S_DESCodebook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != SIZE) {
+                throw new IOException("Неверный размер кодовой книги S-DES: " + channel.size() + " байт");
+            }
+            S_DESCodebook codebook = new S_DESCodebook(channel.map(FileChannel.MapMode.READ_ONLY, 0, SIZE));
+            // Выборочная проверка против табличного ключа: крайние ключи и один из середины
+            for (int key : new int[]{0, 645, KEYS - 1}) {
+                S_DESKey k = S_DESKey.of(key);
+                for (int p = 0; p < 256; p++) {
+                    if (codebook.encrypt(key, p) != k.encrypt(p) || codebook.decrypt(key, p) != k.decrypt(p)) {
+                        throw new IOException("Файл не является кодовой книгой S-DES: " + file);
+                    }
+                }
+            }
+            return codebook;
+        }
+    }
+
+    /**
+     * Книга из файла; если файла нет, она строится и сохраняется
+     * @throws IOException если произошла ошибка при чтении или записи файла
+     */
+    public static S_DESCodebook load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            build().save(file);
+        }
+        return open(file);
+    }
+
+    /**
+     * Сохранение книги в файл
+     * @throws IOException если произошла ошибка при записи файла
+     */
+    public void save(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer source = book.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                out.write(source);
+            }
+        }
+    }
+
+    /**
+     * Решето всех 1024 ключей S-DES, проверяющее пары по этой книге
+     */
+    public KeySieve keySieve() {
+        return new KeySieve(10, 8, this::encrypt);
+    }
+
+    /**
+     * E_key(block)
+     * @param key 10-битный ключ
+     * @param block 8-битный блок
+     */
+    public int encrypt(int key, int block) {
+        return book.get((key & 0x3FF) << 8 | (block & 0xFF)) & 0xFF;
+    }
+
+    /**
+     * D_key(block)
+     * @param key 10-битный ключ
+     * @param block 8-битный блок
+     */
+    public int decrypt(int key, int block) {
+        return book.get(DECRYPT_OFFSET + ((key & 0x3FF) << 8 | (block & 0xFF))) & 0xFF;
+    }
+}
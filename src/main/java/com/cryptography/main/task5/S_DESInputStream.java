@@ -0,0 +1,84 @@
+package com.cryptography.main.task5;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Поток, шифрующий или расшифровывающий S-DES байты нижележащего потока по мере чтения.
+ * <p>
+ * Прочитанные байты обрабатываются на месте в массиве вызывающего кода, состояние режима
+ * CBC/OFB переносится между вызовами, поэтому файл любого размера обрабатывается без загрузки
+ * в память целиком. Пропуск байтов читает и отбрасывает их, чтобы не нарушить цепочку режима;
+ * mark/reset не поддерживаются.
+ */
+public class S_DESInputStream extends FilterInputStream {
+
+    private final S_DESKey key;
+    private final BlockMode mode;
+    private final boolean encrypt;
+    private final byte[] single = new byte[1]; // буфер для read() без выделения памяти на каждый байт
+    private int state;
+
+    /**
+     * @param in исходный поток
+     * @param key ключ S-DES
+     * @param mode ECB, CBC или OFB
+     * @param iv 8-битный вектор инициализации (не используется в ECB)
+     * @param encrypt true — шифровать, false — расшифровывать
+     * @throws IllegalArgumentException если режим не поддерживается
+     */
+    public S_DESInputStream(InputStream in, S_DESKey key, BlockMode mode, int iv, boolean encrypt) {
+        super(in);
+        S_DESKey.checkMode(mode);
+        this.key = key;
+        this.mode = mode;
+        this.encrypt = encrypt;
+        this.state = iv & 0xFF;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(single, 0, 1);
+        return n <= 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            state = key.transform(mode, encrypt, b, off, n, state);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] discard = new byte[(int) Math.min(n, 4096)];
+        long skipped = 0;
+        while (skipped < n) {
+            int r = read(discard, 0, (int) Math.min(discard.length, n - skipped));
+            if (r < 0) {
+                break;
+            }
+            skipped += r;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset не поддерживаются");
+    }
+}
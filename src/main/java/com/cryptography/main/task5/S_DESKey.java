@@ -0,0 +1,338 @@
+package com.cryptography.main.task5;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Неизменяемый ключ S-DES с таблицами шифрования и расшифрования на все 256 блоков.
+ * <p>
+ * Раундовые ключи и обе перестановки вычисляются один раз при создании, поэтому шифрование
+ * блока — одно обращение к таблице, без повторного key_schedule и сети Фейстеля. Экземпляр
+ * не имеет изменяемого состояния и может использоваться из нескольких потоков;
+ * {@link #of(int)} возвращает общий экземпляр для каждого из 1024 ключей.
+ * <p>
+ * Кроме методов над int[] есть варианты для byte[] (с отступом и длиной) и ByteBuffer, которые
+ * работают на месте без промежуточных массивов; CBC и OFB возвращают состояние режима
+ * (последний блок шифротекста или гаммы), чтобы продолжить обработку следующего участка.
+ */
+public final class S_DESKey {
+
+    private static final AtomicReferenceArray<S_DESKey> CACHE = new AtomicReferenceArray<>(1024);
+
+    private final int key;
+    private final int k1;
+    private final int k2;
+    private final int[] enc = new int[256];
+    private final int[] dec = new int[256];
+
+    /**
+     * @param key 10-битный мастер-ключ (используются младшие 10 бит)
+     */
+    public S_DESKey(int key) {
+        S_DES sdes = new S_DES();
+        this.key = key & 0x3FF;
+        this.k1 = S_DESKeySchedule.k1(key);
+        this.k2 = S_DESKeySchedule.k2(key);
+        for (int p = 0; p < 256; p++) {
+            int c = sdes.sdes(p, k1, k2);
+            enc[p] = c;
+            dec[c] = p;
+        }
+    }
+
+    /**
+     * Общий экземпляр для ключа (создаётся при первом обращении)
+     * @param key 10-битный мастер-ключ
+     */
+    public static S_DESKey of(int key) {
+        int k = key & 0x3FF;
+        S_DESKey cached = CACHE.get(k);
+        if (cached == null) {
+            CACHE.compareAndSet(k, null, new S_DESKey(k));
+            cached = CACHE.get(k);
+        }
+        return cached;
+    }
+
+    /** 10-битный мастер-ключ */
+    public int key() {
+        return key;
+    }
+
+    /** Первый раундовый ключ K1 */
+    public int k1() {
+        return k1;
+    }
+
+    /** Второй раундовый ключ K2 */
+    public int k2() {
+        return k2;
+    }
+
+    /**
+     * Таблица шифрования: элемент p — зашифрованный блок p
+     */
+    public int[] encryptionTable() {
+        return enc.clone();
+    }
+
+    /**
+     * Таблица расшифрования: элемент c — расшифрованный блок c
+     */
+    public int[] decryptionTable() {
+        return dec.clone();
+    }
+
+    public int encrypt(int block) {
+        return enc[block & 0xFF];
+    }
+
+    public int decrypt(int block) {
+        return dec[block & 0xFF];
+    }
+
+    /**
+     * Шифрование массива байт (ECB)
+     */
+    public int[] encrypt_data(int[] data) {
+        int[] result = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = enc[data[i] & 0xFF];
+        }
+        return result;
+    }
+
+    /**
+     * Расшифрование массива байт (ECB)
+     */
+    public int[] decrypt_data(int[] data) {
+        int[] result = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = dec[data[i] & 0xFF];
+        }
+        return result;
+    }
+
+    /**
+     * Шифрование в режиме CBC
+     * @param iv 8-битный вектор инициализации
+     */
+    public int[] encrypt_data_cbc(int[] data, int iv) {
+        int[] result = new int[data.length];
+        int previous = iv & 0xFF;
+        for (int i = 0; i < data.length; i++) {
+            previous = enc[(data[i] ^ previous) & 0xFF];
+            result[i] = previous;
+        }
+        return result;
+    }
+
+    /**
+     * Расшифрование в режиме CBC
+     * @param iv 8-битный вектор инициализации
+     */
+    public int[] decrypt_data_cbc(int[] data, int iv) {
+        int[] result = new int[data.length];
+        int previous = iv & 0xFF;
+        for (int i = 0; i < data.length; i++) {
+            int c = data[i] & 0xFF;
+            result[i] = dec[c] ^ previous;
+            previous = c;
+        }
+        return result;
+    }
+
+    /**
+     * Шифрование в режиме OFB
+     * @param iv 8-битный вектор инициализации
+     */
+    public int[] encrypt_data_ofb(int[] data, int iv) {
+        int[] result = new int[data.length];
+        int keystream = iv & 0xFF;
+        for (int i = 0; i < data.length; i++) {
+            keystream = enc[keystream];
+            result[i] = (data[i] ^ keystream) & 0xFF;
+        }
+        return result;
+    }
+
+    /**
+     * Расшифрование в режиме OFB (совпадает с шифрованием)
+     */
+    public int[] decrypt_data_ofb(int[] data, int iv) {
+        return encrypt_data_ofb(data, iv);
+    }
+
+    /**
+     * Шифрование ECB на месте
+     */
+    public void encrypt_data(byte[] data, int off, int len) {
+        Objects.checkFromIndexSize(off, len, data.length);
+        for (int i = off; i < off + len; i++) {
+            data[i] = (byte) enc[data[i] & 0xFF];
+        }
+    }
+
+    /**
+     * Расшифрование ECB на месте
+     */
+    public void decrypt_data(byte[] data, int off, int len) {
+        Objects.checkFromIndexSize(off, len, data.length);
+        for (int i = off; i < off + len; i++) {
+            data[i] = (byte) dec[data[i] & 0xFF];
+        }
+    }
+
+    /**
+     * Шифрование CBC на месте
+     * @param iv 8-битный вектор инициализации или последний блок шифротекста предыдущего участка
+     * @return последний блок шифротекста
+     */
+    public int encrypt_data_cbc(byte[] data, int off, int len, int iv) {
+        Objects.checkFromIndexSize(off, len, data.length);
+        int previous = iv & 0xFF;
+        for (int i = off; i < off + len; i++) {
+            previous = enc[(data[i] ^ previous) & 0xFF];
+            data[i] = (byte) previous;
+        }
+        return previous;
+    }
+
+    /**
+     * Расшифрование CBC на месте
+     * @param iv 8-битный вектор инициализации или последний блок шифротекста предыдущего участка
+     * @return последний блок шифротекста
+     */
+    public int decrypt_data_cbc(byte[] data, int off, int len, int iv) {
+        Objects.checkFromIndexSize(off, len, data.length);
+        int previous = iv & 0xFF;
+        for (int i = off; i < off + len; i++) {
+            int c = data[i] & 0xFF;
+            data[i] = (byte) (dec[c] ^ previous);
+            previous = c;
+        }
+        return previous;
+    }
+
+    /**
+     * OFB на месте (шифрование и расшифрование совпадают)
+     * @param iv 8-битный вектор инициализации или состояние гаммы предыдущего участка
+     * @return состояние гаммы
+     */
+    public int encrypt_data_ofb(byte[] data, int off, int len, int iv) {
+        Objects.checkFromIndexSize(off, len, data.length);
+        int keystream = iv & 0xFF;
+        for (int i = off; i < off + len; i++) {
+            keystream = enc[keystream];
+            data[i] ^= (byte) keystream;
+        }
+        return keystream;
+    }
+
+    /**
+     * Расшифрование OFB на месте (совпадает с шифрованием)
+     */
+    public int decrypt_data_ofb(byte[] data, int off, int len, int iv) {
+        return encrypt_data_ofb(data, off, len, iv);
+    }
+
+    /**
+     * Шифрование ECB оставшихся байтов буфера на месте; позиция переходит на limit
+     */
+    public void encrypt_data(ByteBuffer buffer) {
+        transform(BlockMode.ECB, true, buffer, 0);
+    }
+
+    /**
+     * Расшифрование ECB оставшихся байтов буфера на месте; позиция переходит на limit
+     */
+    public void decrypt_data(ByteBuffer buffer) {
+        transform(BlockMode.ECB, false, buffer, 0);
+    }
+
+    /**
+     * Шифрование CBC оставшихся байтов буфера на месте
+     * @return последний блок шифротекста
+     */
+    public int encrypt_data_cbc(ByteBuffer buffer, int iv) {
+        return transform(BlockMode.CBC, true, buffer, iv);
+    }
+
+    /**
+     * Расшифрование CBC оставшихся байтов буфера на месте
+     * @return последний блок шифротекста
+     */
+    public int decrypt_data_cbc(ByteBuffer buffer, int iv) {
+        return transform(BlockMode.CBC, false, buffer, iv);
+    }
+
+    /**
+     * OFB оставшихся байтов буфера на месте
+     * @return состояние гаммы
+     */
+    public int encrypt_data_ofb(ByteBuffer buffer, int iv) {
+        return transform(BlockMode.OFB, true, buffer, iv);
+    }
+
+    /**
+     * Расшифрование OFB на месте (совпадает с шифрованием)
+     */
+    public int decrypt_data_ofb(ByteBuffer buffer, int iv) {
+        return encrypt_data_ofb(buffer, iv);
+    }
+
+    /**
+     * Обработка участка на месте в одном из режимов ECB, CBC, OFB
+     * @param state IV или состояние режима после предыдущего участка
+     * @return состояние режима для следующего участка
+     */
+    int transform(BlockMode mode, boolean encrypt, byte[] data, int off, int len, int state) {
+        switch (mode) {
+            case ECB:
+                if (encrypt) {
+                    encrypt_data(data, off, len);
+                } else {
+                    decrypt_data(data, off, len);
+                }
+                return state;
+            case CBC:
+                return encrypt ? encrypt_data_cbc(data, off, len, state) : decrypt_data_cbc(data, off, len, state);
+            case OFB:
+                return encrypt_data_ofb(data, off, len, state);
+            default:
+                throw new IllegalArgumentException("Поддерживаются режимы ECB, CBC и OFB: " + mode);
+        }
+    }
+
+    private int transform(BlockMode mode, boolean encrypt, ByteBuffer buffer, int state) {
+        int position = buffer.position();
+        int len = buffer.remaining();
+        if (buffer.hasArray()) {
+            state = transform(mode, encrypt, buffer.array(), buffer.arrayOffset() + position, len, state);
+        } else {
+            // Прямой буфер обрабатывается через небольшой промежуточный массив
+            byte[] chunk = new byte[Math.min(len, 4096)];
+            for (int done = 0; done < len; done += chunk.length) {
+                int n = Math.min(chunk.length, len - done);
+                buffer.get(position + done, chunk, 0, n);
+                state = transform(mode, encrypt, chunk, 0, n, state);
+                buffer.put(position + done, chunk, 0, n);
+            }
+        }
+        buffer.position(position + len);
+        return state;
+    }
+
+    /**
+     * Проверка режима для потоковых классов и {@link S_DESKeyRecovery}
+     * @throws IllegalArgumentException если режим не ECB, CBC или OFB
+     */
+    static void checkMode(BlockMode mode) {
+        if (mode != BlockMode.ECB && mode != BlockMode.CBC && mode != BlockMode.OFB) {
+            throw new IllegalArgumentException("Поддерживаются режимы ECB, CBC и OFB: " + mode);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.cryptography.main.task5;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Восстановление 10-битного ключа S-DES (и 8-битного IV) по зашифрованному файлу в режимах ECB, CBC и OFB.
+ * <p>
+ * С известным открытым текстом (например, заголовком BMP, {@link #bmpCrib(long)}) для каждого ключа
+ * IV определяется первым байтом: в CBC IV = D_k(c_0) XOR p_0, в OFB IV = D_k(c_0 XOR p_0), так что
+ * все 1024 × 256 пар (ключ, IV) покрываются перебором ключей. Остальные байты проверяются до
+ * первого несовпадения.
+ * <p>
+ * Без открытого текста кандидаты ранжируются по оценке расшифрованного начала файла: правдоподобие
+ * заголовка BMP минус энтропия байтов (у изображений она заметно ниже 8 бит). В CBC IV влияет только
+ * на первый байт и подбирается так, чтобы файл начинался с 'B'; в OFB все 2^18 пар (ключ, IV)
+ * сначала оцениваются по короткому началу, затем лучшие — по полному образцу.
+ * <p>
+ * Все вычисления идут по {@link S_DESCodebook} без раундов Фейстеля, ключи перебираются параллельно.
+ */
+public final class S_DESKeyRecovery {
+
+    /** Сколько лучших кандидатов возвращается */
+    public static final int RANKING_SIZE = 16;
+
+    /** Размер образца для оценки без открытого текста */
+    public static final int SAMPLE_BYTES = 4096;
+
+    // Короткое начало для предварительной оценки пар (ключ, IV) в OFB
+    private static final int PREFIX_BYTES = 64;
+    private static final int REFINE = 64;
+
+    // C_LOG_C[c] = c * log2(c), LOG2[n] = log2(n) для n ≤ SAMPLE_BYTES
+    private static final double[] C_LOG_C = new double[SAMPLE_BYTES + 1];
+    private static final double[] LOG2 = new double[SAMPLE_BYTES + 1];
+
+    static {
+        for (int c = 1; c <= SAMPLE_BYTES; c++) {
+            LOG2[c] = Math.log(c) / Math.log(2);
+            C_LOG_C[c] = c * LOG2[c];
+        }
+    }
+
+    private final S_DESCodebook codebook;
+
+    public S_DESKeyRecovery() {
+        this(S_DESCodebook.shared());
+    }
+
+    public S_DESKeyRecovery(S_DESCodebook codebook) {
+        this.codebook = codebook;
+    }
+
+    /**
+     * Известные байты заголовка BMP: 'BM', размер файла (4 байта, little-endian) и 4 нулевых зарезервированных байта
+     * @param fileSize размер файла в байтах
+     */
+    public static int[] bmpCrib(long fileSize) {
+        return new int[]{'B', 'M',
+                (int) (fileSize & 0xFF), (int) ((fileSize >>> 8) & 0xFF),
+                (int) ((fileSize >>> 16) & 0xFF), (int) ((fileSize >>> 24) & 0xFF),
+                0, 0, 0, 0};
+    }
+
+    /**
+     * Поиск по известному началу открытого текста
+     * @param cipher шифротекст
+     * @param crib известные байты открытого текста с начала файла
+     * @param mode ECB, CBC или OFB
+     * @return кандидаты по убыванию числа совпавших байтов
+     */
+    public Result knownPlaintext(int[] cipher, int[] crib, BlockMode mode) {
+        S_DESKey.checkMode(mode);
+        int n = Math.min(cipher.length, crib.length);
+        if (n == 0) {
+            throw new IllegalArgumentException("Нужен хотя бы один известный байт открытого текста");
+        }
+        long start = System.nanoTime();
+        List<Candidate> all = IntStream.range(0, S_DESCodebook.KEYS).parallel()
+                .mapToObj(key -> matchKey(key, cipher, crib, n, mode))
+                .collect(Collectors.toList());
+        return new Result(top(all), System.nanoTime() - start);
+    }
+
+    private Candidate matchKey(int key, int[] cipher, int[] crib, int n, BlockMode mode) {
+        int c0 = cipher[0] & 0xFF;
+        int p0 = crib[0] & 0xFF;
+        int iv;
+        switch (mode) {
+            case ECB:
+                iv = -1;
+                if (codebook.encrypt(key, p0) != c0) {
+                    return new Candidate(key, iv, 0);
+                }
+                break;
+            case CBC:
+                iv = codebook.decrypt(key, c0) ^ p0;
+                break;
+            default:
+                iv = codebook.decrypt(key, c0 ^ p0);
+                break;
+        }
+        int matched = 1;
+        int state = c0 ^ p0;
+        for (int i = 1; i < n; i++, matched++) {
+            int c = cipher[i] & 0xFF;
+            int p = crib[i] & 0xFF;
+            boolean ok;
+            switch (mode) {
+                case ECB:
+                    ok = codebook.encrypt(key, p) == c;
+                    break;
+                case CBC:
+                    ok = codebook.encrypt(key, p ^ (cipher[i - 1] & 0xFF)) == c;
+                    break;
+                default:
+                    state = codebook.encrypt(key, state);
+                    ok = (state ^ p) == c;
+                    break;
+            }
+            if (!ok) {
+                break;
+            }
+        }
+        return new Candidate(key, iv, matched);
+    }
+
+    /**
+     * Поиск без открытого текста по оценке {@link #score(int[], int)} расшифрованного начала файла
+     * @param cipher шифротекст
+     * @param mode ECB, CBC или OFB
+     * @return кандидаты по убыванию оценки
+     */
+    public Result ciphertextOnly(int[] cipher, BlockMode mode) {
+        S_DESKey.checkMode(mode);
+        if (cipher.length == 0) {
+            throw new IllegalArgumentException("Шифротекст пуст");
+        }
+        int n = Math.min(cipher.length, SAMPLE_BYTES);
+        long fileSize = cipher.length;
+        long start = System.nanoTime();
+        List<Candidate> all;
+        if (mode == BlockMode.OFB) {
+            int m = Math.min(n, PREFIX_BYTES);
+            // Для каждого ключа остаётся лучший IV по короткому началу
+            List<Candidate> coarse = IntStream.range(0, S_DESCodebook.KEYS).parallel().mapToObj(key -> {
+                int[] plain = new int[m];
+                int[] counts = new int[256];
+                int bestIv = 0;
+                double best = Double.NEGATIVE_INFINITY;
+                for (int iv = 0; iv < 256; iv++) {
+                    decryptOfb(key, iv, cipher, plain, m);
+                    double score = bmpStructure(plain, m, fileSize) - entropy(plain, m, counts);
+                    if (score > best) {
+                        best = score;
+                        bestIv = iv;
+                    }
+                }
+                return new Candidate(key, bestIv, best);
+            }).sorted(RANKING).limit(REFINE).collect(Collectors.toList());
+            all = coarse.parallelStream().map(c -> {
+                int[] plain = new int[n];
+                decryptOfb(c.key, c.iv, cipher, plain, n);
+                return new Candidate(c.key, c.iv, score(plain, n, fileSize));
+            }).collect(Collectors.toList());
+        } else {
+            all = IntStream.range(0, S_DESCodebook.KEYS).parallel().mapToObj(key -> {
+                int[] plain = new int[n];
+                int iv = -1;
+                for (int i = 0; i < n; i++) {
+                    plain[i] = codebook.decrypt(key, cipher[i]);
+                }
+                if (mode == BlockMode.CBC) {
+                    // IV влияет только на первый байт: выбираем его так, чтобы файл начинался с 'B'
+                    iv = plain[0] ^ 'B';
+                    plain[0] = 'B';
+                    for (int i = 1; i < n; i++) {
+                        plain[i] ^= cipher[i - 1] & 0xFF;
+                    }
+                }
+                return new Candidate(key, iv, score(plain, n, fileSize));
+            }).collect(Collectors.toList());
+        }
+        return new Result(top(all), System.nanoTime() - start);
+    }
+
+    private void decryptOfb(int key, int iv, int[] cipher, int[] plain, int n) {
+        int state = iv;
+        for (int i = 0; i < n; i++) {
+            state = codebook.encrypt(key, state);
+            plain[i] = (cipher[i] ^ state) & 0xFF;
+        }
+    }
+
+    /**
+     * Оценка правдоподобия открытого текста: баллы за поля заголовка BMP минус энтропия байтов (бит на байт)
+     * @param plain расшифрованное начало файла
+     * @param n число байтов
+     */
+    public static double score(int[] plain, int n) {
+        return score(plain, n, -1);
+    }
+
+    private static double score(int[] plain, int n, long fileSize) {
+        return bmpStructure(plain, n, fileSize) - entropy(plain, n, new int[256]);
+    }
+
+    /**
+     * Баллы за правдоподобные поля заголовка BMP (0..8)
+     * @param fileSize ожидаемый размер файла или -1
+     */
+    private static double bmpStructure(int[] p, int n, long fileSize) {
+        double score = 0;
+        if (n >= 2 && p[0] == 'B' && p[1] == 'M') {
+            score += 2;
+        }
+        if (n >= 6 && fileSize >= 0 && le32(p, 2) == fileSize) {
+            score += 2;
+        }
+        if (n >= 10 && le32(p, 6) == 0) {
+            score += 1;
+        }
+        if (n >= 14) {
+            long offset = le32(p, 10);
+            if (offset >= 26 && offset < 1 << 16) {
+                score += 1;
+            }
+        }
+        if (n >= 18) {
+            long dib = le32(p, 14);
+            if (dib == 12 || dib == 40 || dib == 52 || dib == 56 || dib == 108 || dib == 124) {
+                score += 1;
+            }
+        }
+        if (n >= 28 && p[26] == 1 && p[27] == 0) {
+            score += 1;
+        }
+        return score;
+    }
+
+    private static long le32(int[] p, int off) {
+        return (p[off] & 0xFFL) | (p[off + 1] & 0xFFL) << 8 | (p[off + 2] & 0xFFL) << 16 | (p[off + 3] & 0xFFL) << 24;
+    }
+
+    /**
+     * Энтропия распределения байтов на отрезке [from, to), бит на байт
+     */
+    public static double entropy(int[] data, int from, int to) {
+        int[] counts = new int[256];
+        for (int i = from; i < to; i++) {
+            counts[data[i] & 0xFF]++;
+        }
+        double total = to - from;
+        double h = 0;
+        for (int c : counts) {
+            if (c != 0) {
+                double p = c / total;
+                h -= p * Math.log(p);
+            }
+        }
+        return h / Math.log(2);
+    }
+
+    /**
+     * Энтропия первых n байтов через таблицу c * log2(c): H = log2(n) - Σ c log2 c / n.
+     * Массив counts должен быть нулевым и остаётся нулевым после вызова.
+     */
+    private static double entropy(int[] data, int n, int[] counts) {
+        for (int i = 0; i < n; i++) {
+            counts[data[i] & 0xFF]++;
+        }
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            int b = data[i] & 0xFF;
+            int c = counts[b];
+            if (c != 0) {
+                sum += C_LOG_C[c];
+                counts[b] = 0;
+            }
+        }
+        return LOG2[n] - sum / n;
+    }
+
+    private static final Comparator<Candidate> RANKING = Comparator.comparingDouble((Candidate c) -> -c.score)
+            .thenComparingInt(c -> c.key)
+            .thenComparingInt(c -> c.iv);
+
+    private static List<Candidate> top(List<Candidate> all) {
+        List<Candidate> sorted = new ArrayList<>(all);
+        sorted.sort(RANKING);
+        return sorted.subList(0, Math.min(RANKING_SIZE, sorted.size()));
+    }
+
+    /**
+     * Кандидат: ключ, IV (-1 для ECB) и оценка (число совпавших байтов или правдоподобие)
+     */
+    public static final class Candidate {
+        private final int key;
+        private final int iv;
+        private final double score;
+
+        Candidate(int key, int iv, double score) {
+            this.key = key;
+            this.iv = iv;
+            this.score = score;
+        }
+
+        public int key() {
+            return key;
+        }
+
+        public int iv() {
+            return iv;
+        }
+
+        public double score() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return iv < 0
+                    ? String.format("ключ %d (%.3f)", key, score)
+                    : String.format("ключ %d, IV %d (%.3f)", key, iv, score);
+        }
+    }
+
+    /**
+     * Результат поиска
+     */
+    public static final class Result {
+        private final List<Candidate> candidates;
+        private final long nanos;
+
+        Result(List<Candidate> candidates, long nanos) {
+            this.candidates = Collections.unmodifiableList(new ArrayList<>(candidates));
+            this.nanos = nanos;
+        }
+
+        /** Лучшие кандидаты по убыванию оценки */
+        public List<Candidate> candidates() {
+            return candidates;
+        }
+
+        public Candidate best() {
+            return candidates.get(0);
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("лучший: %s, время %.1f мс", best(), nanos / 1e6);
+        }
+    }
+}
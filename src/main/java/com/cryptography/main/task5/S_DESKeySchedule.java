@@ -0,0 +1,52 @@
+package com.cryptography.main.task5;
+
+import java.util.stream.IntStream;
+
+/**
+ * Раундовые ключи S-DES для всех 1024 ключей, упакованные в int[]: элемент key — k1 << 8 | k2.
+ * <p>
+ * Таблица (4 КиБ) вычисляется параллельно при первом обращении и общая для всех потоков,
+ * поэтому {@link S_DES#key_schedule(int)}, {@link S_DESKey} и переборы ключей не выполняют
+ * перестановки P10/LS/P8 повторно.
+ */
+public final class S_DESKeySchedule {
+
+    private S_DESKeySchedule() {}
+
+    // Таблица во вложенном классе: лямбда параллельного построения принадлежит S_DESKeySchedule,
+    // и при построении в его собственном статическом инициализаторе рабочие потоки ждали бы его окончания
+    private static final class Holder {
+        static final int[] TABLE = build();
+    }
+
+    private static int[] build() {
+        return IntStream.range(0, 1024).parallel()
+                .map(key -> new S_DES().compute_key_schedule(key))
+                .toArray();
+    }
+
+    /**
+     * k1 << 8 | k2 для ключа
+     * @param key 10-битный ключ (используются младшие 10 бит)
+     */
+    public static int packed(int key) {
+        return Holder.TABLE[key & 0x3FF];
+    }
+
+    /** Первый раундовый ключ K1 */
+    public static int k1(int key) {
+        return Holder.TABLE[key & 0x3FF] >>> 8;
+    }
+
+    /** Второй раундовый ключ K2 */
+    public static int k2(int key) {
+        return Holder.TABLE[key & 0x3FF] & 0xFF;
+    }
+
+    /**
+     * Копия всей таблицы
+     */
+    public static int[] table() {
+        return Holder.TABLE.clone();
+    }
+}
@@ -0,0 +1,221 @@
+package com.cryptography.main.task5;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Атака «встреча посередине» на {@link DoubleS_DES} по известным парам открытый текст / шифротекст.
+ * <p>
+ * Для каждого k1 промежуточные значения E_k1(p_0..p_{t-1}) первых t ≤ {@link #MATCH_PAIRS} пар
+ * упаковываются в int и записываются в хеш-таблицу с открытой адресацией на примитивных массивах;
+ * затем для каждого k2 значения D_k2(c_0..c_{t-1}) ищутся в таблице. Совпадение даёт кандидата
+ * (k1, k2), который проверяется на остальных парах. Вместо 2^20 двойных шифрований выполняется
+ * около 2 * 1024 * t обращений к {@link S_DESCodebook}; обе половины считаются параллельно.
+ */
+public final class S_DESMeetInTheMiddle {
+
+    /** Сколько пар упаковывается в промежуточное значение (по байту на пару) */
+    public static final int MATCH_PAIRS = 4;
+
+    private final S_DESCodebook codebook;
+
+    public S_DESMeetInTheMiddle() {
+        this(S_DESCodebook.shared());
+    }
+
+    public S_DESMeetInTheMiddle(S_DESCodebook codebook) {
+        this.codebook = codebook;
+    }
+
+    /**
+     * Поиск всех пар ключей, согласованных со всеми известными парами
+     * @param plain известные открытые блоки
+     * @param cipher соответствующие блоки шифротекста
+     * @throws IllegalArgumentException если пар нет или длины массивов различаются
+     */
+    public Result attack(int[] plain, int[] cipher) {
+        if (plain.length != cipher.length) {
+            throw new IllegalArgumentException("Число открытых блоков и блоков шифротекста различается: "
+                    + plain.length + " и " + cipher.length);
+        }
+        if (plain.length == 0) {
+            throw new IllegalArgumentException("Нужна хотя бы одна известная пара");
+        }
+        long start = System.nanoTime();
+        int t = Math.min(MATCH_PAIRS, plain.length);
+
+        int[] forward = IntStream.range(0, S_DESCodebook.KEYS).parallel()
+                .map(k1 -> {
+                    int packed = 0;
+                    for (int i = 0; i < t; i++) {
+                        packed |= codebook.encrypt(k1, plain[i]) << (8 * i);
+                    }
+                    return packed;
+                }).toArray();
+        MiddleTable table = new MiddleTable(S_DESCodebook.KEYS);
+        for (int k1 = 0; k1 < S_DESCodebook.KEYS; k1++) {
+            table.put(forward[k1], k1);
+        }
+
+        int[] rejected = new int[S_DESCodebook.KEYS];
+        List<KeyPair> pairs = IntStream.range(0, S_DESCodebook.KEYS).parallel().boxed()
+                .flatMap(k2 -> {
+                    int packed = 0;
+                    for (int i = 0; i < t; i++) {
+                        packed |= codebook.decrypt(k2, cipher[i]) << (8 * i);
+                    }
+                    List<KeyPair> found = new ArrayList<>(1);
+                    for (int slot = table.first(packed); slot >= 0; slot = table.next(slot, packed)) {
+                        int k1 = table.key(slot);
+                        if (confirm(k1, k2, plain, cipher, t)) {
+                            found.add(new KeyPair(k1, k2));
+                        } else {
+                            rejected[k2]++;
+                        }
+                    }
+                    return found.stream();
+                }).collect(Collectors.toList());
+
+        int falseMatches = 0;
+        for (int r : rejected) {
+            falseMatches += r;
+        }
+        long operations = 2L * S_DESCodebook.KEYS * t;
+        return new Result(pairs, operations, falseMatches, System.nanoTime() - start);
+    }
+
+    private boolean confirm(int k1, int k2, int[] plain, int[] cipher, int from) {
+        for (int i = from; i < plain.length; i++) {
+            if (codebook.encrypt(k2, codebook.encrypt(k1, plain[i])) != (cipher[i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Мультиотображение int -> ключ с линейным пробированием; слот свободен, если keys[slot] == 0
+     */
+    private static final class MiddleTable {
+        private final int[] values;
+        private final int[] keys; // ключ + 1
+        private final int mask;
+        private final int shift;
+
+        MiddleTable(int entries) {
+            int capacity = Integer.highestOneBit(entries * 2 - 1) << 1;
+            this.values = new int[capacity];
+            this.keys = new int[capacity];
+            this.mask = capacity - 1;
+            this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        void put(int value, int key) {
+            int slot = hash(value);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            values[slot] = value;
+            keys[slot] = key + 1;
+        }
+
+        /** Первый слот со значением value или -1 */
+        int first(int value) {
+            return scan(hash(value), value);
+        }
+
+        /** Следующий после slot слот со значением value или -1 */
+        int next(int slot, int value) {
+            return scan((slot + 1) & mask, value);
+        }
+
+        int key(int slot) {
+            return keys[slot] - 1;
+        }
+
+        private int scan(int slot, int value) {
+            while (keys[slot] != 0) {
+                if (values[slot] == value) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int hash(int value) {
+            return (value * 0x9E3779B9) >>> shift;
+        }
+    }
+
+    /**
+     * Пара ключей двойного S-DES
+     */
+    public static final class KeyPair {
+        private final int k1;
+        private final int k2;
+
+        KeyPair(int k1, int k2) {
+            this.k1 = k1;
+            this.k2 = k2;
+        }
+
+        public int k1() {
+            return k1;
+        }
+
+        public int k2() {
+            return k2;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + k1 + ", " + k2 + ")";
+        }
+    }
+
+    /**
+     * Результат атаки
+     */
+    public static final class Result {
+        private final List<KeyPair> pairs;
+        private final long operations;
+        private final int falseMatches;
+        private final long nanos;
+
+        Result(List<KeyPair> pairs, long operations, int falseMatches, long nanos) {
+            this.pairs = Collections.unmodifiableList(new ArrayList<>(pairs));
+            this.operations = operations;
+            this.falseMatches = falseMatches;
+            this.nanos = nanos;
+        }
+
+        /** Пары ключей, согласованные со всеми известными парами */
+        public List<KeyPair> pairs() {
+            return pairs;
+        }
+
+        /** Число обращений к кодовой книге в двух половинах (без проверки кандидатов) */
+        public long operations() {
+            return operations;
+        }
+
+        /** Совпадения посередине, отброшенные проверкой на остальных парах */
+        public int falseMatches() {
+            return falseMatches;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ключи %s, операций %d, ложных совпадений %d, время %.1f мс",
+                    pairs, operations, falseMatches, nanos / 1e6);
+        }
+    }
+}
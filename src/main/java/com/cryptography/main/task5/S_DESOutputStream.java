@@ -0,0 +1,93 @@
+package com.cryptography.main.task5;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Поток, шифрующий или расшифровывающий S-DES байты перед записью в нижележащий поток.
+ * <p>
+ * Байты копируются во внутренний буфер, обрабатываются в нём на месте (массив вызывающего кода
+ * не изменяется) и записываются участками; состояние режима CBC/OFB переносится между участками.
+ * Блок S-DES равен байту, поэтому {@link #flush()} записывает всё накопленное без дополнения.
+ */
+public class S_DESOutputStream extends FilterOutputStream {
+
+    /** Размер внутреннего буфера по умолчанию */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final S_DESKey key;
+    private final BlockMode mode;
+    private final boolean encrypt;
+    private final byte[] buffer;
+    private int count;
+    private int state;
+
+    /**
+     * @param out поток назначения
+     * @param key ключ S-DES
+     * @param mode ECB, CBC или OFB
+     * @param iv 8-битный вектор инициализации (не используется в ECB)
+     * @param encrypt true — шифровать, false — расшифровывать
+     * @throws IllegalArgumentException если режим не поддерживается
+     */
+    public S_DESOutputStream(OutputStream out, S_DESKey key, BlockMode mode, int iv, boolean encrypt) {
+        this(out, key, mode, iv, encrypt, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize размер внутреннего буфера в байтах
+     */
+    public S_DESOutputStream(OutputStream out, S_DESKey key, BlockMode mode, int iv, boolean encrypt, int bufferSize) {
+        super(out);
+        S_DESKey.checkMode(mode);
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Размер буфера должен быть положительным: " + bufferSize);
+        }
+        this.key = key;
+        this.mode = mode;
+        this.encrypt = encrypt;
+        this.buffer = new byte[bufferSize];
+        this.state = iv & 0xFF;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        while (len > 0) {
+            if (count == buffer.length) {
+                drain();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            state = key.transform(mode, encrypt, buffer, 0, count, state);
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.cryptography.main.task5;
+
+/**
+ * Тройной DES по схеме EDE: C = E_k3(D_k2(E_k1(P))), как {@link TripleS_DES} для S-DES.
+ * <p>
+ * Ключ из 24 байт задаёт три независимых ключа, из 16 байт — вариант с k3 = k1.
+ * При k1 = k2 = k3 шифр совпадает с одинарным DES.
+ */
+public final class TripleDES extends DESBlockCipher {
+
+    private final DES first;
+    private final DES second;
+    private final DES third;
+
+    public TripleDES(long k1, long k2, long k3) {
+        this.first = new DES(k1);
+        this.second = new DES(k2);
+        this.third = new DES(k3);
+    }
+
+    /**
+     * Вариант с двумя ключами: E_k1(D_k2(E_k1(P)))
+     */
+    public TripleDES(long k1, long k2) {
+        this(k1, k2, k1);
+    }
+
+    /**
+     * @param key 16 или 24 байта ключа
+     * @throws IllegalArgumentException если длина ключа не 16 и не 24 байта
+     */
+    public TripleDES(byte[] key) {
+        this(part(key, 0), part(key, 1), part(key, key.length == 16 ? 0 : 2));
+    }
+
+    private static long part(byte[] key, int index) {
+        if (key.length != 16 && key.length != 24) {
+            throw new IllegalArgumentException("Ключ 3DES должен содержать 16 или 24 байта: " + key.length);
+        }
+        return get(key, index * BLOCK_BYTES);
+    }
+
+    @Override
+    public long encrypt(long block) {
+        return third.encrypt(second.decrypt(first.encrypt(block)));
+    }
+
+    @Override
+    public long decrypt(long block) {
+        return first.decrypt(second.encrypt(third.decrypt(block)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.cryptography.main.task5;
+
+/**
+ * Тройной S-DES по схеме EDE: C = E_k3(D_k2(E_k1(P))).
+ * <p>
+ * Вариант с двумя ключами использует k3 = k1; при k1 = k2 = k3 шифр совпадает с обычным S-DES.
+ * Экземпляр неизменяем.
+ */
+public final class TripleS_DES {
+
+    private final S_DESKey first;
+    private final S_DESKey second;
+    private final S_DESKey third;
+
+    /**
+     * Вариант с двумя ключами: E_k1(D_k2(E_k1(P)))
+     */
+    public TripleS_DES(int k1, int k2) {
+        this(k1, k2, k1);
+    }
+
+    public TripleS_DES(int k1, int k2, int k3) {
+        this.first = S_DESKey.of(k1);
+        this.second = S_DESKey.of(k2);
+        this.third = S_DESKey.of(k3);
+    }
+
+    public int k1() {
+        return first.key();
+    }
+
+    public int k2() {
+        return second.key();
+    }
+
+    public int k3() {
+        return third.key();
+    }
+
+    public int encrypt(int block) {
+        return third.encrypt(second.decrypt(first.encrypt(block)));
+    }
+
+    public int decrypt(int block) {
+        return first.decrypt(second.encrypt(third.decrypt(block)));
+    }
+
+    /**
+     * Шифрование массива байт (ECB)
+     */
+    public int[] encrypt_data(int[] data) {
+        int[] result = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = encrypt(data[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Расшифрование массива байт (ECB)
+     */
+    public int[] decrypt_data(int[] data) {
+        int[] result = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = decrypt(data[i]);
+        }
+        return result;
+    }
+}
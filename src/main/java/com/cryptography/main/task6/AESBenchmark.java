@@ -0,0 +1,45 @@
+package com.cryptography.main.task6;
+
+import com.cryptography.cipher.modes.BlockCipher;
+import com.cryptography.cipher.modes.BlockMode;
+import com.cryptography.cipher.modes.BlockModes;
+import com.cryptography.cipher.saes.AES;
+import com.cryptography.cipher.saes.SAESCipher;
+import com.cryptography.utils.Benchmark;
+
+/**
+ * Сравнение пропускной способности {@link AES} с реализацией JDK "AES/&lt;режим&gt;/NoPadding"
+ * (встроенные инструкции процессора) в режимах ECB, CBC, CFB, OFB и CTR одним и тем же замером
+ * {@link Benchmark}; для сравнения — S-AES через тот же {@link BlockModes}
+ */
+public class AESBenchmark {
+
+    private static final BlockMode[] MODES = {BlockMode.ECB, BlockMode.CBC, BlockMode.CFB, BlockMode.OFB, BlockMode.CTR};
+
+    public static void main(String[] args) throws Exception {
+        int bytes = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        bytes -= bytes % AES.BLOCK_BYTES;
+        Benchmark benchmark = new Benchmark(bytes, 3, 500);
+
+        BlockCipher saes = BlockCipher.of(new SAESCipher().withKey(834));
+        benchmark.run("S-AES ECB", data -> BlockModes.encryptECB(saes, data, 0, data.length));
+
+        byte[] iv = new byte[AES.BLOCK_BYTES];
+        for (int i = 0; i < iv.length; i++) {
+            iv[i] = (byte) (i * 17 + 3);
+        }
+        for (int keyBytes : new int[]{16, 24, 32}) {
+            byte[] key = new byte[keyBytes];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = (byte) (i * 37 + 11);
+            }
+            // AES-192 и AES-256 замеряются только в ECB: режимы добавляют одинаковую работу при любом ключе
+            AES aes = new AES(key);
+            benchmark.compareWithJdk("AES-" + aes.keyBits(), aes, "AES", key, iv,
+                    keyBytes == 16 ? MODES : new BlockMode[]{BlockMode.ECB});
+        }
+
+        System.out.println("=== Пропускная способность, буфер " + bytes + " байт ===");
+        System.out.print(benchmark.report());
+    }
+}
@@ -0,0 +1,52 @@
+package com.cryptography.main.task6;
+
+import com.cryptography.cipher.saes.SAESBitsliced;
+import com.cryptography.cipher.saes.SAESCipher;
+import com.cryptography.cipher.saes.SAESKeySchedule;
+import com.cryptography.utils.Benchmark;
+
+/**
+ * Скорость полного перебора 16-битных ключей S-AES по двум известным парам (ключей в секунду):
+ * скалярный путь {@link SAESCipher#encrypt(int, int, int, int)} против {@link SAESBitsliced}
+ * в одном потоке и параллельного {@link SAESBitsliced#search(int[], int[])}; замер — {@link Benchmark}
+ */
+public class SAESKeySearchBenchmark {
+
+    private static final int[][] MIX = {{0x0A, 0x0C}, {0x08, 0x06}};
+    private static final int MOD = 0b11001; // x^4 + x^3 + 1
+    private static final int KEY = 1021;
+
+    // Результаты перебора накапливаются, чтобы JIT не удалил вычисления
+    private static long found;
+
+    public static void main(String[] args) throws Exception {
+        SAESCipher cipher = new SAESCipher(MIX, MOD);
+        SAESBitsliced bitsliced = cipher.bitsliced();
+        int[] ks = SAESKeySchedule.roundKeys(KEY);
+        int[] plain = {0x4D42, 0x3116};
+        int[] enc = {cipher.encrypt(plain[0], ks[0], ks[1], ks[2]), cipher.encrypt(plain[1], ks[0], ks[1], ks[2])};
+
+        Benchmark benchmark = new Benchmark(1 << 16, "ключей", 5, 1000);
+        benchmark.run("SAESCipher.encrypt", data -> found += scalar(cipher, plain, enc));
+        benchmark.run("SAESBitsliced, 1 поток", data -> {
+            for (int slice = 0; slice < SAESBitsliced.SLICES; slice++) {
+                found += Long.bitCount(bitsliced.matches(SAESBitsliced.keyPlanes(slice), 0, plain, enc));
+            }
+        });
+        benchmark.run("SAESBitsliced.search", data -> found += bitsliced.search(plain, enc).length);
+
+        System.out.println("=== Перебор 65536 ключей S-AES (найдено ключей: " + bitsliced.search(plain, enc).length + ") ===");
+        System.out.print(benchmark.report());
+    }
+
+    private static int scalar(SAESCipher cipher, int[] plain, int[] enc) {
+        int found = 0;
+        for (int key = 0; key < 1 << 16; key++) {
+            int k0 = SAESKeySchedule.k0(key), k1 = SAESKeySchedule.k1(key), k2 = SAESKeySchedule.k2(key);
+            if (cipher.encrypt(plain[0], k0, k1, k2) == enc[0] && cipher.encrypt(plain[1], k0, k1, k2) == enc[1]) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -1,6 +1,7 @@
 package com.cryptography.main.task6;
 
 import com.cryptography.cipher.saes.SAESCipher;
+import com.cryptography.cipher.saes.SAESVector;
 import com.cryptography.utils.FileUtils;
 
 /**
@@ -31,9 +32,10 @@ public class SAESTask1 {
         int[] ks = c.keyExpansion(key16);
         System.out.println(String.format("Ключ = %d (0x%04X)", key16, key16));
         System.out.println(String.format("k0=0x%04X, k1=0x%04X, k2=0x%04X", ks[0], ks[1], ks[2]));
+        SAESVector vector = new SAESVector(c, key16);
 
         // 1) Дешифруем весь файл поблочно (16-битовые блоки)
-        byte[] dec = ecbTransform(enc, false, ks);
+        byte[] dec = ecbTransform(enc, false, vector);
         FileUtils.writeFile("src/main/resources/" + OUT_DECRYPT, dec);
         System.out.println("Дешифровано в: src/main/resources/" + OUT_DECRYPT);
         boolean isBmp = dec.length >= 2 && dec[0] == 'B' && dec[1] == 'M';
@@ -45,7 +47,7 @@ public class SAESTask1 {
         if (reenc.length > HEADER_KEEP) {
             byte[] body = new byte[reenc.length - HEADER_KEEP];
             System.arraycopy(dec, HEADER_KEEP, body, 0, body.length);
-            byte[] bodyEnc = ecbTransform(body, true, ks);
+            byte[] bodyEnc = ecbTransform(body, true, vector);
             System.arraycopy(bodyEnc, 0, reenc, HEADER_KEEP, bodyEnc.length);
         }
         FileUtils.writeFile("src/main/resources/" + OUT_REENCRYPT, reenc);
@@ -69,38 +71,12 @@ public class SAESTask1 {
      * @return преобразованные байты той же длины (нечётный последний байт копируется без изменений)
      */
     private static byte[] ecbTransform(byte[] data, boolean encrypt) {
-        SAESCipher cipher = new SAESCipher();
-        int[] ks = cipher.keyExpansion(KEY_DECIMAL & 0xFFFF);
-        return ecbTransform(data, encrypt, ks);
+        return ecbTransform(data, encrypt, new SAESVector(new SAESCipher(), KEY_DECIMAL & 0xFFFF));
     }
 
-    private static byte[] ecbTransform(byte[] data, boolean encrypt, int[] ks) {
-        SAESCipher cipher = new SAESCipher();
-        int k0 = ks[0];
-        int k1 = ks[1];
-        int k2 = ks[2];
-
-        byte[] out = new byte[data.length];
-        int i = 0;
-        while (i + 1 < data.length) {
-            // В Python-версии чтение/запись идёт по 2 байта (little-endian).
-            // Соответствуем этому порядку: младший байт первый.
-            int lo = data[i] & 0xFF;          // младший
-            int hi = data[i + 1] & 0xFF;      // старший
-            int block16 = (hi << 8) | lo;     // собираем 16 бит
-
-            int res16 = encrypt ? cipher.encrypt(block16, k0, k1, k2)
-                                : cipher.decrypt(block16, k0, k1, k2);
-
-            out[i] = (byte) (res16 & 0xFF);         // младший байт
-            out[i + 1] = (byte) ((res16 >> 8) & 0xFF); // старший байт
-            i += 2;
-        }
-        // Если длина нечётная — переносим последний байт без изменений
-        if (i < data.length) {
-            out[i] = data[i];
-        }
-        return out;
+    private static byte[] ecbTransform(byte[] data, boolean encrypt, SAESVector vector) {
+        // Пары байтов читаются как в Python-версии (little-endian): младший байт первый
+        return vector.ecb(data, encrypt);
     }
 
     private static String toHex(byte[] arr, int off, int len) {
@@ -1,6 +1,7 @@
 package com.cryptography.main.task6;
 
 import com.cryptography.cipher.saes.SAESCipher;
+import com.cryptography.cipher.saes.SAESVector;
 import com.cryptography.utils.FileUtils;
 
 /**
@@ -31,8 +32,9 @@ public class SAESTask2 {
         int[] ks = cipher.keyExpansion(KEY_DECIMAL & 0xFFFF);
         System.out.println(String.format("Ключ = %d (0x%04X)", KEY_DECIMAL & 0xFFFF, KEY_DECIMAL & 0xFFFF));
         System.out.println(String.format("k0=0x%04X, k1=0x%04X, k2=0x%04X", ks[0], ks[1], ks[2]));
+        SAESVector vector = new SAESVector(cipher, KEY_DECIMAL & 0xFFFF);
 
-        byte[] dec = ecbTransform(enc, false, ks);
+        byte[] dec = ecbTransform(enc, false, vector);
         FileUtils.writeFile("src/main/resources/" + OUT_DECRYPT, dec);
         System.out.println("Дешифровано в: src/main/resources/" + OUT_DECRYPT);
         boolean isBmp = dec.length >= 2 && dec[0] == 'B' && dec[1] == 'M';
@@ -42,7 +44,7 @@ public class SAESTask2 {
         if (reenc.length > HEADER_KEEP) {
             byte[] body = new byte[reenc.length - HEADER_KEEP];
             System.arraycopy(dec, HEADER_KEEP, body, 0, body.length);
-            byte[] bodyEnc = ecbTransform(body, true, ks);
+            byte[] bodyEnc = ecbTransform(body, true, vector);
             System.arraycopy(bodyEnc, 0, reenc, HEADER_KEEP, bodyEnc.length);
         }
         FileUtils.writeFile("src/main/resources/" + OUT_REENCRYPT, reenc);
@@ -50,23 +52,8 @@ public class SAESTask2 {
         boolean headerSame = SAESTask1_compareRange(enc, reenc, 0, Math.min(HEADER_KEEP, Math.min(enc.length, reenc.length)));
     }
 
-    private static byte[] ecbTransform(byte[] data, boolean encrypt, int[] ks) {
-        SAESCipher cipherEnc = new SAESCipher(MIX, MOD);
-        int k0 = ks[0], k1 = ks[1], k2 = ks[2];
-        byte[] out = new byte[data.length];
-        int i = 0;
-        while (i + 1 < data.length) {
-            int lo = data[i] & 0xFF;
-            int hi = data[i + 1] & 0xFF;
-            int block16 = (hi << 8) | lo;
-            int res16 = encrypt ? cipherEnc.encrypt(block16, k0, k1, k2)
-                                : cipherEnc.decrypt(block16, k0, k1, k2);
-            out[i] = (byte) (res16 & 0xFF);
-            out[i + 1] = (byte) ((res16 >> 8) & 0xFF);
-            i += 2;
-        }
-        if (i < data.length) out[i] = data[i];
-        return out;
+    private static byte[] ecbTransform(byte[] data, boolean encrypt, SAESVector vector) {
+        return vector.ecb(data, encrypt);
     }
 
     // Небольшое дублирование утилит для самодостаточности класса
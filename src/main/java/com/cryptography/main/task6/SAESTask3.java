@@ -27,6 +27,8 @@ import com.cryptography.utils.FileUtils;
  * - Порядок байт: (hi << 8) | lo - как в SAESTask1
  * 
  * После исправления полинома на x⁴+x³+1 расшифровка дала корректный BMP файл с сигнатурой "BM" (0x42 0x4D).
+ * Полный перебор модулей, матриц MixColumns, ключей и IV по заголовку BMP выполняет
+ * {@link com.cryptography.cipher.saes.SAESParameterSearch}: для этого файла он находит те же параметры.
  */
 public class SAESTask3 {
 
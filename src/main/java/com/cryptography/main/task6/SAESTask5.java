@@ -1,6 +1,8 @@
 package com.cryptography.main.task6;
 
+import com.cryptography.cipher.saes.SAESBitsliced;
 import com.cryptography.cipher.saes.SAESCipher;
+import com.cryptography.utils.BitSlice;
 import com.cryptography.utils.FileUtils;
 
 import java.nio.charset.Charset;
@@ -10,6 +12,8 @@ import java.nio.charset.StandardCharsets;
  * Задание 6.5 (S-AES, OFB, подбор ключа по известным младшим битам).
  * Вход: 6/in/t20_saes_ofb_c_all.txt, MixColumns [[3,8],[2,b]] (hex), полином x^4+x+1,
  * режим OFB, известны младшие 9 бит ключа: 0b011110110, IV = 3523. Подобрать верхние 7 бит.
+ * <p>
+ * Гамма OFB для всех 128 кандидатов вычисляется {@link SAESBitsliced} по 64 ключа за проход.
  */
 public class SAESTask5 {
 
@@ -25,11 +29,19 @@ public class SAESTask5 {
         byte[] enc = FileUtils.readResource(INPUT);
         System.out.println("Задание 6.5 (S-AES, OFB)\nВход: " + INPUT + ", bytes=" + enc.length);
 
+        SAESBitsliced cipher = new SAESCipher(MIX, MOD).bitsliced();
+        int[] candidates = new int[1 << 7];
+        for (int hi = 0; hi < candidates.length; hi++) {
+            candidates[hi] = (hi << 9) | KNOWN_LOW9;
+        }
         Result best = null;
-        for (int hi = 0; hi < (1 << 7); hi++) {
-            int key = (hi << 9) | KNOWN_LOW9;
-            Result r = tryKey(enc, key);
-            if (best == null || r.score > best.score) best = r;
+        for (int off = 0; off < candidates.length; off += BitSlice.LANES) {
+            int count = Math.min(BitSlice.LANES, candidates.length - off);
+            int[][] keystream = cipher.ofbKeystream(candidates, off, count, IV, enc.length / 2);
+            for (int b = 0; b < count; b++) {
+                Result r = tryKey(enc, candidates[off + b], keystream[b]);
+                if (best == null || r.score > best.score) best = r;
+            }
         }
 
         if (best == null) throw new IllegalStateException("Не найден ни один кандидат ключа");
@@ -40,22 +52,17 @@ public class SAESTask5 {
         System.out.println("Сохранено: src/main/resources/" + OUT_TEXT);
     }
 
-    private static Result tryKey(byte[] enc, int key16) {
-        SAESCipher c = new SAESCipher(MIX, MOD);
-        int[] ks = c.keyExpansion(key16 & 0xFFFF);
-        byte[] plain = ofbXor(enc, ks, IV & 0xFFFF);
+    private static Result tryKey(byte[] enc, int key16, int[] keystream) {
+        byte[] plain = ofbXor(enc, keystream);
         double score = readabilityScore(plain);
         return new Result(key16, plain, score);
     }
 
-    private static byte[] ofbXor(byte[] data, int[] ks, int iv16) {
-        SAESCipher c = new SAESCipher(MIX, MOD);
-        int k0 = ks[0], k1 = ks[1], k2 = ks[2];
+    private static byte[] ofbXor(byte[] data, int[] keystream) {
         byte[] out = new byte[data.length];
-        int s = iv16 & 0xFFFF;
         int i = 0;
         while (i + 1 < data.length) {
-            s = c.encrypt(s, k0, k1, k2);
+            int s = keystream[i / 2];
             int lo = data[i] & 0xFF;
             int hi = data[i + 1] & 0xFF;
             int block = (hi << 8) | lo;
@@ -1,6 +1,7 @@
 package com.cryptography.main.task6;
 
 import com.cryptography.cipher.saes.SAESCipher;
+import com.cryptography.cipher.saes.SAESVector;
 import com.cryptography.utils.FileUtils;
 
 /**
@@ -30,8 +31,9 @@ public class SAESTask7 {
         int[] ks = cipher.keyExpansion(KEY & 0xFFFF);
         System.out.println(String.format("Ключ = %d (0x%04X), NONCE=0x%04X", KEY & 0xFFFF, KEY & 0xFFFF, NONCE & 0xFFFF));
         System.out.println(String.format("k0=0x%04X, k1=0x%04X, k2=0x%04X", ks[0], ks[1], ks[2]));
+        SAESVector vector = new SAESVector(cipher, KEY & 0xFFFF);
 
-        byte[] dec = ctrXor(enc, ks, NONCE & 0xFFFF);
+        byte[] dec = ctrXor(enc, vector, NONCE & 0xFFFF);
         FileUtils.writeFile("src/main/resources/" + OUT_DECRYPT, dec);
         System.out.println("Дешифровано в: src/main/resources/" + OUT_DECRYPT);
         boolean isBmp = dec.length >= 2 && dec[0] == 'B' && dec[1] == 'M';
@@ -41,7 +43,7 @@ public class SAESTask7 {
         if (reenc.length > HEADER_KEEP) {
             byte[] body = new byte[reenc.length - HEADER_KEEP];
             System.arraycopy(dec, HEADER_KEEP, body, 0, body.length);
-            byte[] bodyEnc = ctrXor(body, ks, NONCE & 0xFFFF);
+            byte[] bodyEnc = ctrXor(body, vector, NONCE & 0xFFFF);
             System.arraycopy(bodyEnc, 0, reenc, HEADER_KEEP, bodyEnc.length);
         }
         FileUtils.writeFile("src/main/resources/" + OUT_REENCRYPT, reenc);
@@ -49,25 +51,8 @@ public class SAESTask7 {
         boolean headerSame = compareRange(enc, reenc, 0, Math.min(HEADER_KEEP, Math.min(enc.length, reenc.length)));
     }
 
-    private static byte[] ctrXor(byte[] data, int[] ks, int nonce) {
-        SAESCipher c = new SAESCipher(MIX, MOD);
-        int k0 = ks[0], k1 = ks[1], k2 = ks[2];
-        byte[] out = new byte[data.length];
-        int counter = nonce & 0xFFFF;
-        int i = 0;
-        while (i + 1 < data.length) {
-            int s = c.encrypt(counter, k0, k1, k2);
-            int lo = data[i] & 0xFF;
-            int hi = data[i + 1] & 0xFF;
-            int block = (hi << 8) | lo;
-            int res = block ^ s;
-            out[i] = (byte) (res & 0xFF);
-            out[i + 1] = (byte) ((res >> 8) & 0xFF);
-            i += 2;
-            counter = (counter + 1) & 0xFFFF;
-        }
-        if (i < data.length) out[i] = data[i];
-        return out;
+    private static byte[] ctrXor(byte[] data, SAESVector vector, int nonce) {
+        return vector.ctr(data, nonce & 0xFFFF);
     }
 
     private static String toHex(byte[] arr, int off, int len) {
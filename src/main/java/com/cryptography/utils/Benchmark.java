@@ -0,0 +1,212 @@
+package com.cryptography.utils;
+
+import com.cryptography.cipher.modes.BlockCipher;
+import com.cryptography.cipher.modes.BlockMode;
+import com.cryptography.cipher.modes.BlockModes;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Простой замер пропускной способности шифров на одном и том же буфере.
+ * <p>
+ * Каждая операция сначала прогревается заданное число раз, затем повторяется, пока не пройдёт
+ * минимальное время замера; результат — байты в секунду по всем повторам. Буфер заполняется
+ * псевдослучайными данными с фиксированным seed и передаётся операции для обработки на месте,
+ * поэтому разные шифры (S-DES, DES, реализации JDK) измеряются в одинаковых условиях.
+ * <p>
+ * Операции, не связанные с буфером (например, перебор ключей), замеряются тем же циклом
+ * в заданных единицах работы за запуск: отчёт тогда выводится в единицах в секунду.
+ */
+public final class Benchmark {
+
+    /**
+     * Операция над буфером (обычно шифрование на месте)
+     */
+    @FunctionalInterface
+    public interface Operation {
+        void run(byte[] data) throws Exception;
+    }
+
+    private final byte[] data;
+    private final long units;   // единиц работы за один запуск операции
+    private final String unit;  // null — байты буфера
+    private final int warmups;
+    private final long minNanos;
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * @param bytes размер буфера
+     * @param warmups число прогревочных запусков
+     * @param minMillis минимальное время замера одной операции
+     */
+    public Benchmark(int bytes, int warmups, long minMillis) {
+        if (bytes < 1 || warmups < 0 || minMillis < 1) {
+            throw new IllegalArgumentException("Неверные параметры замера: " + bytes + ", " + warmups + ", " + minMillis);
+        }
+        this.data = new byte[bytes];
+        new Random(1).nextBytes(data);
+        this.units = bytes;
+        this.unit = null;
+        this.warmups = warmups;
+        this.minNanos = minMillis * 1_000_000L;
+    }
+
+    /**
+     * Замер операций, каждая из которых выполняет units единиц работы; операции передаётся пустой буфер
+     * @param units единиц работы за один запуск (например, проверенных ключей)
+     * @param unit название единицы для отчёта в родительном падеже множественного числа ("ключей")
+     * @param warmups число прогревочных запусков
+     * @param minMillis минимальное время замера одной операции
+     */
+    public Benchmark(long units, String unit, int warmups, long minMillis) {
+        if (units < 1 || warmups < 0 || minMillis < 1) {
+            throw new IllegalArgumentException("Неверные параметры замера: " + units + ", " + warmups + ", " + minMillis);
+        }
+        this.data = new byte[0];
+        this.units = units;
+        this.unit = unit;
+        this.warmups = warmups;
+        this.minNanos = minMillis * 1_000_000L;
+    }
+
+    /**
+     * Замер операции; результат также добавляется в {@link #results()}
+     * @param name название строки отчёта
+     * @throws Exception если операция завершилась ошибкой
+     */
+    public Result run(String name, Operation operation) throws Exception {
+        for (int i = 0; i < warmups; i++) {
+            operation.run(data);
+        }
+        long repeats = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            operation.run(data);
+            repeats++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < minNanos);
+        Result result = new Result(name, repeats * units, elapsed, unit);
+        results.add(result);
+        return result;
+    }
+
+    /**
+     * Замер шифрования в режимах {@link BlockModes} рядом с реализацией JDK "&lt;jdkAlgorithm&gt;/&lt;режим&gt;/NoPadding"
+     * с тем же ключом и IV; строки отчёта — "name режим" и "JDK name режим".
+     * Перед замером каждого режима шифротексты обеих реализаций на буфере сравниваются.
+     * @param jdkAlgorithm имя алгоритма JDK ("AES", "DES", "DESede")
+     * @param iv IV длины блока (не изменяется, в ECB не используется)
+     * @throws IllegalStateException если шифротекст расходится с JDK
+     * @throws Exception если операция завершилась ошибкой или JDK не поддерживает алгоритм
+     */
+    public void compareWithJdk(String name, BlockCipher cipher, String jdkAlgorithm, byte[] key, byte[] iv,
+                               BlockMode... modes) throws Exception {
+        SecretKeySpec spec = new SecretKeySpec(key, jdkAlgorithm);
+        // Шифр JDK пишет в отдельный буфер того же размера
+        byte[] output = new byte[data.length];
+        for (BlockMode mode : modes) {
+            Cipher jdk = Cipher.getInstance(jdkAlgorithm + "/" + mode + "/NoPadding");
+            Operation jdkEncrypt = d -> {
+                if (mode == BlockMode.ECB) {
+                    jdk.init(Cipher.ENCRYPT_MODE, spec);
+                } else {
+                    jdk.init(Cipher.ENCRYPT_MODE, spec, new IvParameterSpec(iv));
+                }
+                jdk.doFinal(d, 0, d.length, output, 0);
+            };
+
+            byte[] expected = data.clone();
+            BlockModes.transform(cipher, mode, true, expected, 0, expected.length, iv.clone());
+            jdkEncrypt.run(data);
+            if (!Arrays.equals(expected, output)) {
+                throw new IllegalStateException("Шифротекст " + name + " " + mode + " не совпадает с JDK");
+            }
+
+            run(name + " " + mode, d -> BlockModes.transform(cipher, mode, true, d, 0, d.length, iv.clone()));
+            run("JDK " + name + " " + mode, jdkEncrypt);
+        }
+    }
+
+    public List<Result> results() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Таблица всех замеров
+     */
+    public String report() {
+        int width = 0;
+        for (Result r : results) {
+            width = Math.max(width, r.name.length());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Result r : results) {
+            if (r.unit == null) {
+                sb.append(String.format("%-" + width + "s  %10.2f МБ/с  %8.1f нс/байт%n",
+                        r.name, r.megabytesPerSecond(), r.nanosPerByte()));
+            } else {
+                sb.append(String.format("%-" + width + "s  %,16.0f %s/с%n", r.name, r.perSecond(), r.unit));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Результат замера
+     */
+    public static final class Result {
+        private final String name;
+        private final long bytes;
+        private final long nanos;
+        private final String unit;
+
+        Result(String name, long bytes, long nanos, String unit) {
+            this.name = name;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.unit = unit;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /** Всего обработано байт (или единиц работы) за время замера */
+        public long bytes() {
+            return bytes;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        /** Байт (или единиц работы) в секунду */
+        public double perSecond() {
+            return bytes / (nanos / 1e9);
+        }
+
+        public double megabytesPerSecond() {
+            return bytes / (nanos / 1e9) / 1e6;
+        }
+
+        public double nanosPerByte() {
+            return (double) nanos / bytes;
+        }
+
+        @Override
+        public String toString() {
+            if (unit != null) {
+                return String.format("%s: %,.0f %s/с", name, perSecond(), unit);
+            }
+            return String.format("%s: %.2f МБ/с", name, megabytesPerSecond());
+        }
+    }
+}
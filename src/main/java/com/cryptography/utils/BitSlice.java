@@ -0,0 +1,112 @@
+package com.cryptography.utils;
+
+/**
+ * Утилиты для побитового среза (bitslicing) 16-битных блоков.
+ * <p>
+ * 64 блока раскладываются в 16 «битовых плоскостей» типа long: бит b плоскости j равен биту j блока b.
+ * Раскладка выполняется упаковкой четырёх блоков в один long (блоки q, q+16, q+32, q+48 в строке q)
+ * и четырьмя параллельными транспонированиями 16x16 внутри 16-битных сегментов.
+ */
+public final class BitSlice {
+
+    /** Количество блоков в одном срезе (ширина long) */
+    public static final int LANES = 64;
+
+    private BitSlice() {}
+
+    /**
+     * Транспонирование четырёх битовых матриц 16x16 на месте: для каждого 16-битного сегмента s
+     * бит c сегмента s строки r становится битом r сегмента s строки c. Используются a[0..15].
+     */
+    public static void transpose16(long[] a) {
+        long m = 0x00FF00FF00FF00FFL;
+        for (int j = 8; j != 0; j >>= 1, m ^= (m << j)) {
+            for (int k = 0; k < 16; k = ((k | j) + 1) & ~j) {
+                long t = ((a[k] >>> j) ^ a[k | j]) & m;
+                a[k] ^= t << j;
+                a[k | j] ^= t;
+            }
+        }
+    }
+
+    /**
+     * Раскладывает до 64 16-битных значений в плоскости planes[0..15]. Недостающие блоки равны нулю.
+     * @param src массив 16-битных значений
+     * @param off индекс первого значения
+     * @param count количество значений (0..64)
+     * @param planes массив из 16 плоскостей
+     */
+    public static void slice(int[] src, int off, int count, long[] planes) {
+        for (int q = 0; q < 16; q++) {
+            long row = 0;
+            for (int b = q, s = 0; b < count; b += 16, s += 16) {
+                row |= (long) (src[off + b] & 0xFFFF) << s;
+            }
+            planes[q] = row;
+        }
+        transpose16(planes);
+    }
+
+    /**
+     * Собирает count 16-битных значений из плоскостей planes[0..15] (содержимое planes разрушается).
+     */
+    public static void unslice(long[] planes, int[] dst, int off, int count) {
+        transpose16(planes);
+        for (int b = 0; b < count; b++) {
+            dst[off + b] = (int) (planes[b & 15] >>> (b & ~15)) & 0xFFFF;
+        }
+    }
+
+    /**
+     * Раскладывает до 64 16-битных слов (little-endian, по 2 байта) из массива байтов в плоскости planes[0..15].
+     * @param src массив байтов
+     * @param off индекс первого байта
+     * @param count количество 16-битных слов (0..64)
+     * @param planes массив из 16 плоскостей
+     */
+    public static void slice(byte[] src, int off, int count, long[] planes) {
+        for (int q = 0; q < 16; q++) {
+            long row = 0;
+            for (int b = q, s = 0; b < count; b += 16, s += 16) {
+                int i = off + 2 * b;
+                row |= (long) ((src[i] & 0xFF) | ((src[i + 1] & 0xFF) << 8)) << s;
+            }
+            planes[q] = row;
+        }
+        transpose16(planes);
+    }
+
+    /**
+     * Записывает count 16-битных слов (little-endian) из плоскостей planes[0..15] в массив байтов
+     * (содержимое planes разрушается).
+     */
+    public static void unslice(long[] planes, byte[] dst, int off, int count) {
+        transpose16(planes);
+        for (int b = 0; b < count; b++) {
+            long v = planes[b & 15] >>> (b & ~15);
+            int i = off + 2 * b;
+            dst[i] = (byte) v;
+            dst[i + 1] = (byte) (v >>> 8);
+        }
+    }
+
+    /**
+     * Записывает одно и то же 16-битное значение во все 64 позиции: плоскость j равна 0 или -1.
+     */
+    public static void broadcast(int value, long[] planes, int off) {
+        for (int j = 0; j < 16; j++) {
+            planes[off + j] = -((long) ((value >>> j) & 1));
+        }
+    }
+
+    /**
+     * Маска позиций, в которых плоскости planes[0..15] равны заданному 16-битному значению.
+     */
+    public static long equalsMask(long[] planes, int value) {
+        long eq = -1L;
+        for (int j = 0; j < 16; j++) {
+            eq &= ~(planes[j] ^ -((long) ((value >>> j) & 1)));
+        }
+        return eq;
+    }
+}
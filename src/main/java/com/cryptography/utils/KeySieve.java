@@ -0,0 +1,209 @@
+package com.cryptography.utils;
+
+import com.cryptography.cipher.modes.BlockMode;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Решето ключей для шифров с малым пространством ключей (S-DES — 1024, S-AES — 65536 ключей).
+ * <p>
+ * Оставшиеся кандидаты хранятся битовой маской в long[]. Каждая известная пара
+ * (открытый блок, блок шифротекста) проверяется для всех ещё живых ключей параллельно по словам
+ * маски: каждое слово обрабатывается одним потоком, несогласованные ключи сбрасываются. Просев
+ * останавливается, как только остаётся не больше одного ключа, поэтому для восстановления
+ * ключа обычно хватает нескольких блоков.
+ * <p>
+ * Для режимов CBC, CFB, OFB и CTR пары уровня блока выводятся из открытого текста и шифротекста
+ * автоматически ({@link #sieve(BlockMode, int[], int[], int)}); если IV неизвестен, первый блок
+ * CBC, CFB и OFB пропускается. Экземпляр изменяем; параллелизм — только внутри одного просева.
+ */
+public final class KeySieve {
+
+    /**
+     * Шифрование блока ключом из пространства решета; должно быть безопасно для нескольких потоков
+     */
+    @FunctionalInterface
+    public interface BlockFunction {
+        int encrypt(int key, int block);
+    }
+
+    private final int keyCount;
+    private final int blockMask;
+    private final BlockFunction function;
+    private final long[] alive;
+    private int remaining;
+    private int pairsUsed;
+
+    /**
+     * @param keyBits размер ключа в битах (не больше 30)
+     * @param blockBits размер блока в битах (не больше 31)
+     * @param function шифрование блока ключом
+     */
+    public KeySieve(int keyBits, int blockBits, BlockFunction function) {
+        if (keyBits < 1 || keyBits > 30) {
+            throw new IllegalArgumentException("Размер ключа должен быть от 1 до 30 бит: " + keyBits);
+        }
+        if (blockBits < 1 || blockBits > 31) {
+            throw new IllegalArgumentException("Размер блока должен быть от 1 до 31 бита: " + blockBits);
+        }
+        this.keyCount = 1 << keyBits;
+        this.blockMask = (1 << blockBits) - 1;
+        this.function = function;
+        this.alive = new long[(keyCount + 63) >>> 6];
+        reset();
+    }
+
+    /**
+     * Возврат к полному пространству ключей
+     */
+    public void reset() {
+        Arrays.fill(alive, -1L);
+        if ((keyCount & 63) != 0) {
+            alive[alive.length - 1] = (1L << (keyCount & 63)) - 1;
+        }
+        remaining = keyCount;
+        pairsUsed = 0;
+    }
+
+    /**
+     * Отсев по одной паре блоков
+     * @return число оставшихся ключей
+     */
+    public int sieve(int plain, int cipher) {
+        int p = plain & blockMask;
+        int c = cipher & blockMask;
+        remaining = IntStream.range(0, alive.length).parallel().map(w -> {
+            long bits = alive[w];
+            long keep = bits;
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (function.encrypt((w << 6) | bit, p) != c) {
+                    keep &= ~(1L << bit);
+                }
+            }
+            alive[w] = keep;
+            return Long.bitCount(keep);
+        }).sum();
+        pairsUsed++;
+        return remaining;
+    }
+
+    /**
+     * Отсев по парам блоков по одной, пока не останется не больше одного ключа
+     * @return число оставшихся ключей
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public int sieve(int[] plain, int[] cipher) {
+        if (plain.length != cipher.length) {
+            throw new IllegalArgumentException("Число открытых блоков и блоков шифротекста различается: "
+                    + plain.length + " и " + cipher.length);
+        }
+        for (int i = 0; i < plain.length && remaining > 1; i++) {
+            sieve(plain[i], cipher[i]);
+        }
+        return remaining;
+    }
+
+    /**
+     * Отсев по известному началу открытого текста в режиме шифрования.
+     * Пары уровня блока: ECB — (p_i, c_i); CBC — (p_i ^ c_{i-1}, c_i); CFB — (c_{i-1}, p_i ^ c_i);
+     * OFB — (s_{i-1}, s_i), где s_i = p_i ^ c_i; CTR — (IV + i, p_i ^ c_i); c_{-1} = s_{-1} = IV.
+     * @param plain известные открытые блоки с начала сообщения
+     * @param cipher блоки шифротекста (не меньше, чем открытых)
+     * @param iv вектор инициализации или отрицательное значение, если он неизвестен
+     * @return число оставшихся ключей
+     * @throws IllegalArgumentException если шифротекст короче открытого текста или в CTR не задан IV
+     */
+    public int sieve(BlockMode mode, int[] plain, int[] cipher, int iv) {
+        if (cipher.length < plain.length) {
+            throw new IllegalArgumentException("Шифротекст короче известного открытого текста");
+        }
+        if (mode == BlockMode.CTR && iv < 0) {
+            throw new IllegalArgumentException("Для режима CTR нужен известный начальный счётчик");
+        }
+        int start = iv < 0 ? -1 : iv & blockMask;
+        int n = plain.length;
+        for (int i = 0; i < n && remaining > 1; i++) {
+            int p = plain[i] & blockMask;
+            int c = cipher[i] & blockMask;
+            int previousCipher = i > 0 ? cipher[i - 1] & blockMask : start;
+            int previousStream = i > 0 ? (plain[i - 1] ^ cipher[i - 1]) & blockMask : start;
+            switch (mode) {
+                case ECB:
+                    sieve(p, c);
+                    break;
+                case CBC:
+                    if (previousCipher >= 0) {
+                        sieve(p ^ previousCipher, c);
+                    }
+                    break;
+                case CFB:
+                    if (previousCipher >= 0) {
+                        sieve(previousCipher, p ^ c);
+                    }
+                    break;
+                case OFB:
+                    if (previousStream >= 0) {
+                        sieve(previousStream, p ^ c);
+                    }
+                    break;
+                case CTR:
+                    sieve((start + i) & blockMask, p ^ c);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный режим: " + mode);
+            }
+        }
+        return remaining;
+    }
+
+    /** Число оставшихся ключей */
+    public int remaining() {
+        return remaining;
+    }
+
+    /** Сколько пар блоков было проверено */
+    public int pairsUsed() {
+        return pairsUsed;
+    }
+
+    public boolean contains(int key) {
+        return key >= 0 && key < keyCount && (alive[key >>> 6] & (1L << key)) != 0;
+    }
+
+    /**
+     * Наименьший оставшийся ключ или -1, если ключей не осталось
+     */
+    public int first() {
+        for (int w = 0; w < alive.length; w++) {
+            if (alive[w] != 0) {
+                return (w << 6) | Long.numberOfTrailingZeros(alive[w]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Оставшиеся ключи по возрастанию
+     */
+    public int[] candidates() {
+        int[] result = new int[remaining];
+        int n = 0;
+        for (int w = 0; w < alive.length; w++) {
+            for (long bits = alive[w]; bits != 0; bits &= bits - 1) {
+                result[n++] = (w << 6) | Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Копия маски оставшихся ключей
+     */
+    public BitSet toBitSet() {
+        return BitSet.valueOf(alive);
+    }
+}
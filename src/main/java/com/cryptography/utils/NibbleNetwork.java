@@ -0,0 +1,114 @@
+package com.cryptography.utils;
+
+/**
+ * 16-битная сеть из табличных шагов по нибблам: x = T_{n-1}(...T_1(T_0(x ^ c_0) ^ c_1)...) ^ c_n.
+ * <p>
+ * Каждая таблица содержит 64 элемента: индекс (позиция ниббла << 4) | значение, а шаг равен XOR
+ * четырёх обращений. В таком виде записываются и раунды SPN1 (S+P), и раунды S-AES
+ * (NibbleSub + ShiftRow + MixColumns), поэтому одна реализация режимов обслуживает оба шифра.
+ * <p>
+ * Массовые операции используют Vector API (см. {@link VectorSupport}), если он доступен,
+ * и скалярный цикл в противном случае. Экземпляр неизменяем.
+ */
+public final class NibbleNetwork {
+
+    private final int[][] tables;
+    private final int[] keys;
+    private final NibbleVectorKernel kernel;
+
+    /**
+     * @param tables n таблиц по 64 элемента
+     * @param keys n + 1 16-битных значений для XOR до каждого шага и после последнего
+     */
+    public NibbleNetwork(int[][] tables, int[] keys) {
+        if (keys.length != tables.length + 1) {
+            throw new IllegalArgumentException("Ожидается " + (tables.length + 1) + " ключей, получено " + keys.length);
+        }
+        this.tables = new int[tables.length][];
+        for (int i = 0; i < tables.length; i++) {
+            if (tables[i].length != 64) {
+                throw new IllegalArgumentException("Таблица шага должна содержать 64 элемента");
+            }
+            this.tables[i] = tables[i].clone();
+        }
+        this.keys = keys.clone();
+        this.kernel = VectorSupport.isAvailable() ? new NibbleVectorKernel(this.tables, this.keys) : null;
+    }
+
+    /**
+     * Применение сети к одному 16-битному значению
+     */
+    public int apply(int x) {
+        for (int s = 0; s < tables.length; s++) {
+            int[] t = tables[s];
+            int u = x ^ keys[s];
+            x = t[u & 0xF] ^ t[16 | ((u >>> 4) & 0xF)] ^ t[32 | ((u >>> 8) & 0xF)] ^ t[48 | ((u >>> 12) & 0xF)];
+        }
+        return x ^ keys[tables.length];
+    }
+
+    /**
+     * Поблочное применение (ECB) на месте
+     */
+    public void applyInPlace(int[] data, int off, int len) {
+        int done = kernel != null ? kernel.apply(data, off, len) : 0;
+        for (int i = off + done; i < off + len; i++) {
+            data[i] = apply(data[i]);
+        }
+    }
+
+    /**
+     * Режим CTR на месте: data_i ^= apply((counter + i) mod 2^16)
+     * @return значение счетчика для следующего участка
+     */
+    public int ctrInPlace(int[] data, int off, int len, int counter) {
+        int done = kernel != null ? kernel.ctr(data, off, len, counter) : 0;
+        for (int i = done; i < len; i++) {
+            data[off + i] = (data[off + i] ^ apply((counter + i) & 0xFFFF)) & 0xFFFF;
+        }
+        return (counter + len) & 0xFFFF;
+    }
+
+    /**
+     * Расшифрование CBC на месте для сети расшифрования: p_i = apply(c_i) ^ c_{i-1}, c_{-1} = iv.
+     * Блоки независимы, поэтому обрабатываются от конца к началу, пока c_{i-1} ещё не перезаписан.
+     * @return последний блок шифротекста (сцепление для следующего участка)
+     */
+    public int decryptCBCInPlace(int[] data, int off, int len, int iv) {
+        if (len == 0) {
+            return iv & 0xFFFF;
+        }
+        int last = data[off + len - 1] & 0xFFFF;
+        int i = off + len;
+        if (kernel != null) {
+            i = kernel.cbcBackward(data, off + 1, i);
+        }
+        while (i > off + 1) {
+            i--;
+            data[i] = (apply(data[i]) ^ data[i - 1]) & 0xFFFF;
+        }
+        data[off] = (apply(data[off]) ^ iv) & 0xFFFF;
+        return last;
+    }
+
+    /**
+     * Расшифрование CFB на месте для сети шифрования: p_i = c_i ^ apply(c_{i-1}), c_{-1} = iv.
+     * @return последний блок шифротекста (сцепление для следующего участка)
+     */
+    public int decryptCFBInPlace(int[] data, int off, int len, int iv) {
+        if (len == 0) {
+            return iv & 0xFFFF;
+        }
+        int last = data[off + len - 1] & 0xFFFF;
+        int i = off + len;
+        if (kernel != null) {
+            i = kernel.cfbBackward(data, off + 1, i);
+        }
+        while (i > off + 1) {
+            i--;
+            data[i] = (data[i] ^ apply(data[i - 1])) & 0xFFFF;
+        }
+        data[off] = (data[off] ^ apply(iv & 0xFFFF)) & 0xFFFF;
+        return last;
+    }
+}
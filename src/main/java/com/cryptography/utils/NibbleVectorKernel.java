@@ -0,0 +1,127 @@
+package com.cryptography.utils;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Векторное ядро {@link NibbleNetwork}: каждая полоса (lane) IntVector содержит независимый 16-битный блок.
+ * <p>
+ * Обращение к 16-элементной таблице выполняется перестановкой полос {@code selectFrom}. Если полос меньше 16,
+ * таблица делится на части по числу полос, и нужная часть выбирается смешиванием (blend) по старшим битам индекса.
+ * Загружается только при доступном модуле jdk.incubator.vector (см. {@link VectorSupport}).
+ */
+final class NibbleVectorKernel {
+
+    static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private static final int LANES = SPECIES.length();
+    private static final int CHUNKS = Math.max(1, 16 / LANES);
+
+    private final IntVector[][][] tables; // [шаг][позиция ниббла][часть таблицы]
+    private final int[] keys;
+    private final IntVector iota;
+
+    NibbleVectorKernel(int[][] tables, int[] keys) {
+        this.tables = new IntVector[tables.length][4][CHUNKS];
+        for (int s = 0; s < tables.length; s++) {
+            for (int p = 0; p < 4; p++) {
+                for (int c = 0; c < CHUNKS; c++) {
+                    int[] part = new int[LANES];
+                    for (int i = 0; i < LANES && c * LANES + i < 16; i++) {
+                        part[i] = tables[s][(p << 4) | (c * LANES + i)];
+                    }
+                    this.tables[s][p][c] = IntVector.fromArray(SPECIES, part, 0);
+                }
+            }
+        }
+        this.keys = keys;
+        int[] idx = new int[LANES];
+        for (int i = 0; i < LANES; i++) {
+            idx[i] = i;
+        }
+        this.iota = IntVector.fromArray(SPECIES, idx, 0);
+    }
+
+    private IntVector lookup(IntVector[] table, IntVector nibble) {
+        if (CHUNKS == 1) {
+            return nibble.selectFrom(table[0]);
+        }
+        IntVector lo = nibble.and(LANES - 1);
+        IntVector r = lo.selectFrom(table[0]);
+        for (int c = 1; c < CHUNKS; c++) {
+            VectorMask<Integer> m = nibble.compare(VectorOperators.GE, c * LANES);
+            r = r.blend(lo.selectFrom(table[c]), m);
+        }
+        return r;
+    }
+
+    private IntVector apply(IntVector x) {
+        for (int s = 0; s < tables.length; s++) {
+            IntVector[][] t = tables[s];
+            IntVector u = x.lanewise(VectorOperators.XOR, keys[s]);
+            x = lookup(t[0], u.and(0xF))
+                .lanewise(VectorOperators.XOR, lookup(t[1], u.lanewise(VectorOperators.LSHR, 4).and(0xF)))
+                .lanewise(VectorOperators.XOR, lookup(t[2], u.lanewise(VectorOperators.LSHR, 8).and(0xF)))
+                .lanewise(VectorOperators.XOR, lookup(t[3], u.lanewise(VectorOperators.LSHR, 12).and(0xF)));
+        }
+        return x.lanewise(VectorOperators.XOR, keys[tables.length]);
+    }
+
+    /**
+     * ECB на месте для целого числа векторов
+     * @return количество обработанных блоков от начала участка
+     */
+    int apply(int[] data, int off, int len) {
+        int bound = SPECIES.loopBound(len);
+        for (int i = 0; i < bound; i += LANES) {
+            apply(IntVector.fromArray(SPECIES, data, off + i)).intoArray(data, off + i);
+        }
+        return bound;
+    }
+
+    /**
+     * CTR на месте для целого числа векторов
+     * @return количество обработанных блоков от начала участка
+     */
+    int ctr(int[] data, int off, int len, int counter) {
+        int bound = SPECIES.loopBound(len);
+        for (int i = 0; i < bound; i += LANES) {
+            IntVector ctr = iota.add(counter + i).and(0xFFFF);
+            IntVector v = IntVector.fromArray(SPECIES, data, off + i);
+            v.lanewise(VectorOperators.XOR, apply(ctr)).and(0xFFFF).intoArray(data, off + i);
+        }
+        return bound;
+    }
+
+    /**
+     * CBC-расшифрование блоков [lo, hi) от конца: data_i = apply(data_i) ^ data_{i-1}
+     * @return новая верхняя граница необработанной части
+     */
+    int cbcBackward(int[] data, int lo, int hi) {
+        int i = hi;
+        while (i - LANES >= lo) {
+            i -= LANES;
+            IntVector c = IntVector.fromArray(SPECIES, data, i);
+            IntVector prev = IntVector.fromArray(SPECIES, data, i - 1);
+            apply(c).lanewise(VectorOperators.XOR, prev).and(0xFFFF).intoArray(data, i);
+        }
+        return i;
+    }
+
+    /**
+     * CFB-расшифрование блоков [lo, hi) от конца: data_i = data_i ^ apply(data_{i-1})
+     * @return новая верхняя граница необработанной части
+     */
+    int cfbBackward(int[] data, int lo, int hi) {
+        int i = hi;
+        while (i - LANES >= lo) {
+            i -= LANES;
+            IntVector c = IntVector.fromArray(SPECIES, data, i);
+            IntVector prev = IntVector.fromArray(SPECIES, data, i - 1);
+            c.lanewise(VectorOperators.XOR, apply(prev.and(0xFFFF))).and(0xFFFF).intoArray(data, i);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,39 @@
+package com.cryptography.utils;
+
+/**
+ * Определяет, доступен ли Vector API (модуль jdk.incubator.vector) во время выполнения.
+ * <p>
+ * Модуль подключается флагом {@code --add-modules jdk.incubator.vector}. Если он не подключён
+ * или векторизация отключена свойством {@code -Dcryptography.vector=false}, блочные шифры
+ * используют скалярные табличные реализации. Классы Vector API загружаются только после проверки.
+ */
+public final class VectorSupport {
+
+    private static final boolean AVAILABLE = detect();
+
+    private VectorSupport() {}
+
+    private static boolean detect() {
+        if (!Boolean.parseBoolean(System.getProperty("cryptography.vector", "true"))) {
+            return false;
+        }
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * @return true, если векторная реализация будет использоваться
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Описание выбранной реализации: вид вектора (species) или причина работы в скалярном режиме.
+     */
+    public static String description() {
+        if (AVAILABLE) {
+            return "Vector API: " + NibbleVectorKernel.SPECIES;
+        }
+        return "скалярная реализация (модуль jdk.incubator.vector не подключён или отключён)";
+    }
+}
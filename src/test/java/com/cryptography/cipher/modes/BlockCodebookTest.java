@@ -0,0 +1,82 @@
+package com.cryptography.cipher.modes;
+
+import com.cryptography.main.task4.SPN1TableCipher;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Кодовая книга должна совпадать с шифром и после порога кэша, в том числе когда расшифрование
+ * не обратно шифрованию (SPN1 с двумя раундами)
+ */
+class BlockCodebookTest {
+
+    private static final int BLOCKS = 70000;
+
+    private final SPN1TableCipher cipher = new SPN1TableCipher(0x12345678L, 2);
+
+    @BeforeEach
+    void clearCache() {
+        BlockCodebook.shared().clear();
+    }
+
+    @Test
+    void decryptEcbMatchesCipherAfterThreshold() {
+        int[] data = randomBlocks();
+        int[] expected = data.clone();
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = cipher.decrypt(expected[i]);
+        }
+
+        BlockModes16.decryptECB(cipher, data, 0, data.length);
+
+        assertTrue(BlockCodebook.shared().contains(cipher));
+        assertArrayEquals(expected, data);
+    }
+
+    @Test
+    void decryptCbcMatchesCipherAfterThreshold() {
+        int iv = 0x2A5C;
+        int[] data = randomBlocks();
+        int[] expected = data.clone();
+        int previous = iv;
+        for (int i = 0; i < expected.length; i++) {
+            int y = expected[i];
+            expected[i] = cipher.decrypt(y) ^ previous;
+            previous = y;
+        }
+
+        BlockModes16.decryptCBC(cipher, data, 0, data.length, iv);
+
+        assertTrue(BlockCodebook.shared().contains(cipher));
+        assertArrayEquals(expected, data);
+    }
+
+    @Test
+    void codebookTablesMatchCipher() {
+        BlockCodebook book = BlockCodebook.shared().get(cipher);
+        boolean roundTrip = true;
+        for (int x = 0; x < 65536; x++) {
+            assertEquals(cipher.encrypt(x), book.encrypt(x));
+            assertEquals(cipher.decrypt(x), book.decrypt(x));
+            roundTrip &= cipher.decrypt(cipher.encrypt(x)) == x;
+        }
+        assertFalse(roundTrip, "Для двух раундов SPN1 расшифрование не обратно шифрованию");
+    }
+
+    private static int[] randomBlocks() {
+        Random random = new Random(42);
+        int[] data = new int[BLOCKS];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(65536);
+        }
+        return data;
+    }
+}